@@ -77,7 +77,18 @@ dependencies {
 	testImplementation("org.junit.platform:junit-platform-launcher")
 }
 tasks.test {
-	useJUnitPlatform()
+	useJUnitPlatform {
+		excludeTags("benchmark")
+	}
+}
+// Benchmarks depend on the machine, run them with gradlew benchmark
+tasks.register<Test>("benchmark") {
+	group = "verification"
+	testClassesDirs = sourceSets.test.get().output.classesDirs
+	classpath = sourceSets.test.get().runtimeClasspath
+	useJUnitPlatform {
+		includeTags("benchmark")
+	}
 }
 
 tasks.shadowJar {
@@ -2,6 +2,7 @@
 
 package dev.slimevr
 
+import dev.slimevr.vr.trackers.udp.TrackerFleetSimulator
 import io.eiren.util.logging.LogManager
 import org.apache.commons.cli.CommandLine
 import org.apache.commons.cli.CommandLineParser
@@ -13,6 +14,8 @@ import org.apache.commons.lang3.SystemUtils
 import java.io.File
 import java.io.IOException
 import java.lang.System
+import java.net.InetAddress
+import java.net.InetSocketAddress
 import java.net.ServerSocket
 import javax.swing.JOptionPane
 import kotlin.system.exitProcess
@@ -31,8 +34,45 @@ fun main(args: Array<String>) {
 	val options = Options()
 	val help = Option("h", "help", false, "Show help")
 	val version = Option("V", "version", false, "Show version")
+	val capture = Option(null, "capture", true, "Capture received tracker datagrams to a file")
+	val replay = Option(
+		null,
+		"replay",
+		true,
+		"Replay captured tracker datagrams instead of listening for trackers"
+	)
+	val replaySpeed = Option(
+		null,
+		"replay-speed",
+		true,
+		"Replay speed relative to the capture, 0 to replay as fast as possible"
+	)
+	val simulate = Option(
+		null,
+		"simulate",
+		true,
+		"Simulate this many tracker devices over loopback for load testing"
+	)
+	val simulateSensors = Option(
+		null,
+		"simulate-sensors",
+		true,
+		"Sensors per simulated device, 1 by default"
+	)
+	val simulateRate = Option(
+		null,
+		"simulate-rate",
+		true,
+		"Rotation and acceleration packets per second of simulated sensors, 100 by default"
+	)
 	options.addOption(help)
 	options.addOption(version)
+	options.addOption(capture)
+	options.addOption(replay)
+	options.addOption(replaySpeed)
+	options.addOption(simulate)
+	options.addOption(simulateSensors)
+	options.addOption(simulateRate)
 	val cmd: CommandLine = try {
 		parser.parse(options, args, true)
 	} catch (e: org.apache.commons.cli.ParseException) {
@@ -88,7 +128,28 @@ fun main(args: Array<String>) {
 	}
 	try {
 		vrServer = VRServer()
+		if (cmd.hasOption("capture")) {
+			vrServer!!.trackersServer.setCaptureFile(File(cmd.getOptionValue("capture")).toPath())
+		}
+		if (cmd.hasOption("replay")) {
+			vrServer!!.trackersServer
+				.setReplay(
+					File(cmd.getOptionValue("replay")).toPath(),
+					cmd.getOptionValue("replay-speed", "1").toDouble()
+				)
+		}
 		vrServer!!.start()
+		if (cmd.hasOption("simulate")) {
+			TrackerFleetSimulator(
+				InetSocketAddress(
+					InetAddress.getLoopbackAddress(),
+					vrServer!!.configManager.vrConfig.server.trackerPort
+				),
+				cmd.getOptionValue("simulate").toInt(),
+				cmd.getOptionValue("simulate-sensors", "1").toInt(),
+				cmd.getOptionValue("simulate-rate", "100").toFloat()
+			).start()
+		}
 		Keybinding(vrServer)
 	} catch (e: Throwable) {
 		e.printStackTrace()
@@ -5,6 +5,7 @@ import dev.slimevr.autobone.AutoBoneHandler;
 import dev.slimevr.bridge.Bridge;
 import dev.slimevr.bridge.VMCBridge;
 import dev.slimevr.config.ConfigManager;
+import dev.slimevr.config.ServerConfig;
 import dev.slimevr.osc.OSCHandler;
 import dev.slimevr.osc.OSCRouter;
 import dev.slimevr.osc.VRCOSCHandler;
@@ -13,14 +14,24 @@ import dev.slimevr.platform.linux.UnixSocketBridge;
 import dev.slimevr.platform.windows.WindowsNamedPipeBridge;
 import dev.slimevr.poserecorder.BVHRecorder;
 import dev.slimevr.protocol.ProtocolAPI;
+import dev.slimevr.protocol.ProtocolAPIServer;
 import dev.slimevr.serial.SerialHandler;
+import dev.slimevr.util.Clock;
+import dev.slimevr.util.ConsumerScheduler;
+import dev.slimevr.util.ServerTaskQueue;
+import dev.slimevr.util.TickProfiler;
+import dev.slimevr.util.TickScheduler;
 import dev.slimevr.util.ann.VRServerThread;
 import dev.slimevr.vr.DeviceManager;
+import dev.slimevr.vr.processor.ComputedHumanPoseTracker;
 import dev.slimevr.vr.processor.HumanPoseProcessor;
+import dev.slimevr.vr.processor.PoseProcessorThread;
 import dev.slimevr.vr.processor.skeleton.Skeleton;
 import dev.slimevr.vr.trackers.HMDTracker;
 import dev.slimevr.vr.trackers.ShareableTracker;
 import dev.slimevr.vr.trackers.Tracker;
+import dev.slimevr.vr.trackers.TrackerPose;
+import dev.slimevr.vr.trackers.TrackerRegistry;
 import dev.slimevr.vr.trackers.udp.TrackersUDPServer;
 import dev.slimevr.websocketapi.WebSocketVRBridge;
 import io.eiren.util.OperatingSystem;
@@ -32,22 +43,44 @@ import solarxr_protocol.datatypes.TrackerIdT;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Collections;
 import java.util.List;
-import java.util.Queue;
 import java.util.Timer;
 import java.util.TimerTask;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Consumer;
 
 
 public class VRServer extends Thread {
 
+	/**
+	 * Time per tick background tasks can run for once critical tasks are done
+	 */
+	private static final long BACKGROUND_TASK_BUDGET_NANOS = 500_000;
+	/**
+	 * Time without active trackers or consumers before ticking at the idle
+	 * rate
+	 */
+	private static final long IDLE_DELAY_NANOS = 5_000_000_000L;
+	/**
+	 * Time between checks for activity while ticking at the full rate
+	 */
+	private static final long IDLE_CHECK_INTERVAL_NANOS = 1_000_000_000L;
+
+	/**
+	 * Pose processor of the first performer, ticked on the server thread
+	 */
 	public final HumanPoseProcessor humanPoseProcessor;
 	public final HMDTracker hmdTracker;
-	private final List<Tracker> trackers = new FastList<>();
+	private final TrackerRegistry trackers = new TrackerRegistry();
+	private final List<HumanPoseProcessor> poseProcessors = new FastList<>();
+	/**
+	 * Thread ticking each performer, null for the ones ticked on the server
+	 * thread
+	 */
+	private final PoseProcessorThread[] poseProcessorThreads;
 	private final TrackersUDPServer trackersServer;
 	private final List<Bridge> bridges = new FastList<>();
-	private final Queue<Runnable> tasks = new LinkedBlockingQueue<>();
+	private final ServerTaskQueue tasks = new ServerTaskQueue(1024, 4096);
 	private final List<Consumer<Tracker>> newTrackersConsumers = new FastList<>();
 	private final List<Runnable> onTick = new FastList<>();
 	private final List<? extends ShareableTracker> shareTrackers;
@@ -61,6 +94,11 @@ public class VRServer extends Thread {
 	private final ConfigManager configManager;
 	private final Timer timer = new Timer();
 	private final NanoTimer fpsTimer = new NanoTimer();
+	private final TickScheduler tickScheduler;
+	private final TickProfiler tickProfiler = new TickProfiler();
+	private final ConsumerScheduler consumers;
+	private long lastActive = Clock.nanoTime();
+	private long lastIdleCheck;
 
 	/**
 	 * This function is used by VRWorkout, do not remove!
@@ -74,6 +112,11 @@ public class VRServer extends Thread {
 
 		this.configManager = new ConfigManager(configPath);
 		this.configManager.loadConfig();
+		// Serialized between the changes made by the server thread
+		this.configManager.setSnapshotExecutor(this::queueBackgroundTask);
+		ServerConfig serverConfig = configManager.getVrConfig().getServer();
+		tickScheduler = createTickScheduler(serverConfig);
+		consumers = new ConsumerScheduler(tickScheduler.getTargetRate());
 
 		deviceManager = new DeviceManager(this);
 
@@ -84,9 +127,21 @@ public class VRServer extends Thread {
 		hmdTracker = new HMDTracker("HMD");
 		hmdTracker.position.set(0, 1.8f, 0); // Set starting position for easier
 												// debugging
-		// TODO Multiple processors
-		humanPoseProcessor = new HumanPoseProcessor(this);
+		humanPoseProcessor = new HumanPoseProcessor(this, 0);
+		poseProcessors.add(humanPoseProcessor);
 		shareTrackers = humanPoseProcessor.getComputedTrackers();
+		int performers = Math.max(serverConfig.getPerformers(), 1);
+		poseProcessorThreads = new PoseProcessorThread[performers];
+		for (int i = 1; i < performers; ++i) {
+			HumanPoseProcessor processor = new HumanPoseProcessor(this, i);
+			poseProcessors.add(processor);
+			if (serverConfig.isPerformerThreads())
+				poseProcessorThreads[i] = new PoseProcessorThread(
+					processor,
+					trackers,
+					createTickScheduler(serverConfig)
+				);
+		}
 
 		// Start server for SlimeVR trackers
 		int trackerPort = configManager.getVrConfig().getServer().getTrackerPort();
@@ -94,8 +149,21 @@ public class VRServer extends Thread {
 		trackersServer = new TrackersUDPServer(
 			trackerPort,
 			"Sensors UDP server",
-			this::registerTracker
+			this::registerTracker,
+			configManager.getVrConfig().getServer().isUseNioIngest(),
+			configManager.getVrConfig().getServer().getTrackerServerWorkers()
 		);
+		trackersServer.setDataListener(this::wakeUp);
+		trackersServer
+			.setRateLimits(
+				configManager.getVrConfig().getServer().getTrackerPacketRateLimit(),
+				configManager.getVrConfig().getServer().getTrackerHandshakeRateLimit()
+			);
+		trackersServer
+			.setRateControl(
+				configManager.getVrConfig().getServer().isTrackerRateControl(),
+				tickScheduler
+			);
 
 		// OpenVR bridge currently only supports Windows
 		final SteamVRBridge driverBridge;
@@ -110,7 +178,7 @@ public class VRServer extends Thread {
 				"\\\\.\\pipe\\SlimeVRDriver",
 				shareTrackers
 			);
-			tasks.add(driverBridge::startBridge);
+			tasks.addCritical(driverBridge::startBridge);
 			bridges.add(driverBridge);
 
 			// Create named pipe bridge for SteamVR input
@@ -123,7 +191,7 @@ public class VRServer extends Thread {
 				"\\\\.\\pipe\\SlimeVRInput",
 				new FastList<>()
 			);
-			tasks.add(feederBridge::startBridge);
+			tasks.addCritical(feederBridge::startBridge);
 			bridges.add(feederBridge);
 		} else if (OperatingSystem.getCurrentPlatform() == OperatingSystem.LINUX) {
 			SteamVRBridge linuxBridge = null;
@@ -141,7 +209,7 @@ public class VRServer extends Thread {
 			}
 			driverBridge = linuxBridge;
 			if (driverBridge != null) {
-				tasks.add(driverBridge::startBridge);
+				tasks.addCritical(driverBridge::startBridge);
 				bridges.add(driverBridge);
 			}
 		} else {
@@ -150,6 +218,8 @@ public class VRServer extends Thread {
 
 		// Add shutdown hook
 		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			configManager.flushConfig();
+			trackersServer.closeCapture();
 			try {
 				if (driverBridge instanceof UnixSocketBridge linuxBridge) {
 					// Auto-close Linux SteamVR bridge on JVM shutdown
@@ -162,13 +232,13 @@ public class VRServer extends Thread {
 
 		// Create WebSocket server
 		WebSocketVRBridge wsBridge = new WebSocketVRBridge(hmdTracker, shareTrackers, this);
-		tasks.add(wsBridge::startBridge);
+		tasks.addCritical(wsBridge::startBridge);
 		bridges.add(wsBridge);
 
 		// Create VMCBridge
 		try {
 			VMCBridge vmcBridge = new VMCBridge(39539, 39540, InetAddress.getLocalHost());
-			tasks.add(vmcBridge::startBridge);
+			tasks.addCritical(vmcBridge::startBridge);
 			bridges.add(vmcBridge);
 		} catch (UnknownHostException e) {
 			e.printStackTrace();
@@ -184,6 +254,8 @@ public class VRServer extends Thread {
 			shareTrackers
 		);
 
+		addConsumer(serverConfig.getVrcOSCRate(), vrcOSCHandler::update);
+
 		// Initialize OSC router
 		FastList<OSCHandler> oscHandlers = new FastList<>();
 		oscHandlers.add(vrcOSCHandler);
@@ -191,12 +263,23 @@ public class VRServer extends Thread {
 
 		bvhRecorder = new BVHRecorder(this);
 
-		registerTracker(hmdTracker);
-		for (Tracker tracker : shareTrackers) {
-			registerTracker(tracker);
+		registerTracker(hmdTracker, 0);
+		for (HumanPoseProcessor processor : poseProcessors) {
+			for (Tracker tracker : processor.getComputedTrackers()) {
+				registerTracker(tracker, processor.getPerformer());
+			}
 		}
 	}
 
+	private static TickScheduler createTickScheduler(ServerConfig serverConfig) {
+		TickScheduler scheduler = new TickScheduler(
+			serverConfig.getTickRate(),
+			serverConfig.isEventDrivenTick() ? serverConfig.getMaxTickIdleMs() : 0
+		);
+		scheduler.setIdleRate(serverConfig.getIdleTickRate());
+		return scheduler;
+	}
+
 	public boolean hasBridge(Class<? extends Bridge> bridgeClass) {
 		for (Bridge bridge : bridges) {
 			if (bridgeClass.isAssignableFrom(bridge.getClass())) {
@@ -221,11 +304,23 @@ public class VRServer extends Thread {
 		this.onTick.add(runnable);
 	}
 
+	/**
+	 * Runs a consumer of the pose at its own rate, once the pose of the tick
+	 * is computed and written to the bridges. Must be called before the
+	 * server starts, or from the server thread.
+	 *
+	 * @param rate runs per second, 0 to run every tick
+	 * @return the registration, to change the rate
+	 */
+	public ConsumerScheduler.Registration addConsumer(float rate, Runnable consumer) {
+		return consumers.add(Clock.nanoTime(), rate, consumer);
+	}
+
 	@ThreadSafe
 	public void addNewTrackerConsumer(Consumer<Tracker> consumer) {
 		queueTask(() -> {
 			newTrackersConsumers.add(consumer);
-			for (Tracker tracker : trackers) {
+			for (Tracker tracker : trackers.getSnapshot().getTrackers()) {
 				consumer.accept(tracker);
 			}
 		});
@@ -233,8 +328,12 @@ public class VRServer extends Thread {
 
 	@ThreadSafe
 	public void trackerUpdated(Tracker tracker) {
-		queueTask(() -> {
-			humanPoseProcessor.trackerUpdated(tracker);
+		queueBackgroundTask(() -> {
+			// The body position may have changed
+			trackers.refresh();
+			int performer = trackers.getSnapshot().getPerformer(tracker);
+			if (performer >= 0)
+				runForPerformer(performer, processor -> processor.trackerUpdated(tracker));
 			this.getConfigManager().getVrConfig().writeTrackerConfig(tracker);
 			this.getConfigManager().saveConfig();
 		});
@@ -249,51 +348,217 @@ public class VRServer extends Thread {
 	@VRServerThread
 	public void run() {
 		trackersServer.start();
+		for (PoseProcessorThread thread : poseProcessorThreads) {
+			if (thread != null)
+				thread.start();
+		}
 		while (true) {
-			// final long start = System.currentTimeMillis();
+			tickScheduler.awaitNextTick();
+			tickProfiler.startTick();
 			fpsTimer.update();
-			do {
-				Runnable task = tasks.poll();
-				if (task == null)
-					break;
-				task.run();
-			} while (true);
+			updateIdle();
+			tasks.runTasks(BACKGROUND_TASK_BUDGET_NANOS);
+			tickProfiler.endPhase(TickProfiler.TASKS);
 			for (Runnable task : onTick) {
 				task.run();
 			}
+			tickProfiler.endPhase(TickProfiler.ON_TICK);
 			for (Bridge bridge : bridges) {
 				bridge.dataRead();
 			}
-			for (Tracker tracker : trackers) {
-				tracker.tick();
+			tickProfiler.endPhase(TickProfiler.BRIDGE_READ);
+			TrackerRegistry.Snapshot snapshot = trackers.getSnapshot();
+			for (int i = 0; i < poseProcessorThreads.length; ++i) {
+				if (poseProcessorThreads[i] != null)
+					continue;
+				for (Tracker tracker : snapshot.getPerformerTrackers(i)) {
+					tracker.tick();
+				}
+			}
+			tickProfiler.endPhase(TickProfiler.TRACKER_TICK);
+			for (int i = 0; i < poseProcessorThreads.length; ++i) {
+				if (poseProcessorThreads[i] == null)
+					poseProcessors.get(i).update();
 			}
-			humanPoseProcessor.update();
+			tickProfiler.endPhase(TickProfiler.POSE_PROCESSOR);
 			for (Bridge bridge : bridges) {
 				bridge.dataWrite();
 			}
-			vrcOSCHandler.update();
-			// final long time = System.currentTimeMillis() - start;
-			try {
-				Thread.sleep(1); // 1000Hz
-			} catch (InterruptedException ignored) {}
+			tickProfiler.endPhase(TickProfiler.BRIDGE_WRITE);
+			consumers.run(Clock.nanoTime());
+			tickProfiler.endPhase(TickProfiler.CONSUMERS);
+			tickProfiler.endTick();
 		}
 	}
 
+	/**
+	 * Ticks at the idle rate when no tracker is active and nothing consumes
+	 * the pose. Data arriving wakes the scheduler up from idle right away, the
+	 * state is checked again at every idle tick and every second otherwise.
+	 */
+	@VRServerThread
+	private void updateIdle() {
+		long now = Clock.nanoTime();
+		boolean idle = tickScheduler.isIdle();
+		if (!idle && now - lastIdleCheck < IDLE_CHECK_INTERVAL_NANOS)
+			return;
+		lastIdleCheck = now;
+		if (hasActiveTrackersOrConsumers()) {
+			lastActive = now;
+			if (idle)
+				setIdle(false);
+		} else if (!idle && now - lastActive >= IDLE_DELAY_NANOS) {
+			setIdle(true);
+		}
+	}
+
+	@VRServerThread
+	private void setIdle(boolean idle) {
+		tickScheduler.setIdle(idle);
+		for (PoseProcessorThread thread : poseProcessorThreads) {
+			if (thread != null)
+				thread.setIdle(idle);
+		}
+		if (idle && tickScheduler.isIdle())
+			LogManager
+				.debug(
+					"[VRServer] No active trackers or consumers, ticking at "
+						+ tickScheduler.getIdleRate()
+						+ " Hz"
+				);
+	}
+
+	@VRServerThread
+	private boolean hasActiveTrackersOrConsumers() {
+		for (Tracker tracker : trackers.getSnapshot().getTrackers()) {
+			// The pose computed by the server isn't activity on its own
+			if (!(tracker instanceof ComputedHumanPoseTracker) && tracker.getStatus().sendData)
+				return true;
+		}
+		for (Bridge bridge : bridges) {
+			if (bridge instanceof SteamVRBridge steamVRBridge && steamVRBridge.isConnected())
+				return true;
+		}
+		for (ProtocolAPIServer server : protocolAPI.getAPIServers()) {
+			if (server.getAPIConnections().findAny().isPresent())
+				return true;
+		}
+		return bvhRecorder.isRecording();
+	}
+
+	/**
+	 * Queues a latency-critical task, run at the start of the next tick
+	 */
 	@ThreadSafe
 	public void queueTask(Runnable r) {
-		tasks.add(r);
+		tasks.addCritical(r);
+		wakeUp();
+	}
+
+	/**
+	 * Queues a task nobody is waiting on, run within a time budget per tick
+	 * after critical tasks
+	 */
+	@ThreadSafe
+	public void queueBackgroundTask(Runnable r) {
+		tasks.addBackground(r);
+		wakeUp();
+	}
+
+	/**
+	 * Runs the next tick as soon as possible when ticks are event-driven,
+	 * called when new data arrived
+	 */
+	@ThreadSafe
+	public void wakeUp() {
+		tickScheduler.signal();
+		for (PoseProcessorThread thread : poseProcessorThreads) {
+			if (thread != null)
+				thread.wakeUp();
+		}
+	}
+
+	/**
+	 * Runs the next tick of the thread ticking this performer as soon as
+	 * possible, called when new data of its trackers arrived
+	 */
+	@ThreadSafe
+	public void wakeUp(int performer) {
+		PoseProcessorThread thread = performer > 0 && performer < poseProcessorThreads.length
+			? poseProcessorThreads[performer]
+			: null;
+		if (thread != null)
+			thread.wakeUp();
+		else
+			tickScheduler.signal();
+	}
+
+	/**
+	 * Runs a task with the pose processor of a performer, on the thread
+	 * ticking it
+	 */
+	@ThreadSafe
+	public void queuePerformerTask(int performer, Consumer<HumanPoseProcessor> task) {
+		queueTask(() -> runForPerformer(performer, task));
+	}
+
+	@VRServerThread
+	private void runForPerformer(int performer, Consumer<HumanPoseProcessor> task) {
+		HumanPoseProcessor processor = poseProcessors.get(performer);
+		PoseProcessorThread thread = poseProcessorThreads[performer];
+		if (thread != null)
+			thread.queueTask(() -> task.accept(processor));
+		else
+			task.accept(processor);
+	}
+
+	@VRServerThread
+	private void runForAllPerformers(Consumer<HumanPoseProcessor> task) {
+		for (int i = 0; i < poseProcessors.size(); ++i) {
+			runForPerformer(i, task);
+		}
+	}
+
+	/**
+	 * Adds a bridge sharing the pose of a performer. Bridges of performers
+	 * ticked on their own thread are read and written on that thread.
+	 */
+	@ThreadSafe
+	public void addPerformerBridge(int performer, Bridge bridge) {
+		PoseProcessorThread thread = poseProcessorThreads[performer];
+		if (thread != null) {
+			thread.addBridge(bridge);
+		} else {
+			queueTask(() -> {
+				bridges.add(bridge);
+				bridge.startBridge();
+			});
+		}
 	}
 
 	@VRServerThread
 	private void trackerAdded(Tracker tracker) {
-		humanPoseProcessor.trackerAdded(tracker);
+		runForPerformer(
+			trackers.getSnapshot().getPerformer(tracker),
+			processor -> processor.trackerAdded(tracker)
+		);
 	}
 
 	@ThreadSecure
 	public void registerTracker(Tracker tracker) {
+		registerTracker(
+			tracker,
+			this.getConfigManager().getVrConfig().getTracker(tracker).getPerformer()
+		);
+	}
+
+	@ThreadSecure
+	private void registerTracker(Tracker tracker, int performer) {
 		this.getConfigManager().getVrConfig().readTrackerConfig(tracker);
+		// Trackers of performers that aren't enabled go to the first one
+		int index = performer > 0 && performer < poseProcessors.size() ? performer : 0;
 		queueTask(() -> {
-			trackers.add(tracker);
+			trackers.add(tracker, index);
 			trackerAdded(tracker);
 			for (Consumer<Tracker> tc : newTrackersConsumers) {
 				tc.accept(tracker);
@@ -301,18 +566,46 @@ public class VRServer extends Thread {
 		});
 	}
 
+	/**
+	 * Resets the trackers of every performer
+	 */
 	public void resetTrackers() {
-		queueTask(humanPoseProcessor::resetTrackers);
+		queueTask(() -> runForAllPerformers(HumanPoseProcessor::resetTrackers));
 	}
 
+	/**
+	 * Resets the yaw of the trackers of every performer
+	 */
 	public void resetTrackersYaw() {
-		queueTask(humanPoseProcessor::resetTrackersYaw);
+		queueTask(() -> runForAllPerformers(HumanPoseProcessor::resetTrackersYaw));
 	}
 
+	/**
+	 * Resets the mounting of the trackers of every performer
+	 */
 	public void resetTrackersMounting() {
-		queueTask(humanPoseProcessor::resetTrackersMounting);
+		queueTask(() -> runForAllPerformers(HumanPoseProcessor::resetTrackersMounting));
+	}
+
+	/**
+	 * Resets the trackers of one performer, 0 being the one wearing the
+	 * headset
+	 */
+	public void resetTrackers(int performer) {
+		queuePerformerTask(performer, HumanPoseProcessor::resetTrackers);
 	}
 
+	public void resetTrackersYaw(int performer) {
+		queuePerformerTask(performer, HumanPoseProcessor::resetTrackersYaw);
+	}
+
+	public void resetTrackersMounting(int performer) {
+		queuePerformerTask(performer, HumanPoseProcessor::resetTrackersMounting);
+	}
+
+	/**
+	 * Resets the trackers of the performer wearing the headset after a delay
+	 */
 	public void scheduleResetTrackers(long delay) {
 		TimerTask resetTask = new resetTask();
 		timer.schedule(resetTask, delay);
@@ -330,64 +623,102 @@ public class VRServer extends Thread {
 
 	class resetTask extends TimerTask {
 		public void run() {
-			queueTask(humanPoseProcessor::resetTrackers);
+			resetTrackers(0);
 		}
 	}
 
 	class yawResetTask extends TimerTask {
 		public void run() {
-			queueTask(humanPoseProcessor::resetTrackersYaw);
+			resetTrackersYaw(0);
 		}
 	}
 
 	class resetMountingTask extends TimerTask {
 		public void run() {
-			queueTask(humanPoseProcessor::resetTrackersMounting);
+			resetTrackersMounting(0);
 		}
 	}
 
 	public void setLegTweaksEnabled(boolean value) {
-		queueTask(() -> humanPoseProcessor.setLegTweaksEnabled(value));
+		queueTask(() -> runForAllPerformers(p -> p.setLegTweaksEnabled(value)));
 	}
 
 	public void setSkatingReductionEnabled(boolean value) {
-		queueTask(() -> humanPoseProcessor.setSkatingCorrectionEnabled(value));
+		queueTask(() -> runForAllPerformers(p -> p.setSkatingCorrectionEnabled(value)));
 	}
 
 	public void setFloorClipEnabled(boolean value) {
-		queueTask(() -> humanPoseProcessor.setFloorClipEnabled(value));
+		queueTask(() -> runForAllPerformers(p -> p.setFloorClipEnabled(value)));
 	}
 
 	public int getTrackersCount() {
-		return trackers.size();
+		return trackers.getSnapshot().size();
 	}
 
+	/**
+	 * @return all trackers, unmodifiable
+	 */
+	@ThreadSafe
 	public List<Tracker> getAllTrackers() {
-		return new FastList<>(trackers);
+		return trackers.getSnapshot().getTrackers();
 	}
 
-	public Tracker getTrackerById(TrackerIdT id) {
-		for (Tracker tracker : trackers) {
-			if (tracker.getTrackerNum() != id.getTrackerNum()) {
-				continue;
-			}
+	/**
+	 * @return the pose processor of every performer, the first one is
+	 * {@link #humanPoseProcessor}, unmodifiable
+	 */
+	@ThreadSafe
+	public List<HumanPoseProcessor> getPoseProcessors() {
+		return Collections.unmodifiableList(poseProcessors);
+	}
 
-			// Handle synthetic devices
-			if (id.getDeviceId() == null && tracker.getDevice() == null) {
-				return tracker;
-			}
+	/**
+	 * Trackers of performers ticked on their own thread are written by that
+	 * thread, read their pose from here instead
+	 *
+	 * @return a copy of the pose of the tracker, as of the end of the last
+	 * tick of the thread ticking it, or null if it hasn't been ticked yet
+	 */
+	@VRServerThread
+	public TrackerPose getPose(Tracker tracker) {
+		PoseProcessorThread thread = getPoseProcessorThread(tracker);
+		if (thread == null)
+			return TrackerPose.of(tracker);
+		TrackerPose pose = new TrackerPose();
+		return thread.getPose().get(tracker, pose) ? pose : null;
+	}
 
-			if (
-				tracker.getDevice() != null
-					&& id.getDeviceId() != null
-					&& id.getDeviceId().getId() == tracker.getDevice().getId()
-			) {
-				// This is a physical tracker, and both device id and the
-				// tracker num match
-				return tracker;
-			}
-		}
-		return null;
+	/**
+	 * Runs a task changing a tracker on the thread ticking it
+	 */
+	@ThreadSafe
+	public void queueTrackerTask(Tracker tracker, Runnable task) {
+		queueTask(() -> {
+			PoseProcessorThread thread = getPoseProcessorThread(tracker);
+			if (thread != null)
+				thread.queueTask(task);
+			else
+				task.run();
+		});
+	}
+
+	private PoseProcessorThread getPoseProcessorThread(Tracker tracker) {
+		int performer = trackers.getSnapshot().getPerformer(tracker);
+		return performer >= 0 ? poseProcessorThreads[performer] : null;
+	}
+
+	@ThreadSafe
+	public TrackerRegistry getTrackerRegistry() {
+		return trackers;
+	}
+
+	@ThreadSafe
+	public Tracker getTrackerById(TrackerIdT id) {
+		// Synthetic trackers don't have a device
+		int deviceId = id.getDeviceId() != null
+			? id.getDeviceId().getId()
+			: TrackerRegistry.NO_DEVICE;
+		return trackers.getSnapshot().getTracker(deviceId, id.getTrackerNum());
 	}
 
 	public BVHRecorder getBvhRecorder() {
@@ -430,4 +761,13 @@ public class VRServer extends Thread {
 		return fpsTimer;
 	}
 
+	public TickScheduler getTickScheduler() {
+		return tickScheduler;
+	}
+
+	@VRServerThread
+	public TickProfiler getTickProfiler() {
+		return tickProfiler;
+	}
+
 }
@@ -47,6 +47,7 @@ public abstract class ProtobufBridge<T extends VRTracker> implements Bridge {
 	@BridgeThread
 	protected void messageReceived(ProtobufMessage message) {
 		inputQueue.add(message);
+		Main.getVrServer().wakeUp();
 	}
 
 	@ThreadSafe
@@ -179,10 +180,10 @@ public abstract class ProtobufBridge<T extends VRTracker> implements Bridge {
 					.warning("[" + bridgeName + "] Received deprecated user action 'calibrate'!");
 			case "reset":
 				// TODO : Check pose field
-				Main.getVrServer().resetTrackers();
+				Main.getVrServer().resetTrackers(0);
 				break;
 			case "fast_reset":
-				Main.getVrServer().resetTrackersYaw();
+				Main.getVrServer().resetTrackersYaw(0);
 				break;
 		}
 	}
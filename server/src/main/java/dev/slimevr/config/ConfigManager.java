@@ -13,8 +13,19 @@ import io.eiren.util.logging.LogManager;
 
 import java.io.*;
 import java.nio.file.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 
+/**
+ * Loads and saves the {@link VRConfig}. Saving is asynchronous: a save only
+ * marks the config as changed, then a background thread waits for
+ * {@link ServerConfig#getConfigSaveDelayMs()}, so saves coming in shortly
+ * after each other are coalesced, takes a single snapshot of the config on the
+ * snapshot executor and writes it. Callers never wait on serializing the
+ * config or on the disk.
+ */
 public class ConfigManager {
 
 	private final String configPath;
@@ -23,6 +34,26 @@ public class ConfigManager {
 
 	private VRConfig vrConfig;
 
+	private volatile Executor snapshotExecutor = Runnable::run;
+
+	// Guarded by this
+	/**
+	 * Incremented by every save request
+	 */
+	private long requestedGeneration = 0;
+	private long savedGeneration = 0;
+	/**
+	 * Generation that failed to be serialized or written, retried on the
+	 * next save or flush
+	 */
+	private long failedGeneration = 0;
+	private ConfigWriter writer;
+
+	/**
+	 * Held while writing the file, so writes happen in generation order
+	 */
+	private final Object fileLock = new Object();
+
 
 	public ConfigManager(String configPath) {
 		this.configPath = configPath;
@@ -104,32 +135,142 @@ public class ConfigManager {
 		}
 	}
 
+	/**
+	 * Sets where the background saves take their snapshot of the config, the
+	 * thread making most changes to it so the snapshot falls between them. The
+	 * writer thread by default.
+	 */
+	public void setSnapshotExecutor(Executor executor) {
+		this.snapshotExecutor = executor;
+	}
+
+	/**
+	 * Requests the config to be saved. Only marks it as changed, it's
+	 * serialized and written in the background after the save delay, together
+	 * with the other changes saved meanwhile.
+	 */
 	@ThreadSafe
 	public synchronized void saveConfig() {
-		Path tmpCfgFile = Path.of(configPath + ".tmp");
-		Path cfgFile = Path.of(configPath);
+		requestedGeneration++;
+		getWriter();
+		notifyAll();
+	}
 
-		// Serialize config
-		try {
-			om.writeValue(tmpCfgFile.toFile(), this.vrConfig);
-		} catch (IOException e) {
-			LogManager.severe("Unable to write serialized config to \"" + tmpCfgFile + "\"", e);
-			return; // Abort write
+	/**
+	 * Serializes and writes the config now on the calling thread if a save is
+	 * pending, for example on shutdown when the snapshot executor may be
+	 * stopped
+	 */
+	@ThreadSafe
+	public void flushConfig() {
+		synchronized (this) {
+			if (requestedGeneration == savedGeneration)
+				return;
 		}
+		writeSnapshot(takeSnapshot());
+	}
 
-		// Overwrite old config
+	private synchronized ConfigWriter getWriter() {
+		if (writer == null) {
+			writer = new ConfigWriter();
+			writer.start();
+		}
+		return writer;
+	}
+
+	/**
+	 * Serializes the config together with the generation it includes
+	 */
+	private Snapshot takeSnapshot() {
+		long generation;
+		synchronized (this) {
+			generation = requestedGeneration;
+		}
 		try {
-			atomicMove(tmpCfgFile, cfgFile);
-		} catch (IOException e) {
-			LogManager
-				.severe(
-					"Unable to move new config from \"" + tmpCfgFile + "\" to \"" + cfgFile + "\"",
-					e
-				);
+			return new Snapshot(generation, om.writeValueAsBytes(this.vrConfig));
+		} catch (IOException | RuntimeException e) {
+			LogManager.severe("Unable to serialize config", e);
+			return new Snapshot(generation, null);
+		}
+	}
+
+	/**
+	 * Writes a snapshot unless a newer one was written already
+	 */
+	private void writeSnapshot(Snapshot snapshot) {
+		synchronized (fileLock) {
+			synchronized (this) {
+				if (snapshot.generation() <= savedGeneration)
+					return;
+			}
+			boolean written = false;
+			if (snapshot.data() != null) {
+				try {
+					writeConfig(snapshot.data());
+					written = true;
+				} catch (IOException e) {
+					LogManager.severe("Unable to write config to \"" + configPath + "\"", e);
+				}
+			}
+			synchronized (this) {
+				if (written)
+					savedGeneration = snapshot.generation();
+				else
+					failedGeneration = snapshot.generation();
+			}
 		}
 	}
 
+	/**
+	 * Writes a serialized config to a temporary file, then moves it over the
+	 * config file
+	 */
+	protected void writeConfig(byte[] data) throws IOException {
+		Path tmpCfgFile = Path.of(configPath + ".tmp");
+		Path cfgFile = Path.of(configPath);
+		Files.write(tmpCfgFile, data);
+		// Overwrite old config
+		atomicMove(tmpCfgFile, cfgFile);
+	}
+
 	public VRConfig getVrConfig() {
 		return vrConfig;
 	}
+
+	private record Snapshot(long generation, byte[] data) {
+	}
+
+	private class ConfigWriter extends Thread {
+
+		ConfigWriter() {
+			super("Config writer");
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					synchronized (ConfigManager.this) {
+						while (
+							requestedGeneration == savedGeneration
+								|| requestedGeneration == failedGeneration
+						)
+							ConfigManager.this.wait();
+					}
+					// Coalesce the changes coming in shortly after each other
+					Thread.sleep(vrConfig.getServer().getConfigSaveDelayMs());
+					CompletableFuture<Snapshot> snapshot = new CompletableFuture<>();
+					snapshotExecutor.execute(() -> snapshot.complete(takeSnapshot()));
+					try {
+						writeSnapshot(snapshot.get());
+					} catch (ExecutionException e) {
+						LogManager.severe("Unable to save config", e);
+					}
+				}
+			} catch (InterruptedException e) {
+				// Stopped
+			}
+		}
+	}
 }
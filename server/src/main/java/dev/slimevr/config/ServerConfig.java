@@ -4,7 +4,179 @@ public class ServerConfig {
 
 	private int trackerPort = 6969;
 
+	// Time config changes are collected for before the config is written
+	private int configSaveDelayMs = 500;
+
+	// Target rate of the server tick, in ticks per second
+	private int tickRate = 1000;
+
+	// Run the server tick when new data arrives instead of at a fixed rate,
+	// the tick rate is then the max rate
+	private boolean eventDrivenTick = false;
+
+	// Max time between ticks in event-driven mode
+	private int maxTickIdleMs = 10;
+
+	// Tick rate when no tracker is active and nothing consumes the pose, 0 to
+	// always tick at the full rate
+	private int idleTickRate = 10;
+
+	// Times per second SolarXR data feeds are checked for updates to send
+	private int dataFeedRate = 100;
+
+	// Times per second tracker poses are sent to VRChat over OSC
+	private int vrcOSCRate = 100;
+
+	// Use the non-blocking NIO ingest for the tracker server instead of the
+	// legacy blocking socket loop
+	private boolean useNioIngest = true;
+
+	// Number of threads parsing and processing tracker packets, connections
+	// are sharded between them by source address
+	private int trackerServerWorkers = 1;
+
+	// Datagrams accepted per second from each tracker device, 0 to disable
+	private int trackerPacketRateLimit = 2000;
+
+	// Handshakes accepted per second from unknown sources, 0 to disable
+	private int trackerHandshakeRateLimit = 20;
+
+	// Delay tracker samples are held for to smooth out bursty arrival, 0 to
+	// apply them as soon as they're received
+	private int trackerJitterBufferDelayMs = 0;
+
+	// Ask trackers to lower their send rate when the server or the network
+	// can't keep up, only trackers advertising support for it are asked
+	private boolean trackerRateControl = false;
+
+	// Number of users tracked at once, each with the trackers assigned to them
+	// and their own skeleton
+	private int performers = 1;
+
+	// Tick the pose of every performer but the first on its own thread
+	private boolean performerThreads = true;
+
 	public int getTrackerPort() {
 		return trackerPort;
 	}
+
+	public int getConfigSaveDelayMs() {
+		return configSaveDelayMs;
+	}
+
+	public void setConfigSaveDelayMs(int configSaveDelayMs) {
+		this.configSaveDelayMs = configSaveDelayMs;
+	}
+
+	public int getTickRate() {
+		return tickRate;
+	}
+
+	public void setTickRate(int tickRate) {
+		this.tickRate = tickRate;
+	}
+
+	public boolean isEventDrivenTick() {
+		return eventDrivenTick;
+	}
+
+	public void setEventDrivenTick(boolean eventDrivenTick) {
+		this.eventDrivenTick = eventDrivenTick;
+	}
+
+	public int getMaxTickIdleMs() {
+		return maxTickIdleMs;
+	}
+
+	public void setMaxTickIdleMs(int maxTickIdleMs) {
+		this.maxTickIdleMs = maxTickIdleMs;
+	}
+
+	public boolean isUseNioIngest() {
+		return useNioIngest;
+	}
+
+	public void setUseNioIngest(boolean useNioIngest) {
+		this.useNioIngest = useNioIngest;
+	}
+
+	public int getTrackerServerWorkers() {
+		return trackerServerWorkers;
+	}
+
+	public void setTrackerServerWorkers(int trackerServerWorkers) {
+		this.trackerServerWorkers = trackerServerWorkers;
+	}
+
+	public int getTrackerPacketRateLimit() {
+		return trackerPacketRateLimit;
+	}
+
+	public void setTrackerPacketRateLimit(int trackerPacketRateLimit) {
+		this.trackerPacketRateLimit = trackerPacketRateLimit;
+	}
+
+	public int getTrackerHandshakeRateLimit() {
+		return trackerHandshakeRateLimit;
+	}
+
+	public void setTrackerHandshakeRateLimit(int trackerHandshakeRateLimit) {
+		this.trackerHandshakeRateLimit = trackerHandshakeRateLimit;
+	}
+
+	public int getTrackerJitterBufferDelayMs() {
+		return trackerJitterBufferDelayMs;
+	}
+
+	public void setTrackerJitterBufferDelayMs(int trackerJitterBufferDelayMs) {
+		this.trackerJitterBufferDelayMs = trackerJitterBufferDelayMs;
+	}
+
+	public boolean isTrackerRateControl() {
+		return trackerRateControl;
+	}
+
+	public void setTrackerRateControl(boolean trackerRateControl) {
+		this.trackerRateControl = trackerRateControl;
+	}
+
+	public int getPerformers() {
+		return performers;
+	}
+
+	public void setPerformers(int performers) {
+		this.performers = performers;
+	}
+
+	public boolean isPerformerThreads() {
+		return performerThreads;
+	}
+
+	public void setPerformerThreads(boolean performerThreads) {
+		this.performerThreads = performerThreads;
+	}
+
+	public int getIdleTickRate() {
+		return idleTickRate;
+	}
+
+	public void setIdleTickRate(int idleTickRate) {
+		this.idleTickRate = idleTickRate;
+	}
+
+	public int getDataFeedRate() {
+		return dataFeedRate;
+	}
+
+	public void setDataFeedRate(int dataFeedRate) {
+		this.dataFeedRate = dataFeedRate;
+	}
+
+	public int getVrcOSCRate() {
+		return vrcOSCRate;
+	}
+
+	public void setVrcOSCRate(int vrcOSCRate) {
+		this.vrcOSCRate = vrcOSCRate;
+	}
 }
@@ -16,6 +16,7 @@ public class TrackerConfig {
 	private Quaternion adjustment;
 	private Quaternion mountingOrientation;
 	private Boolean allowDriftCompensation;
+	private int performer;
 
 
 	public TrackerConfig() {
@@ -43,6 +44,17 @@ public class TrackerConfig {
 		return node;
 	}
 
+	/**
+	 * @return index of the user this tracker is worn by
+	 */
+	public int getPerformer() {
+		return performer;
+	}
+
+	public void setPerformer(int performer) {
+		this.performer = performer;
+	}
+
 	public String getCustomName() {
 		return customName;
 	}
@@ -1,8 +1,7 @@
 package dev.slimevr.filtering;
 
 import com.jme3.math.Quaternion;
-import com.jme3.system.NanoTimer;
-import dev.slimevr.Main;
+import dev.slimevr.util.Clock;
 
 
 public class QuaternionMovingAverage {
@@ -16,8 +15,8 @@ public class QuaternionMovingAverage {
 	private final Quaternion filteredQuaternion;
 	private final boolean smooths;
 	private final boolean predicts;
-	private final NanoTimer fpsTimer;
 	private int smoothingCounter;
+	private long lastUpdateNanos;
 
 	// influences the range of smoothFactor.
 	private static final float SMOOTH_MULTIPLIER = 42f;
@@ -30,13 +29,17 @@ public class QuaternionMovingAverage {
 	// how many past rotations are used for prediction.
 	private static final int PREDICT_BUFFER = 6;
 
+	// caps the time between updates, so a filter that wasn't updated for a
+	// while doesn't overshoot.
+	private static final float MAX_TIME_PER_UPDATE = 0.1f;
+
 
 	public QuaternionMovingAverage(
 		TrackerFilters type,
 		float amount,
 		Quaternion initialRotation
 	) {
-		fpsTimer = Main.getVrServer().getFpsTimer();
+		lastUpdateNanos = Clock.nanoTime();
 
 		// amount should range from 0 to 1.
 		// GUI should clamp it from 0.01 (1%) or 0.1 (10%)
@@ -68,9 +71,16 @@ public class QuaternionMovingAverage {
 		smoothingQuaternion = new Quaternion(initialRotation);
 	}
 
-	// Runs at up to 1000hz. We use a timer to make it framerate-independent
-	// since it runs between 850hz to 900hz in practice.
-	synchronized public void update() {
+	// Runs at the tick rate of the thread ticking the tracker, 1000hz by
+	// default. We time the updates with the clock to make it
+	// framerate-independent in case the tick is late.
+	// Both update() and addQuaternion() run on that thread, samples are
+	// handed over by the tracker through a lock-free buffer.
+	public void update() {
+		long now = Clock.nanoTime();
+		float timePerFrame = Math.min((now - lastUpdateNanos) / 1e9f, MAX_TIME_PER_UPDATE);
+		lastUpdateNanos = now;
+
 		if (predicts) {
 			if (rotBuffer.size() > 0) {
 				quatBuf.set(latestQuaternion);
@@ -81,14 +91,14 @@ public class QuaternionMovingAverage {
 				// Slerps the target rotation to that predicted rotation by
 				// a certain factor.
 				filteredQuaternion
-					.slerpLocal(quatBuf, predictFactor * fpsTimer.getTimePerFrame());
+					.slerpLocal(quatBuf, predictFactor * timePerFrame);
 			}
 		}
 
 		if (smooths) {
 			// Calculate the slerp factor and limit it to 1 max
 			smoothingCounter++;
-			float amt = Math.min(smoothFactor * fpsTimer.getTimePerFrame() * smoothingCounter, 1);
+			float amt = Math.min(smoothFactor * timePerFrame * smoothingCounter, 1);
 
 			// Smooth towards the target rotation
 			filteredQuaternion
@@ -100,16 +110,17 @@ public class QuaternionMovingAverage {
 		}
 	}
 
-	synchronized public void addQuaternion(Quaternion q) {
+	public void addQuaternion(Quaternion q) {
 		if (predicts) {
-			if (rotBuffer.size() == rotBuffer.capacity()) {
-				rotBuffer.removeLast();
-			}
+			// Recycle the oldest rotation to not allocate on every sample
+			Quaternion rot = rotBuffer.size() == rotBuffer.capacity()
+				? rotBuffer.removeLast()
+				: new Quaternion();
 
 			// Gets and stores the rotation between the last 2 quaternions
 			quatBuf.set(latestQuaternion);
 			quatBuf.inverseLocal();
-			rotBuffer.add(quatBuf.mult(q));
+			rotBuffer.add(quatBuf.mult(q, rot));
 		}
 
 		if (smooths) {
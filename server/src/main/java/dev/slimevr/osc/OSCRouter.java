@@ -5,6 +5,7 @@ import com.illposed.osc.messageselector.OSCPatternAddressMessageSelector;
 import com.illposed.osc.transport.OSCPortIn;
 import com.illposed.osc.transport.OSCPortOut;
 import dev.slimevr.config.OSCConfig;
+import dev.slimevr.util.Clock;
 import io.eiren.util.collections.FastList;
 import io.eiren.util.logging.LogManager;
 
@@ -166,8 +167,8 @@ public class OSCRouter {
 			} catch (IOException | OSCSerializeException e) {
 				// Avoid spamming AsynchronousCloseException too many
 				// times per second
-				if (System.currentTimeMillis() - timeAtLastError > 100) {
-					timeAtLastError = System.currentTimeMillis();
+				if (Clock.currentTimeMillis() - timeAtLastError > 100) {
+					timeAtLastError = Clock.currentTimeMillis();
 					LogManager
 						.warning(
 							"[OSCRouter] Error sending OSC message: "
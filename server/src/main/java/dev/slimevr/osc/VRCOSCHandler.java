@@ -10,6 +10,7 @@ import com.jme3.math.Vector3f;
 import dev.slimevr.VRServer;
 import dev.slimevr.config.OSCConfig;
 import dev.slimevr.platform.SteamVRBridge;
+import dev.slimevr.util.Clock;
 import dev.slimevr.vr.processor.HumanPoseProcessor;
 import dev.slimevr.vr.trackers.HMDTracker;
 import dev.slimevr.vr.trackers.ShareableTracker;
@@ -169,7 +170,7 @@ public class VRCOSCHandler implements OSCHandler {
 	}
 
 	void handleReceivedMessage(OSCMessageEvent event) {
-		timeAtLastOSCMessageReceived = System.currentTimeMillis();
+		timeAtLastOSCMessageReceived = Clock.currentTimeMillis();
 
 		if (steamvrBridge != null && !steamvrBridge.isConnected()) {
 			// Sets HMD status to OK
@@ -196,7 +197,7 @@ public class VRCOSCHandler implements OSCHandler {
 
 	@Override
 	public void update() {
-		float currentTime = System.currentTimeMillis();
+		float currentTime = Clock.currentTimeMillis();
 		// Manage HMD state with timeout
 		if (oscReceiver != null) {
 			if (
@@ -234,7 +235,7 @@ public class VRCOSCHandler implements OSCHandler {
 						// Avoid spamming AsynchronousCloseException too many
 						// times per second
 						if (currentTime - timeAtLastError > 100) {
-							timeAtLastError = System.currentTimeMillis();
+							timeAtLastError = Clock.currentTimeMillis();
 							LogManager
 								.warning(
 									"[VRCOSCHandler] Error sending OSC message to VRChat: "
@@ -9,6 +9,7 @@ import java.util.function.Consumer;
 import org.apache.commons.lang3.tuple.Pair;
 
 import dev.slimevr.VRServer;
+import dev.slimevr.util.ConsumerScheduler;
 import dev.slimevr.util.ann.VRServerThread;
 import dev.slimevr.vr.trackers.Tracker;
 import io.eiren.util.collections.FastList;
@@ -33,17 +34,18 @@ public class PoseRecorder {
 	protected int numFrames = -1;
 	protected int frameCursor = 0;
 	protected long frameRecordingInterval = 60L;
-	protected long nextFrameTimeMs = -1L;
 
 	protected CompletableFuture<PoseFrames> currentRecording;
 	protected Consumer<RecordingProgress> currentFrameCallback;
 
 	protected final VRServer server;
+	protected final ConsumerScheduler.Registration consumer;
 	FastList<Pair<Tracker, PoseFrameTracker>> trackers = new FastList<>();
 
 	public PoseRecorder(VRServer server) {
 		this.server = server;
-		server.addOnTick(this::onTick);
+		// Runs once per frame, at the frame interval of the recording
+		consumer = server.addConsumer(1000f / frameRecordingInterval, this::onTick);
 	}
 
 	@VRServerThread
@@ -64,19 +66,6 @@ public class PoseRecorder {
 			return;
 		}
 
-		long curTime = System.currentTimeMillis();
-		if (curTime < nextFrameTimeMs) {
-			return;
-		}
-
-		nextFrameTimeMs += frameRecordingInterval;
-
-		// To prevent duplicate frames, make sure the frame time is always in
-		// the future
-		if (nextFrameTimeMs <= curTime) {
-			nextFrameTimeMs = curTime + frameRecordingInterval;
-		}
-
 		// Make sure it's synchronized since this is the server thread
 		// interacting with
 		// an unknown outside thread controlling this class
@@ -101,7 +90,7 @@ public class PoseRecorder {
 	}
 
 	public synchronized Future<PoseFrames> startFrameRecording(int numFrames, long intervalMs) {
-		return startFrameRecording(numFrames, intervalMs, server.getAllTrackers(), null);
+		return startFrameRecording(numFrames, intervalMs, getServerTrackers(), null);
 	}
 
 	public synchronized Future<PoseFrames> startFrameRecording(
@@ -109,7 +98,15 @@ public class PoseRecorder {
 		long intervalMs,
 		Consumer<RecordingProgress> frameCallback
 	) {
-		return startFrameRecording(numFrames, intervalMs, server.getAllTrackers(), frameCallback);
+		return startFrameRecording(numFrames, intervalMs, getServerTrackers(), frameCallback);
+	}
+
+	/**
+	 * Frames are recorded on the server thread, so only the trackers of the
+	 * first performer, which it ticks
+	 */
+	private List<Tracker> getServerTrackers() {
+		return server.getTrackerRegistry().getSnapshot().getPerformerTrackers(0);
 	}
 
 	public synchronized Future<PoseFrames> startFrameRecording(
@@ -166,7 +163,7 @@ public class PoseRecorder {
 		this.numFrames = numFrames;
 
 		frameRecordingInterval = intervalMs;
-		nextFrameTimeMs = -1L;
+		consumer.setRate(1000f / intervalMs);
 
 		LogManager
 			.info(
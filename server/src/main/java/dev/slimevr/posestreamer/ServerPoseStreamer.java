@@ -1,6 +1,7 @@
 package dev.slimevr.posestreamer;
 
 import dev.slimevr.VRServer;
+import dev.slimevr.util.ConsumerScheduler;
 import dev.slimevr.util.ann.VRServerThread;
 import dev.slimevr.vr.processor.skeleton.Skeleton;
 
@@ -8,6 +9,7 @@ import dev.slimevr.vr.processor.skeleton.Skeleton;
 public class ServerPoseStreamer extends TickPoseStreamer {
 
 	protected final VRServer server;
+	protected final ConsumerScheduler.Registration consumer;
 
 	public ServerPoseStreamer(VRServer server) {
 		super(null); // Skeleton is registered later
@@ -15,7 +17,8 @@ public class ServerPoseStreamer extends TickPoseStreamer {
 
 		// Register callbacks/events
 		server.addSkeletonUpdatedCallback(this::onSkeletonUpdated);
-		server.addOnTick(this::onTick);
+		// Runs once per frame, at the frame interval
+		consumer = server.addConsumer(1000f / frameRecordingInterval, this::onTick);
 	}
 
 	@VRServerThread
@@ -23,8 +26,16 @@ public class ServerPoseStreamer extends TickPoseStreamer {
 		this.skeleton = skeleton;
 	}
 
+	@Override
+	public synchronized void setFrameInterval(long intervalMs) {
+		super.setFrameInterval(intervalMs);
+		consumer.setRate(1000f / intervalMs);
+	}
+
 	@VRServerThread
 	public void onTick() {
-		super.doTick();
+		// Frames are paced by the consumer rate instead of the tick
+		if (poseFileStream != null && skeleton != null)
+			captureFrame();
 	}
 }
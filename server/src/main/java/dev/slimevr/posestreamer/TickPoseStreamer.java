@@ -1,5 +1,6 @@
 package dev.slimevr.posestreamer;
 
+import dev.slimevr.util.Clock;
 import dev.slimevr.vr.processor.skeleton.Skeleton;
 
 import java.io.IOException;
@@ -24,7 +25,7 @@ public class TickPoseStreamer extends PoseStreamer {
 			return;
 		}
 
-		long curTime = System.currentTimeMillis();
+		long curTime = Clock.currentTimeMillis();
 		if (curTime < nextFrameTimeMs) {
 			return;
 		}
@@ -3,6 +3,7 @@ package dev.slimevr.protocol.datafeed;
 import com.google.flatbuffers.FlatBufferBuilder;
 import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
+import dev.slimevr.VRServer;
 import dev.slimevr.vr.Device;
 import dev.slimevr.vr.processor.skeleton.BoneInfo;
 import dev.slimevr.vr.trackers.*;
@@ -122,27 +123,31 @@ public class DataFeedBuilder {
 		return TrackerInfo.endTrackerInfo(fbb);
 	}
 
-	public static int createTrackerPosition(FlatBufferBuilder fbb, Tracker tracker) {
+	public static int createTrackerPosition(FlatBufferBuilder fbb, TrackerPose pose) {
 		Vector3f pos = new Vector3f();
-		tracker.getPosition(pos);
+		pose.getPosition(pos);
 
 		return Vec3f.createVec3f(fbb, pos.x, pos.y, pos.z);
 	}
 
-	public static int createTrackerRotation(FlatBufferBuilder fbb, Tracker tracker) {
+	public static int createTrackerRotation(
+		FlatBufferBuilder fbb,
+		Tracker tracker,
+		TrackerPose pose
+	) {
 		Quaternion quaternion = new Quaternion();
-		if (tracker instanceof IMUTracker imuTracker) {
-			imuTracker.getRawRotation(quaternion);
+		if (tracker instanceof IMUTracker) {
+			pose.getRawRotation(quaternion);
 		} else {
-			tracker.getRotation(quaternion);
+			pose.getRotation(quaternion);
 		}
 
 		return createQuat(fbb, quaternion);
 	}
 
-	public static int createTrackerAcceleration(FlatBufferBuilder fbb, Tracker tracker) {
+	public static int createTrackerAcceleration(FlatBufferBuilder fbb, TrackerPose pose) {
 		Vector3f accel = new Vector3f();
-		tracker.getAcceleration(accel);
+		pose.getAcceleration(accel);
 
 		return Vec3f.createVec3f(fbb, accel.x, accel.y, accel.z);
 	}
@@ -153,10 +158,15 @@ public class DataFeedBuilder {
 		return Temperature.createTemperature(fbb, imuTracker.temperature);
 	}
 
+	/**
+	 * @param pose pose of the tracker read on the building thread, see
+	 * {@link VRServer#getPose(Tracker)}, or null to leave it out
+	 */
 	public static int createTrackerData(
 		FlatBufferBuilder fbb,
 		TrackerDataMaskT mask,
-		Tracker tracker
+		Tracker tracker,
+		TrackerPose pose
 	) {
 		int trackerInfosOffset = DataFeedBuilder.createTrackerInfos(fbb, mask.getInfo(), tracker);
 		int trackerIdOffset = DataFeedBuilder.createTrackerId(fbb, tracker);
@@ -169,29 +179,30 @@ public class DataFeedBuilder {
 			TrackerData.addInfo(fbb, trackerInfosOffset);
 		if (mask.getStatus())
 			TrackerData.addStatus(fbb, tracker.getStatus().id + 1);
-		if (mask.getPosition() && tracker.hasPosition())
-			TrackerData.addPosition(fbb, DataFeedBuilder.createTrackerPosition(fbb, tracker));
-		if (mask.getRotation() && tracker.hasRotation())
-			TrackerData.addRotation(fbb, DataFeedBuilder.createTrackerRotation(fbb, tracker));
-		if (mask.getLinearAcceleration() && tracker.hasAcceleration())
+		if (pose != null && mask.getPosition() && tracker.hasPosition())
+			TrackerData.addPosition(fbb, DataFeedBuilder.createTrackerPosition(fbb, pose));
+		if (pose != null && mask.getRotation() && tracker.hasRotation())
+			TrackerData
+				.addRotation(fbb, DataFeedBuilder.createTrackerRotation(fbb, tracker, pose));
+		if (pose != null && mask.getLinearAcceleration() && tracker.hasAcceleration())
 			TrackerData
 				.addLinearAcceleration(
 					fbb,
-					DataFeedBuilder.createTrackerAcceleration(fbb, tracker)
+					DataFeedBuilder.createTrackerAcceleration(fbb, pose)
 				);
 		if (mask.getTemp()) {
 			int trackerTemperatureOffset = DataFeedBuilder.createTrackerTemperature(fbb, tracker);
 			if (trackerTemperatureOffset != 0)
 				TrackerData.addTemp(fbb, trackerTemperatureOffset);
 		}
-		if (tracker instanceof IMUTracker imuTracker) {
+		if (pose != null && tracker instanceof IMUTracker) {
 			Quaternion quaternion = new Quaternion();
 			if (mask.getRotationReferenceAdjusted() && tracker.hasRotation()) {
-				imuTracker.getRotation(quaternion);
+				pose.getRotation(quaternion);
 				TrackerData.addRotationReferenceAdjusted(fbb, createQuat(fbb, quaternion));
 			}
 			if (mask.getRotationIdentityAdjusted() && tracker.hasRotation()) {
-				imuTracker.getIdentityAdjustedRotation(quaternion);
+				pose.getIdentityAdjustedRotation(quaternion);
 				TrackerData.addRotationIdentityAdjusted(fbb, createQuat(fbb, quaternion));
 			}
 		}
@@ -202,7 +213,8 @@ public class DataFeedBuilder {
 	public static int createTrackersData(
 		FlatBufferBuilder fbb,
 		DeviceDataMaskT mask,
-		Device device
+		Device device,
+		VRServer server
 	) {
 		if (mask.getTrackerData() == null)
 			return 0;
@@ -213,7 +225,15 @@ public class DataFeedBuilder {
 			.getTrackers()
 			.forEach(
 				(key, value) -> trackersOffsets
-					.add(DataFeedBuilder.createTrackerData(fbb, mask.getTrackerData(), value))
+					.add(
+						DataFeedBuilder
+							.createTrackerData(
+								fbb,
+								mask.getTrackerData(),
+								value,
+								server.getPose(value)
+							)
+					)
 			);
 
 		DeviceData.startTrackersVector(fbb, trackersOffsets.size());
@@ -225,7 +245,8 @@ public class DataFeedBuilder {
 		FlatBufferBuilder fbb,
 		int id,
 		DeviceDataMaskT mask,
-		Device device
+		Device device,
+		VRServer server
 	) {
 		if (!mask.getDeviceData())
 			return 0;
@@ -261,7 +282,7 @@ public class DataFeedBuilder {
 
 		int hardwareDataOffset = HardwareStatus.endHardwareStatus(fbb);
 		int hardwareInfoOffset = DataFeedBuilder.createHardwareInfo(fbb, device);
-		int trackersOffset = DataFeedBuilder.createTrackersData(fbb, mask, device);
+		int trackersOffset = DataFeedBuilder.createTrackersData(fbb, mask, device, server);
 
 		int nameOffset = device.getCustomName() != null
 			? fbb.createString(device.getCustomName())
@@ -280,7 +301,8 @@ public class DataFeedBuilder {
 	public static int createSyntheticTrackersData(
 		FlatBufferBuilder fbb,
 		TrackerDataMaskT trackerDataMaskT,
-		List<Tracker> trackers
+		List<Tracker> trackers,
+		VRServer server
 	) {
 		if (trackerDataMaskT == null)
 			return 0;
@@ -290,7 +312,15 @@ public class DataFeedBuilder {
 		trackers
 			.forEach(
 				(tracker) -> trackerOffsets
-					.add(DataFeedBuilder.createTrackerData(fbb, trackerDataMaskT, tracker))
+					.add(
+						DataFeedBuilder
+							.createTrackerData(
+								fbb,
+								trackerDataMaskT,
+								tracker,
+								server.getPose(tracker)
+							)
+					)
 			);
 
 		DataFeedUpdate.startSyntheticTrackersVector(fbb, trackerOffsets.size());
@@ -301,7 +331,8 @@ public class DataFeedBuilder {
 	public static int createDevicesData(
 		FlatBufferBuilder fbb,
 		DeviceDataMaskT deviceDataMaskT,
-		List<Device> devices
+		List<Device> devices,
+		VRServer server
 	) {
 		if (deviceDataMaskT == null)
 			return 0;
@@ -310,7 +341,7 @@ public class DataFeedBuilder {
 		for (int i = 0; i < devices.size(); i++) {
 			Device device = devices.get(i);
 			devicesDataOffsets[i] = DataFeedBuilder
-				.createDeviceData(fbb, i, deviceDataMaskT, device);
+				.createDeviceData(fbb, i, deviceDataMaskT, device, server);
 		}
 
 		return DataFeedUpdate.createDevicesVector(fbb, devicesDataOffsets);
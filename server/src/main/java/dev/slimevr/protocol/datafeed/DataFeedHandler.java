@@ -4,12 +4,12 @@ import com.google.flatbuffers.FlatBufferBuilder;
 import dev.slimevr.protocol.GenericConnection;
 import dev.slimevr.protocol.ProtocolAPI;
 import dev.slimevr.protocol.ProtocolHandler;
+import dev.slimevr.util.Clock;
 import io.eiren.util.logging.LogManager;
 import solarxr_protocol.MessageBundle;
 import solarxr_protocol.data_feed.*;
 
 import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
 
 
 public class DataFeedHandler extends ProtocolHandler<DataFeedMessageHeader> {
@@ -22,7 +22,11 @@ public class DataFeedHandler extends ProtocolHandler<DataFeedMessageHeader> {
 		registerPacketListener(DataFeedMessage.StartDataFeed, this::onStartDataFeed);
 		registerPacketListener(DataFeedMessage.PollDataFeed, this::onPollDataFeedRequest);
 
-		this.api.server.addOnTick(this::sendDataFeedUpdate);
+		this.api.server
+			.addConsumer(
+				this.api.server.getConfigManager().getVrConfig().getServer().getDataFeedRate(),
+				this::sendDataFeedUpdate
+			);
 	}
 
 	private void onStartDataFeed(GenericConnection conn, DataFeedMessageHeader header) {
@@ -38,7 +42,7 @@ public class DataFeedHandler extends ProtocolHandler<DataFeedMessageHeader> {
 			// let's do it from here and send the reference to an arraylist
 			DataFeedConfigT config = req.dataFeeds(i).unpack();
 			conn.getContext().getDataFeedConfigList().add(config);
-			conn.getContext().getDataFeedTimers().add(System.currentTimeMillis());
+			conn.getContext().getDataFeedTimers().add(Clock.currentTimeMillis());
 		}
 	}
 
@@ -76,17 +80,18 @@ public class DataFeedHandler extends ProtocolHandler<DataFeedMessageHeader> {
 				config.getDataMask(),
 				this.api.server
 					.getDeviceManager()
-					.getDevices()
+					.getDevices(),
+				this.api.server
 			);
 		int trackersOffset = DataFeedBuilder
 			.createSyntheticTrackersData(
 				fbb,
 				config.getSyntheticTrackersMask(),
 				this.api.server
-					.getAllTrackers()
-					.stream()
-					.filter(tracker -> tracker.get().getDevice() == null)
-					.collect(Collectors.toList())
+					.getTrackerRegistry()
+					.getSnapshot()
+					.getSyntheticTrackers(),
+				this.api.server
 			);
 
 		var s = this.api.server.humanPoseProcessor.getSkeleton();
@@ -101,7 +106,7 @@ public class DataFeedHandler extends ProtocolHandler<DataFeedMessageHeader> {
 	}
 
 	public void sendDataFeedUpdate() {
-		long currTime = System.currentTimeMillis();
+		long currTime = Clock.currentTimeMillis();
 
 		this.api.getAPIServers().forEach((server) -> server.getAPIConnections().forEach((conn) -> {
 			FlatBufferBuilder fbb = null;
@@ -113,7 +118,7 @@ public class DataFeedHandler extends ProtocolHandler<DataFeedMessageHeader> {
 			for (int index = 0; index < configsCount; index++) {
 				Long lastTimeSent = conn.getContext().getDataFeedTimers().get(index);
 				DataFeedConfigT configT = conn.getContext().getDataFeedConfigList().get(index);
-				if (currTime - lastTimeSent > configT.getMinimumTimeSinceLast()) {
+				if (currTime - lastTimeSent >= configT.getMinimumTimeSinceLast()) {
 					if (fbb == null) {
 						// That way we create a buffer only when needed
 						fbb = new FlatBufferBuilder(300);
@@ -0,0 +1,123 @@
+package dev.slimevr.protocol.pubsub;
+
+import dev.slimevr.protocol.ProtocolAPI;
+import dev.slimevr.vr.trackers.IMUTracker;
+import dev.slimevr.vr.trackers.udp.TrackersUDPServer;
+import dev.slimevr.vr.trackers.udp.UDPDevice;
+import dev.slimevr.vr.trackers.udp.UDPDeviceStats;
+import solarxr_protocol.pub_sub.KeyValuesT;
+import solarxr_protocol.pub_sub.Payload;
+import solarxr_protocol.pub_sub.PayloadUnion;
+import solarxr_protocol.pub_sub.TopicIdT;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Publishes the tracker server ingest telemetry once per second on the
+ * slimevr/server/ingest_telemetry topic, as key/values. Keys are prefixed with
+ * the device name: datagrams, bytes and packets by packet id per second,
+ * totals of late, duplicate, missing and rate limited packets, of parse
+ * failures and of samples released early by full jitter buffers, inter-arrival
+ * jitter and ping round-trip time histogram.
+ */
+public class IngestTelemetryPublisher {
+
+	private static final long INTERVAL_NANOS = 1_000_000_000L;
+
+	private final ProtocolAPI api;
+	private final PubSubHandler pubSub;
+	private final TopicIdT topic = new TopicIdT();
+	/**
+	 * Counters of each device at the previous publication: datagrams, bytes,
+	 * then packets by id
+	 */
+	private final Map<UDPDevice, long[]> previous = new HashMap<>();
+	private final List<String> keys = new ArrayList<>();
+	private final List<String> values = new ArrayList<>();
+	private long lastPublish = System.nanoTime();
+
+	public IngestTelemetryPublisher(ProtocolAPI api, PubSubHandler pubSub) {
+		this.api = api;
+		this.pubSub = pubSub;
+		topic.setOrganization("slimevr");
+		topic.setAppName("server");
+		topic.setTopic("ingest_telemetry");
+		api.server.addOnTick(this::update);
+	}
+
+	private void update() {
+		long now = System.nanoTime();
+		long elapsed = now - lastPublish;
+		if (elapsed < INTERVAL_NANOS)
+			return;
+		lastPublish = now;
+		TrackersUDPServer trackersServer = api.server.getTrackersServer();
+		if (trackersServer == null || !pubSub.hasSubscribers(topic)) {
+			previous.clear();
+			return;
+		}
+		keys.clear();
+		values.clear();
+		add("dropped_datagrams", trackersServer.getDroppedDatagrams());
+		add("rate_limited_handshakes", trackersServer.getRateLimitedHandshakes());
+		add("rate_limited_unknown_datagrams", trackersServer.getRateLimitedUnknownDatagrams());
+		List<UDPDevice> connections = trackersServer.getConnections();
+		synchronized (connections) {
+			for (UDPDevice device : connections) {
+				addDevice(device, elapsed);
+			}
+		}
+		KeyValuesT keyValues = new KeyValuesT();
+		keyValues.setKeys(keys.toArray(new String[0]));
+		keyValues.setValues(values.toArray(new String[0]));
+		PayloadUnion payload = new PayloadUnion();
+		payload.setType(Payload.KeyValues);
+		payload.setValue(keyValues);
+		pubSub.publish(topic, payload);
+	}
+
+	private void addDevice(UDPDevice device, long elapsed) {
+		UDPDeviceStats stats = device.stats;
+		long[] last = previous.computeIfAbsent(device, (d) -> new long[258]);
+		String prefix = device.name + ".";
+		last[0] = addRate(prefix + "datagrams_per_second", stats.getDatagrams(), last[0], elapsed);
+		last[1] = addRate(prefix + "bytes_per_second", stats.getBytes(), last[1], elapsed);
+		for (int id = 0; id < 256; ++id) {
+			long packets = stats.getPackets(id);
+			if (packets != last[id + 2])
+				addRate(prefix + "packets_per_second." + id, packets, last[id + 2], elapsed);
+			last[id + 2] = packets;
+		}
+		add(prefix + "late_packets", stats.getLatePackets());
+		add(prefix + "duplicate_packets", stats.getDuplicatePackets());
+		add(prefix + "missing_packets", stats.getMissingPackets());
+		add(prefix + "rate_limited_packets", stats.getRateLimited());
+		add(prefix + "parse_failures", stats.getParseFailures());
+		long overflowSamples = 0;
+		for (IMUTracker tracker : device.getTrackerList()) {
+			overflowSamples += tracker.getJitterBufferOverflowSamples();
+		}
+		add(prefix + "jitter_buffer_overflow_samples", overflowSamples);
+		add(prefix + "jitter_us", stats.getJitterNanos() / 1000);
+		for (int bucket = 0; bucket <= UDPDeviceStats.RTT_BUCKETS_MS.length; ++bucket) {
+			String bound = bucket < UDPDeviceStats.RTT_BUCKETS_MS.length
+				? "le_" + UDPDeviceStats.RTT_BUCKETS_MS[bucket]
+				: "inf";
+			add(prefix + "ping_rtt_ms." + bound, stats.getPingCount(bucket));
+		}
+	}
+
+	private long addRate(String key, long current, long last, long elapsed) {
+		add(key, (current - last) * 1_000_000_000L / elapsed);
+		return current;
+	}
+
+	private void add(String key, long value) {
+		keys.add(key);
+		values.add(Long.toString(value));
+	}
+}
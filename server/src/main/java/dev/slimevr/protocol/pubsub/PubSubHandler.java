@@ -3,6 +3,7 @@ package dev.slimevr.protocol.pubsub;
 import com.google.flatbuffers.FlatBufferBuilder;
 import dev.slimevr.protocol.GenericConnection;
 import dev.slimevr.protocol.ProtocolAPI;
+import dev.slimevr.protocol.ProtocolAPIServer;
 import dev.slimevr.protocol.ProtocolHandler;
 import io.eiren.util.logging.LogManager;
 import solarxr_protocol.MessageBundle;
@@ -24,16 +25,22 @@ public class PubSubHandler extends ProtocolHandler<PubSubHeader> {
 
 	public AtomicInteger nextLocalHandle = new AtomicInteger();
 
+	private final IngestTelemetryPublisher ingestTelemetry;
+	private final TickTelemetryPublisher tickTelemetry;
+
 	public PubSubHandler(ProtocolAPI api) {
 		super();
 		this.api = api;
+		this.ingestTelemetry = new IngestTelemetryPublisher(api, this);
+		this.tickTelemetry = new TickTelemetryPublisher(api, this);
 
 		registerPacketListener(PubSubUnion.SubscriptionRequest, this::onSubscriptionRequest);
 		registerPacketListener(PubSubUnion.TopicHandleRequest, this::onTopicHandleRequest);
 		registerPacketListener(PubSubUnion.Message, this::onTopicMessage);
 	}
 
-	private int getTopicHandle(TopicIdT topicIdT) {
+	// Also called from the server thread for topics published by the server
+	private synchronized int getTopicHandle(TopicIdT topicIdT) {
 		HashedTopicId hashedTopicId = new HashedTopicId(topicIdT);
 		Integer handleT = topicsHandle.get(hashedTopicId);
 		// if no handle exists for this topic id we create one and return it
@@ -156,6 +163,48 @@ public class PubSubHandler extends ProtocolHandler<PubSubHeader> {
 		});
 	}
 
+	/**
+	 * @return true if any connection subscribed to this topic
+	 */
+	public boolean hasSubscribers(TopicIdT topicId) {
+		int handle = getTopicHandle(topicId);
+		return this.api
+			.getAPIServers()
+			.stream()
+			.flatMap(ProtocolAPIServer::getAPIConnections)
+			.anyMatch((conn) -> conn.getContext().getSubscribedTopics().contains(handle));
+	}
+
+	/**
+	 * Sends a message published by the server itself to every connection
+	 * subscribed to the topic
+	 */
+	public void publish(TopicIdT topicId, PayloadUnion payload) {
+		TopicHandleT handle = new TopicHandleT();
+		handle.setId(getTopicHandle(topicId));
+		TopicUnion topic = new TopicUnion();
+		topic.setType(Topic.TopicHandle);
+		topic.setValue(handle);
+		MessageT messageT = new MessageT();
+		messageT.setTopic(topic);
+		messageT.setPayload(payload);
+
+		this.api.getAPIServers().forEach((server) -> {
+			server.getAPIConnections().forEach((conn) -> {
+				if (conn.getContext().getSubscribedTopics().contains(handle.getId())) {
+					FlatBufferBuilder fbb = new FlatBufferBuilder(256);
+					int outbound = createMessage(
+						fbb,
+						PubSubUnion.Message,
+						Message.pack(fbb, messageT)
+					);
+					fbb.finish(outbound);
+					conn.send(fbb.dataBuffer());
+				}
+			});
+		});
+	}
+
 	@Override
 	public void onMessage(GenericConnection conn, PubSubHeader message) {
 		BiConsumer<GenericConnection, PubSubHeader> consumer = this.handlers[message.uType()];
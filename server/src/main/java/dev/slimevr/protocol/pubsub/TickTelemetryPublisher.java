@@ -0,0 +1,93 @@
+package dev.slimevr.protocol.pubsub;
+
+import dev.slimevr.protocol.ProtocolAPI;
+import dev.slimevr.util.TickProfiler;
+import dev.slimevr.util.TickScheduler;
+import solarxr_protocol.pub_sub.KeyValuesT;
+import solarxr_protocol.pub_sub.Payload;
+import solarxr_protocol.pub_sub.PayloadUnion;
+import solarxr_protocol.pub_sub.TopicIdT;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Publishes the server tick telemetry once per second on the
+ * slimevr/server/tick_telemetry topic, as key/values: target and achieved tick
+ * rate, whether the server is idle and its idle rate, totals of overruns and
+ * skipped ticks, the tick start jitter histogram,
+ * and the median, 95th and 99th percentiles and max of the duration of each
+ * tick phase over the last {@link TickProfiler#WINDOW} ticks. Also published
+ * right away when the server goes idle or wakes up.
+ */
+public class TickTelemetryPublisher {
+
+	private static final long INTERVAL_NANOS = 1_000_000_000L;
+	private static final float[] PERCENTILES = { 0.5f, 0.95f, 0.99f, 1f };
+	private static final String[] PERCENTILE_NAMES = { "p50_us", "p95_us", "p99_us", "max_us" };
+
+	private final ProtocolAPI api;
+	private final PubSubHandler pubSub;
+	private final TopicIdT topic = new TopicIdT();
+	private final List<String> keys = new ArrayList<>();
+	private final List<String> values = new ArrayList<>();
+	private final long[] percentiles = new long[PERCENTILES.length];
+	private long lastPublish = System.nanoTime();
+	private boolean wasIdle = false;
+
+	public TickTelemetryPublisher(ProtocolAPI api, PubSubHandler pubSub) {
+		this.api = api;
+		this.pubSub = pubSub;
+		topic.setOrganization("slimevr");
+		topic.setAppName("server");
+		topic.setTopic("tick_telemetry");
+		api.server.addOnTick(this::update);
+	}
+
+	private void update() {
+		TickScheduler scheduler = api.server.getTickScheduler();
+		long now = System.nanoTime();
+		boolean idle = scheduler.isIdle();
+		if (now - lastPublish < INTERVAL_NANOS && idle == wasIdle)
+			return;
+		lastPublish = now;
+		wasIdle = idle;
+		if (!pubSub.hasSubscribers(topic))
+			return;
+		keys.clear();
+		values.clear();
+		add("target_tick_rate", String.valueOf(scheduler.getTargetRate()));
+		add("tick_rate", String.valueOf(scheduler.getAchievedRate()));
+		add("tick_idle", String.valueOf(idle));
+		add("idle_tick_rate", String.valueOf(scheduler.getIdleRate()));
+		add("tick_overruns", Long.toString(scheduler.getOverruns()));
+		add("skipped_ticks", Long.toString(scheduler.getSkippedTicks()));
+		for (int bucket = 0; bucket <= TickScheduler.JITTER_BUCKETS_US.length; ++bucket) {
+			String bound = bucket < TickScheduler.JITTER_BUCKETS_US.length
+				? "le_" + TickScheduler.JITTER_BUCKETS_US[bucket]
+				: "inf";
+			add("tick_jitter_us." + bound, Long.toString(scheduler.getJitterCount(bucket)));
+		}
+		TickProfiler profiler = api.server.getTickProfiler();
+		for (int phase = 0; phase < TickProfiler.PHASE_NAMES.length; ++phase) {
+			profiler.getPercentiles(phase, PERCENTILES, percentiles);
+			String prefix = "phase." + TickProfiler.PHASE_NAMES[phase] + ".";
+			for (int i = 0; i < PERCENTILES.length; ++i) {
+				add(prefix + PERCENTILE_NAMES[i], Long.toString(percentiles[i] / 1000));
+			}
+		}
+		KeyValuesT keyValues = new KeyValuesT();
+		keyValues.setKeys(keys.toArray(new String[0]));
+		keyValues.setValues(values.toArray(new String[0]));
+		PayloadUnion payload = new PayloadUnion();
+		payload.setType(Payload.KeyValues);
+		payload.setValue(keyValues);
+		pubSub.publish(topic, payload);
+	}
+
+	private void add(String key, String value) {
+		keys.add(key);
+		values.add(value);
+	}
+}
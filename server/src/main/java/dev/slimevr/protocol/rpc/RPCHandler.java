@@ -183,39 +183,38 @@ public class RPCHandler extends ProtocolHandler<RpcMessageHeader>
 		if (req == null)
 			return;
 
-		Tracker tracker = this.api.server.getTrackerById(req.trackerId().unpack());
-		if (tracker == null)
+		Tracker registered = this.api.server.getTrackerById(req.trackerId().unpack());
+		if (registered == null)
 			return;
-		tracker = tracker.get();
 
+		// Read now, the message isn't valid once this returns
 		TrackerPosition pos = TrackerPosition.getByBodyPart(req.bodyPosition()).orElse(null);
-		tracker.setBodyPosition(pos);
+		Quaternion mountingOrientation = req.mountingOrientation() != null
+			? new Quaternion(
+				req.mountingOrientation().x(),
+				req.mountingOrientation().y(),
+				req.mountingOrientation().z(),
+				req.mountingOrientation().w()
+			)
+			: null;
+		String displayName = req.displayName();
+		boolean allowDriftCompensation = req.allowDriftCompensation();
+
+		// Changed on the thread ticking it, as it may belong to another performer
+		this.api.server.queueTrackerTask(registered, () -> {
+			Tracker tracker = registered.get();
+			tracker.setBodyPosition(pos);
 
-		if (req.mountingOrientation() != null) {
 			if (tracker instanceof IMUTracker imu) {
-				imu
-					.setMountingOrientation(
-						new Quaternion(
-							req.mountingOrientation().x(),
-							req.mountingOrientation().y(),
-							req.mountingOrientation().z(),
-							req.mountingOrientation().w()
-						)
-					);
+				if (mountingOrientation != null)
+					imu.setMountingOrientation(mountingOrientation);
+				if (displayName != null)
+					imu.setCustomName(displayName);
+				imu.setAllowDriftCompensation(allowDriftCompensation);
 			}
-		}
-
-		if (req.displayName() != null) {
-			if (tracker instanceof IMUTracker imu) {
-				imu.setCustomName(req.displayName());
-			}
-		}
-
-		if (tracker instanceof IMUTracker imu) {
-			imu.setAllowDriftCompensation(req.allowDriftCompensation());
-		}
 
-		this.api.server.trackerUpdated(tracker);
+			this.api.server.trackerUpdated(tracker);
+		});
 	}
 
 	@Override
@@ -0,0 +1,61 @@
+package dev.slimevr.util;
+
+/**
+ * Source of time for the pose pipeline and tracker timeouts, used instead of
+ * {@link System#nanoTime()} and {@link System#currentTimeMillis()} so the
+ * server can be driven by a {@link SimulatedClock}, for example to push a
+ * recorded session through the filters, leg tweaks and BVH export faster than
+ * real time, or to make tests deterministic.
+ *
+ * The clock is global and should be set before the server starts. Pacing and
+ * profiling of the server tick and of I/O keep using the system clock, as
+ * they measure the machine rather than the tracked pose.
+ */
+public abstract class Clock {
+
+	public static final Clock SYSTEM = new Clock() {
+		@Override
+		public long nanos() {
+			return System.nanoTime();
+		}
+
+		@Override
+		public long millis() {
+			return System.currentTimeMillis();
+		}
+	};
+
+	private static volatile Clock current = SYSTEM;
+
+	/**
+	 * @return monotonic time in nanoseconds, with an arbitrary origin
+	 */
+	public abstract long nanos();
+
+	/**
+	 * @return wall clock time in milliseconds since the epoch
+	 */
+	public abstract long millis();
+
+	public static Clock get() {
+		return current;
+	}
+
+	public static void set(Clock clock) {
+		current = clock != null ? clock : SYSTEM;
+	}
+
+	/**
+	 * @see #nanos()
+	 */
+	public static long nanoTime() {
+		return current.nanos();
+	}
+
+	/**
+	 * @see #millis()
+	 */
+	public static long currentTimeMillis() {
+		return current.millis();
+	}
+}
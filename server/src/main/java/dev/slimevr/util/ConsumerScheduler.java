@@ -0,0 +1,127 @@
+package dev.slimevr.util;
+
+import io.eiren.util.ann.ThreadSafe;
+import io.eiren.util.collections.FastList;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+
+/**
+ * Runs the consumers of the pose computed in a tick, like the data feed, OSC
+ * or recorders, each at its own rate instead of every tick.
+ *
+ * Consumers are kept ordered by when they're next due, so a tick only looks at
+ * the ones due. Each consumer gets a phase of one more tick than the previous
+ * one, so consumers with the same rate run in different ticks and the cost is
+ * spread out. Consumers running late skip the periods they missed, keeping
+ * their phase.
+ *
+ * Runs on the ticking thread, rates can be changed from any thread.
+ */
+public class ConsumerScheduler {
+
+	private final long tickPeriodNanos;
+	private final List<Registration> everyTick = new FastList<>();
+	private final PriorityQueue<Registration> scheduled = new PriorityQueue<>(
+		Comparator.comparingLong(registration -> registration.nextRun)
+	);
+	private final Queue<Registration> rateChanges = new ConcurrentLinkedQueue<>();
+	private int registrations = 0;
+
+	/**
+	 * @param tickRate ticks per second of the thread running the consumers
+	 */
+	public ConsumerScheduler(float tickRate) {
+		this.tickPeriodNanos = (long) (1_000_000_000L / Math.max(tickRate, 1f));
+	}
+
+	/**
+	 * Must be called before the ticking thread starts, or from it
+	 *
+	 * @param now current time in nanoseconds, on the same clock as the times
+	 * passed to {@link #run(long)}
+	 * @param rate runs per second, 0 or above the tick rate to run every tick
+	 */
+	public Registration add(long now, float rate, Runnable consumer) {
+		Registration registration = new Registration(
+			consumer,
+			registrations++ * tickPeriodNanos
+		);
+		registration.rate = rate;
+		schedule(registration, now);
+		return registration;
+	}
+
+	private void schedule(Registration registration, long now) {
+		float rate = registration.rate;
+		long period = rate > 0 ? (long) (1_000_000_000L / rate) : 0;
+		if (period <= tickPeriodNanos) {
+			registration.periodNanos = 0;
+			everyTick.add(registration);
+		} else {
+			registration.periodNanos = period;
+			registration.nextRun = now + registration.phaseNanos % period;
+			scheduled.add(registration);
+		}
+	}
+
+	/**
+	 * Runs the consumers due, on the ticking thread
+	 */
+	public void run(long now) {
+		Registration registration;
+		while ((registration = rateChanges.poll()) != null) {
+			if (!everyTick.remove(registration))
+				scheduled.remove(registration);
+			schedule(registration, now);
+		}
+		for (int i = 0; i < everyTick.size(); ++i) {
+			everyTick.get(i).consumer.run();
+		}
+		while ((registration = scheduled.peek()) != null && registration.nextRun <= now) {
+			scheduled.poll();
+			long late = now - registration.nextRun;
+			registration.nextRun += (late / registration.periodNanos + 1)
+				* registration.periodNanos;
+			scheduled.add(registration);
+			registration.consumer.run();
+		}
+	}
+
+	public class Registration {
+
+		private final Runnable consumer;
+		private final long phaseNanos;
+		private volatile float rate;
+		// Ticking thread only
+		private long periodNanos;
+		private long nextRun;
+
+		private Registration(Runnable consumer, long phaseNanos) {
+			this.consumer = consumer;
+			this.phaseNanos = phaseNanos;
+		}
+
+		public float getRate() {
+			return rate;
+		}
+
+		/**
+		 * Applied at the start of the next tick
+		 *
+		 * @param rate runs per second, 0 or above the tick rate to run every
+		 * tick
+		 */
+		@ThreadSafe
+		public void setRate(float rate) {
+			if (rate == this.rate)
+				return;
+			this.rate = rate;
+			rateChanges.add(this);
+		}
+	}
+}
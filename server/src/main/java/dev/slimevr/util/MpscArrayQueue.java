@@ -0,0 +1,88 @@
+package dev.slimevr.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Bounded lock-free multi-producer/single-consumer queue backed by an array,
+ * so adding an element doesn't allocate.
+ *
+ * Every slot holds a sequence number telling whether it's free for the
+ * producer of a given position or holds an element for the consumer.
+ * Producers claim positions by incrementing the tail with a CAS.
+ */
+public class MpscArrayQueue<E> {
+
+	private static final VarHandle SEQUENCES = MethodHandles
+		.arrayElementVarHandle(long[].class);
+
+	private final Object[] elements;
+	private final long[] sequences;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	/**
+	 * Position of the next element to poll, consumer only
+	 */
+	private long head = 0;
+
+	/**
+	 * @param capacity rounded up to a power of two
+	 */
+	public MpscArrayQueue(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		elements = new Object[size];
+		sequences = new long[size];
+		mask = size - 1;
+		for (int i = 0; i < size; ++i) {
+			sequences[i] = i;
+		}
+	}
+
+	/**
+	 * Adds an element. Can be called from any thread.
+	 *
+	 * @return false if the queue is full
+	 */
+	public boolean offer(E element) {
+		long position = tail.get();
+		while (true) {
+			int index = (int) (position & mask);
+			long sequence = (long) SEQUENCES.getAcquire(sequences, index);
+			if (sequence == position) {
+				if (tail.compareAndSet(position, position + 1)) {
+					elements[index] = element;
+					SEQUENCES.setRelease(sequences, index, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (sequence < position) {
+				// Slot still holds the element from the previous lap
+				return false;
+			} else {
+				// Claimed by another producer
+				position = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Removes the oldest element. Must only be called from the consumer
+	 * thread.
+	 *
+	 * @return the element, or null if the queue is empty or the oldest element
+	 * is still being added
+	 */
+	@SuppressWarnings("unchecked")
+	public E poll() {
+		int index = (int) (head & mask);
+		if ((long) SEQUENCES.getAcquire(sequences, index) != head + 1)
+			return null;
+		E element = (E) elements[index];
+		elements[index] = null;
+		SEQUENCES.setRelease(sequences, index, head + mask + 1);
+		head++;
+		return element;
+	}
+}
@@ -0,0 +1,91 @@
+package dev.slimevr.util;
+
+import io.eiren.util.ann.ThreadSafe;
+import io.eiren.util.logging.LogManager;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+
+/**
+ * Tasks queued to the server thread, in two lanes. Critical tasks, like
+ * resets the user is waiting on, all run at the start of every tick.
+ * Background tasks, like saving the config, then run within a time budget,
+ * and the critical lane is checked again between each of them, so a flood of
+ * background tasks can't delay critical ones.
+ *
+ * Lanes are lock-free array queues that don't allocate per task. If a lane is
+ * full, tasks spill over to an unbounded queue and may then run out of order.
+ */
+public class ServerTaskQueue {
+
+	private final Lane critical;
+	private final Lane background;
+
+	public ServerTaskQueue(int criticalCapacity, int backgroundCapacity) {
+		critical = new Lane("critical", criticalCapacity);
+		background = new Lane("background", backgroundCapacity);
+	}
+
+	@ThreadSafe
+	public void addCritical(Runnable task) {
+		critical.add(task);
+	}
+
+	@ThreadSafe
+	public void addBackground(Runnable task) {
+		background.add(task);
+	}
+
+	/**
+	 * Runs all critical tasks, then background tasks until the budget is
+	 * spent. At least one background task runs so the lane always progresses.
+	 * Consumer thread only.
+	 */
+	public void runTasks(long backgroundBudgetNanos) {
+		runCritical();
+		long start = System.nanoTime();
+		Runnable task;
+		while ((task = background.poll()) != null) {
+			task.run();
+			runCritical();
+			if (System.nanoTime() - start >= backgroundBudgetNanos)
+				break;
+		}
+	}
+
+	private void runCritical() {
+		Runnable task;
+		while ((task = critical.poll()) != null) {
+			task.run();
+		}
+	}
+
+	private static class Lane {
+
+		private final String name;
+		private final MpscArrayQueue<Runnable> queue;
+		private final Queue<Runnable> overflow = new ConcurrentLinkedQueue<>();
+		private volatile boolean overflowed = false;
+
+		Lane(String name, int capacity) {
+			this.name = name;
+			this.queue = new MpscArrayQueue<>(capacity);
+		}
+
+		void add(Runnable task) {
+			if (queue.offer(task))
+				return;
+			overflow.add(task);
+			if (!overflowed) {
+				overflowed = true;
+				LogManager.warning("[VRServer] Too many " + name + " tasks queued");
+			}
+		}
+
+		Runnable poll() {
+			Runnable task = queue.poll();
+			return task != null ? task : overflow.poll();
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package dev.slimevr.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * {@link Clock} that only moves when advanced, so whoever drives it decides
+ * how fast time passes. Can be read from any thread.
+ */
+public class SimulatedClock extends Clock {
+
+	private final long epochMillis;
+	private final AtomicLong nanos = new AtomicLong();
+
+	/**
+	 * Starts at 0 ns, at the current wall clock time
+	 */
+	public SimulatedClock() {
+		this(System.currentTimeMillis());
+	}
+
+	/**
+	 * @param epochMillis wall clock time when the clock is at 0 ns
+	 */
+	public SimulatedClock(long epochMillis) {
+		this.epochMillis = epochMillis;
+	}
+
+	@Override
+	public long nanos() {
+		return nanos.get();
+	}
+
+	@Override
+	public long millis() {
+		return epochMillis + TimeUnit.NANOSECONDS.toMillis(nanos.get());
+	}
+
+	public void advance(long duration, TimeUnit unit) {
+		advanceNanos(unit.toNanos(duration));
+	}
+
+	public void advanceNanos(long delta) {
+		if (delta < 0)
+			throw new IllegalArgumentException("Time can't go backwards: " + delta);
+		nanos.addAndGet(delta);
+	}
+
+	/**
+	 * Moves the clock to this time, for example the timestamp of the next
+	 * recorded sample
+	 */
+	public void setNanos(long time) {
+		nanos.accumulateAndGet(time, (current, target) -> {
+			if (target < current)
+				throw new IllegalArgumentException("Time can't go backwards: " + target);
+			return target;
+		});
+	}
+}
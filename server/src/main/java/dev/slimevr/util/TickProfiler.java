@@ -0,0 +1,110 @@
+package dev.slimevr.util;
+
+import java.util.Arrays;
+
+
+/**
+ * Measures how long each phase of the server tick takes, keeping the
+ * durations of the last {@link #WINDOW} ticks of every phase to compute
+ * rolling percentiles.
+ *
+ * A tick is measured with {@link #startTick()}, then {@link #endPhase(int)}
+ * after each phase, which costs one read of the clock, and
+ * {@link #endTick()}. Uses the system clock unless given another one, like a
+ * {@link SimulatedClock} in tests. Server thread only.
+ */
+public class TickProfiler {
+
+	public static final int TASKS = 0;
+	public static final int ON_TICK = 1;
+	public static final int BRIDGE_READ = 2;
+	public static final int TRACKER_TICK = 3;
+	public static final int POSE_PROCESSOR = 4;
+	public static final int BRIDGE_WRITE = 5;
+	/**
+	 * Consumers of the pose run by the {@link ConsumerScheduler}
+	 */
+	public static final int CONSUMERS = 6;
+	/**
+	 * Whole tick, from {@link #startTick()} to {@link #endTick()}
+	 */
+	public static final int TOTAL = 7;
+
+	public static final String[] PHASE_NAMES = {
+		"tasks",
+		"on_tick",
+		"bridge_read",
+		"tracker_tick",
+		"pose_processor",
+		"bridge_write",
+		"consumers",
+		"total"
+	};
+
+	/**
+	 * Number of ticks percentiles are computed over, a power of two
+	 */
+	public static final int WINDOW = 1024;
+
+	private final Clock clock;
+	private final long[][] durations = new long[PHASE_NAMES.length][WINDOW];
+	private final long[] sorted = new long[WINDOW];
+	private long ticks = 0;
+	private long tickStart;
+	private long phaseStart;
+
+	public TickProfiler() {
+		this(Clock.SYSTEM);
+	}
+
+	public TickProfiler(Clock clock) {
+		this.clock = clock;
+	}
+
+	public void startTick() {
+		tickStart = phaseStart = clock.nanos();
+	}
+
+	/**
+	 * Records the time since the end of the previous phase, or the start of
+	 * the tick
+	 */
+	public void endPhase(int phase) {
+		long now = clock.nanos();
+		durations[phase][(int) (ticks & (WINDOW - 1))] = now - phaseStart;
+		phaseStart = now;
+	}
+
+	public void endTick() {
+		durations[TOTAL][(int) (ticks & (WINDOW - 1))] = clock.nanos() - tickStart;
+		ticks++;
+	}
+
+	/**
+	 * Computes percentiles of a phase's duration over the last ticks
+	 *
+	 * @param percentiles between 0 and 1
+	 * @param store where to write the durations in nanoseconds, 0 if no tick
+	 * was measured yet
+	 */
+	public void getPercentiles(int phase, float[] percentiles, long[] store) {
+		int count = (int) Math.min(ticks, WINDOW);
+		if (count == 0) {
+			Arrays.fill(store, 0, percentiles.length, 0);
+			return;
+		}
+		System.arraycopy(durations[phase], 0, sorted, 0, count);
+		Arrays.sort(sorted, 0, count);
+		for (int i = 0; i < percentiles.length; ++i) {
+			int index = (int) Math.ceil(percentiles[i] * count) - 1;
+			store[i] = sorted[Math.min(Math.max(index, 0), count - 1)];
+		}
+	}
+
+	/**
+	 * @return number of ticks measured
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+}
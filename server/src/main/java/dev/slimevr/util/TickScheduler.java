@@ -0,0 +1,316 @@
+package dev.slimevr.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Paces a loop at a fixed tick rate using absolute deadlines, so the rate
+ * doesn't drift with the length of each tick or the resolution of OS timers.
+ *
+ * Waits by parking until shortly before the deadline, then spinning the rest
+ * of the way. A tick running past its deadline is an overrun: the next one
+ * starts right away, and whole periods missed are skipped instead of being
+ * caught up in a burst.
+ *
+ * In event-driven mode, ticks run when {@link #signal()} is called instead,
+ * for example when new data arrived, at most at the target rate and at least
+ * once per max idle interval for housekeeping. The thread parks in between,
+ * so latency depends on when data arrives rather than on the tick period.
+ *
+ * When set idle, ticks run at a lower idle rate until {@link #signal()} is
+ * called, so a server with nothing to do doesn't keep a core busy and resumes
+ * its full rate as soon as data arrives.
+ *
+ * Reports the achieved rate, overruns, skipped ticks and a histogram of how
+ * late ticks start after their deadline, or after being signalled in
+ * event-driven mode. Updated by the ticking thread only, and readable from
+ * any thread.
+ *
+ * Paces with the system clock by default. With a {@link SimulatedClock}, waits
+ * advance the clock instead of parking, so ticks run back to back and their
+ * timing is deterministic.
+ */
+public class TickScheduler {
+
+	/**
+	 * Upper bounds of the tick start jitter histogram buckets in microseconds,
+	 * the last bucket holds everything above
+	 */
+	public static final int[] JITTER_BUCKETS_US = { 10, 50, 100, 250, 500, 1000, 2000, 5000 };
+
+	/**
+	 * Time before the deadline from which to spin instead of parking, parking
+	 * can oversleep by about that much
+	 */
+	private static final long SPIN_NANOS = 200_000;
+	private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+
+	private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	private static final int TICKS = 0;
+	private static final int OVERRUNS = 1;
+	private static final int SKIPPED_TICKS = 2;
+
+	private final Clock clock;
+	/**
+	 * The clock if it is simulated, null to park the thread
+	 */
+	private final SimulatedClock simulatedClock;
+	private final long spinNanos;
+	private final long periodNanos;
+	/**
+	 * Max time between ticks in event-driven mode, 0 for fixed rate mode
+	 */
+	private final long maxIdleNanos;
+	private final long[] counters = new long[3];
+	private final long[] jitterHistogram = new long[JITTER_BUCKETS_US.length + 1];
+	private volatile float achievedRate = 0;
+	/**
+	 * Time between ticks when idle, 0 if the scheduler never idles
+	 */
+	private volatile long idlePeriodNanos = 0;
+	private volatile boolean idle = false;
+	private volatile boolean signalled = false;
+	private volatile long signalTime;
+	private volatile Thread waiter;
+
+	// Ticking thread only
+	private long nextDeadline = 0;
+	private long windowStart;
+	private long windowTicks;
+	private boolean started = false;
+	private long lastTick;
+
+	/**
+	 * @param rate target ticks per second
+	 */
+	public TickScheduler(float rate) {
+		this(rate, 0);
+	}
+
+	/**
+	 * @param rate target ticks per second, the max rate in event-driven mode
+	 * @param maxIdleMillis max time between ticks when not signalled. If above
+	 * 0, ticks are event-driven.
+	 */
+	public TickScheduler(float rate, long maxIdleMillis) {
+		this(rate, maxIdleMillis, Clock.SYSTEM);
+	}
+
+	/**
+	 * @param rate target ticks per second, the max rate in event-driven mode
+	 * @param maxIdleMillis max time between ticks when not signalled. If above
+	 * 0, ticks are event-driven.
+	 * @param clock time source, waits advance it if it's a
+	 * {@link SimulatedClock}
+	 */
+	public TickScheduler(float rate, long maxIdleMillis, Clock clock) {
+		this.clock = clock;
+		this.simulatedClock = clock instanceof SimulatedClock simulated ? simulated : null;
+		this.spinNanos = simulatedClock != null ? 0 : SPIN_NANOS;
+		this.periodNanos = (long) (1_000_000_000L / Math.max(rate, 1f));
+		this.maxIdleNanos = maxIdleMillis > 0
+			? Math.max(TimeUnit.MILLISECONDS.toNanos(maxIdleMillis), periodNanos)
+			: 0;
+	}
+
+	private static void increment(long[] array, int index, long delta) {
+		LONGS.setOpaque(array, index, (long) LONGS.getOpaque(array, index) + delta);
+	}
+
+	private static long get(long[] array, int index) {
+		return (long) LONGS.getOpaque(array, index);
+	}
+
+	private void park(long nanos) {
+		if (simulatedClock != null)
+			simulatedClock.advanceNanos(nanos);
+		else
+			LockSupport.parkNanos(this, nanos);
+	}
+
+	/**
+	 * Leaves idle, and requests a tick as soon as allowed by the target rate
+	 * in event-driven mode. Can be called from any thread.
+	 */
+	public void signal() {
+		boolean wasIdle = idle;
+		if (wasIdle)
+			idle = false;
+		if (maxIdleNanos > 0 && !signalled) {
+			signalTime = clock.nanos();
+			signalled = true;
+		} else if (!wasIdle) {
+			return;
+		}
+		Thread thread = waiter;
+		if (thread != null)
+			LockSupport.unpark(thread);
+	}
+
+	/**
+	 * @param rate ticks per second when idle, 0 to never idle
+	 */
+	public void setIdleRate(float rate) {
+		idlePeriodNanos = rate > 0 ? Math.max((long) (1_000_000_000L / rate), periodNanos) : 0;
+		if (idlePeriodNanos == 0)
+			idle = false;
+	}
+
+	/**
+	 * Sets whether ticks run at the idle rate, ignored if there is no idle
+	 * rate. {@link #signal()} clears it. Can be called from any thread.
+	 */
+	public void setIdle(boolean idle) {
+		this.idle = idle && idlePeriodNanos > 0;
+	}
+
+	public boolean isIdle() {
+		return idle;
+	}
+
+	/**
+	 * @return ticks per second when idle, 0 if the scheduler never idles
+	 */
+	public float getIdleRate() {
+		long period = idlePeriodNanos;
+		return period > 0 ? 1e9f / period : 0;
+	}
+
+	public boolean isEventDriven() {
+		return maxIdleNanos > 0;
+	}
+
+	/**
+	 * Waits until the next tick is due. The first call starts the schedule and
+	 * returns right away.
+	 */
+	public void awaitNextTick() {
+		if (idle && started) {
+			awaitIdle();
+			return;
+		}
+		if (maxIdleNanos > 0) {
+			awaitSignal();
+			return;
+		}
+		long now = clock.nanos();
+		if (!started) {
+			nextDeadline = now;
+			windowStart = now;
+		} else {
+			nextDeadline += periodNanos;
+		}
+		if (now >= nextDeadline) {
+			if (now > nextDeadline)
+				increment(counters, OVERRUNS, 1);
+			long missed = (now - nextDeadline) / periodNanos;
+			if (missed > 0) {
+				increment(counters, SKIPPED_TICKS, missed);
+				nextDeadline += missed * periodNanos;
+			}
+		} else {
+			long parkUntil = nextDeadline - spinNanos;
+			while ((now = clock.nanos()) < parkUntil)
+				park(parkUntil - now);
+			while ((now = clock.nanos()) < nextDeadline)
+				Thread.onSpinWait();
+		}
+		onTick(now, now - nextDeadline);
+	}
+
+	private void awaitIdle() {
+		long due = lastTick + idlePeriodNanos;
+		long now;
+		waiter = Thread.currentThread();
+		while (idle && (now = clock.nanos()) < due)
+			park(due - now);
+		waiter = null;
+		now = clock.nanos();
+		// Resume the full rate from now, the idle time isn't missed ticks
+		nextDeadline = now;
+		signalled = false;
+		onTick(now, idle ? Math.max(now - due, 0) : 0);
+	}
+
+	private void awaitSignal() {
+		long now = clock.nanos();
+		if (!started) {
+			windowStart = now;
+			onTick(now, 0);
+			return;
+		}
+		long earliest = lastTick + periodNanos;
+		long latest = lastTick + maxIdleNanos;
+		waiter = Thread.currentThread();
+		while (true) {
+			now = clock.nanos();
+			if (now >= latest || signalled && now >= earliest)
+				break;
+			park((signalled ? earliest : latest) - now);
+		}
+		waiter = null;
+		long due = signalled ? Math.max(signalTime, earliest) : latest;
+		// Data arriving from now on is for the next tick
+		signalled = false;
+		onTick(now, Math.max(now - due, 0));
+	}
+
+	private void onTick(long now, long lateNanos) {
+		started = true;
+		lastTick = now;
+		increment(counters, TICKS, 1);
+		long lateMicros = lateNanos / 1000;
+		int bucket = 0;
+		while (bucket < JITTER_BUCKETS_US.length && lateMicros > JITTER_BUCKETS_US[bucket])
+			bucket++;
+		increment(jitterHistogram, bucket, 1);
+		windowTicks++;
+		long elapsed = now - windowStart;
+		if (elapsed >= RATE_WINDOW_NANOS) {
+			achievedRate = windowTicks * 1e9f / elapsed;
+			windowTicks = 0;
+			windowStart = now;
+		}
+	}
+
+	public float getTargetRate() {
+		return 1e9f / periodNanos;
+	}
+
+	/**
+	 * @return ticks per second over the last second
+	 */
+	public float getAchievedRate() {
+		return achievedRate;
+	}
+
+	public long getTicks() {
+		return get(counters, TICKS);
+	}
+
+	/**
+	 * @return ticks that ran past the deadline of the next one
+	 */
+	public long getOverruns() {
+		return get(counters, OVERRUNS);
+	}
+
+	/**
+	 * @return whole periods skipped because of overruns
+	 */
+	public long getSkippedTicks() {
+		return get(counters, SKIPPED_TICKS);
+	}
+
+	/**
+	 * @return number of ticks that started late by an amount in this bucket
+	 * of {@link #JITTER_BUCKETS_US}
+	 */
+	public long getJitterCount(int bucket) {
+		return get(jitterHistogram, bucket);
+	}
+}
@@ -17,7 +17,16 @@ public class ComputedHumanPoseTracker extends ComputedTracker
 		ComputedHumanPoseTrackerPosition skeletonPosition,
 		TrackerRole role
 	) {
-		super(trackerId, "human://" + skeletonPosition.name(), true, true);
+		this(trackerId, "human://" + skeletonPosition.name(), skeletonPosition, role);
+	}
+
+	public ComputedHumanPoseTracker(
+		int trackerId,
+		String name,
+		ComputedHumanPoseTrackerPosition skeletonPosition,
+		TrackerRole role
+	) {
+		super(trackerId, name, true, true);
 		this.skeletonPosition = skeletonPosition;
 		this.trackerRole = role;
 		// TODO: Use `TrackerPosition` instead of `TrackerRole`
@@ -14,105 +14,60 @@ import java.util.List;
 import java.util.function.Consumer;
 
 
+/**
+ * Tracks the pose of one user (performer) from the trackers assigned to them.
+ * The processor of a performer ticked by a {@link PoseProcessorThread} is only
+ * used from that thread, its {@link VRServerThread} methods must be called
+ * through {@link VRServer#queuePerformerTask(int, Consumer)}.
+ */
 public class HumanPoseProcessor {
 
 	private final VRServer server;
+	private final int performer;
 	private final List<ComputedHumanPoseTracker> computedTrackers = new FastList<>();
 	private final List<Consumer<Skeleton>> onSkeletonUpdated = new FastList<>();
 	private Skeleton skeleton;
 
 	public HumanPoseProcessor(VRServer server) {
+		this(server, 0);
+	}
+
+	/**
+	 * @param performer index of the user this processor tracks, the trackers
+	 * of other performers are ignored
+	 */
+	public HumanPoseProcessor(VRServer server, int performer) {
 		this.server = server;
+		this.performer = performer;
+		addComputedTracker(ComputedHumanPoseTrackerPosition.HEAD, TrackerRole.HEAD);
+		addComputedTracker(ComputedHumanPoseTrackerPosition.CHEST, TrackerRole.CHEST);
+		addComputedTracker(ComputedHumanPoseTrackerPosition.WAIST, TrackerRole.WAIST);
+		addComputedTracker(ComputedHumanPoseTrackerPosition.LEFT_FOOT, TrackerRole.LEFT_FOOT);
+		addComputedTracker(ComputedHumanPoseTrackerPosition.RIGHT_FOOT, TrackerRole.RIGHT_FOOT);
+		addComputedTracker(ComputedHumanPoseTrackerPosition.LEFT_KNEE, TrackerRole.LEFT_KNEE);
+		addComputedTracker(ComputedHumanPoseTrackerPosition.RIGHT_KNEE, TrackerRole.RIGHT_KNEE);
+		addComputedTracker(ComputedHumanPoseTrackerPosition.LEFT_ELBOW, TrackerRole.LEFT_ELBOW);
+		addComputedTracker(ComputedHumanPoseTrackerPosition.RIGHT_ELBOW, TrackerRole.RIGHT_ELBOW);
+		addComputedTracker(ComputedHumanPoseTrackerPosition.LEFT_HAND, TrackerRole.LEFT_HAND);
+		addComputedTracker(ComputedHumanPoseTrackerPosition.RIGHT_HAND, TrackerRole.RIGHT_HAND);
+	}
+
+	private void addComputedTracker(ComputedHumanPoseTrackerPosition position, TrackerRole role) {
+		// Keep the names of the first performer's trackers, they're used as
+		// config keys
+		String name = performer == 0
+			? "human://" + position.name()
+			: "human" + (performer + 1) + "://" + position.name();
 		computedTrackers
 			.add(
-				new ComputedHumanPoseTracker(
-					Tracker.getNextLocalTrackerId(),
-					ComputedHumanPoseTrackerPosition.HEAD,
-					TrackerRole.HEAD
-				)
-			);
-		computedTrackers
-			.add(
-				new ComputedHumanPoseTracker(
-					Tracker.getNextLocalTrackerId(),
-					ComputedHumanPoseTrackerPosition.CHEST,
-					TrackerRole.CHEST
-				)
-			);
-		computedTrackers
-			.add(
-				new ComputedHumanPoseTracker(
-					Tracker.getNextLocalTrackerId(),
-					ComputedHumanPoseTrackerPosition.WAIST,
-					TrackerRole.WAIST
-				)
-			);
-		computedTrackers
-			.add(
-				new ComputedHumanPoseTracker(
-					Tracker.getNextLocalTrackerId(),
-					ComputedHumanPoseTrackerPosition.LEFT_FOOT,
-					TrackerRole.LEFT_FOOT
-				)
-			);
-		computedTrackers
-			.add(
-				new ComputedHumanPoseTracker(
-					Tracker.getNextLocalTrackerId(),
-					ComputedHumanPoseTrackerPosition.RIGHT_FOOT,
-					TrackerRole.RIGHT_FOOT
-				)
-			);
-		computedTrackers
-			.add(
-				new ComputedHumanPoseTracker(
-					Tracker.getNextLocalTrackerId(),
-					ComputedHumanPoseTrackerPosition.LEFT_KNEE,
-					TrackerRole.LEFT_KNEE
-				)
-			);
-		computedTrackers
-			.add(
-				new ComputedHumanPoseTracker(
-					Tracker.getNextLocalTrackerId(),
-					ComputedHumanPoseTrackerPosition.RIGHT_KNEE,
-					TrackerRole.RIGHT_KNEE
-				)
-			);
-		computedTrackers
-			.add(
-				new ComputedHumanPoseTracker(
-					Tracker.getNextLocalTrackerId(),
-					ComputedHumanPoseTrackerPosition.LEFT_ELBOW,
-					TrackerRole.LEFT_ELBOW
-				)
-			);
-		computedTrackers
-			.add(
-				new ComputedHumanPoseTracker(
-					Tracker.getNextLocalTrackerId(),
-					ComputedHumanPoseTrackerPosition.RIGHT_ELBOW,
-					TrackerRole.RIGHT_ELBOW
-				)
-			);
-		computedTrackers
-			.add(
-				new ComputedHumanPoseTracker(
-					Tracker.getNextLocalTrackerId(),
-					ComputedHumanPoseTrackerPosition.LEFT_HAND,
-					TrackerRole.LEFT_HAND
-				)
-			);
-		computedTrackers
-			.add(
-				new ComputedHumanPoseTracker(
-					Tracker.getNextLocalTrackerId(),
-					ComputedHumanPoseTrackerPosition.RIGHT_HAND,
-					TrackerRole.RIGHT_HAND
-				)
+				new ComputedHumanPoseTracker(Tracker.getNextLocalTrackerId(), name, position, role)
 			);
 	}
 
+	public int getPerformer() {
+		return performer;
+	}
+
 	public Skeleton getSkeleton() {
 		return skeleton;
 	}
@@ -173,7 +128,7 @@ public class HumanPoseProcessor {
 	@VRServerThread
 	private void updateSkeletonModel() {
 		disconnectAllTrackers();
-		skeleton = new HumanSkeleton(server, computedTrackers);
+		skeleton = new HumanSkeleton(server, computedTrackers, performer);
 		for (Consumer<Skeleton> sc : onSkeletonUpdated)
 			sc.accept(skeleton);
 	}
@@ -195,7 +150,8 @@ public class HumanPoseProcessor {
 	public void resetTrackers() {
 		if (skeleton != null) {
 			skeleton.resetTrackersFull();
-			server.getVrcOSCHandler().yawAlign();
+			if (performer == 0)
+				server.getVrcOSCHandler().yawAlign();
 		}
 	}
 
@@ -209,7 +165,8 @@ public class HumanPoseProcessor {
 	public void resetTrackersYaw() {
 		if (skeleton != null) {
 			skeleton.resetTrackersYaw();
-			server.getVrcOSCHandler().yawAlign();
+			if (performer == 0)
+				server.getVrcOSCHandler().yawAlign();
 		}
 	}
 
@@ -0,0 +1,120 @@
+package dev.slimevr.vr.processor;
+
+import dev.slimevr.vr.trackers.Tracker;
+import dev.slimevr.vr.trackers.TrackerPose;
+import io.eiren.util.ann.ThreadSafe;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+
+/**
+ * Pose of the trackers of a performer at the end of a tick, published by the
+ * {@link PoseProcessorThread} ticking them for the server thread to read.
+ *
+ * Poses are double-buffered in preallocated slots: the ticking thread writes
+ * the back buffer then swaps it with the front one, so publishing doesn't
+ * allocate unless trackers were added or removed. Readers copy from the front
+ * buffer optimistically and copy again if it was swapped meanwhile.
+ */
+public final class PerformerPose {
+
+	private final StampedLock lock = new StampedLock();
+	private final Buffer[] buffers = { Buffer.EMPTY, Buffer.EMPTY };
+	/**
+	 * Index of the buffer readers copy from, only changed under the write
+	 * lock
+	 */
+	private int front = 0;
+
+	/**
+	 * Copies the pose of the trackers into the back buffer and makes it the
+	 * front one. Must be called on the thread ticking the trackers.
+	 *
+	 * @param trackers trackers of the performer, unmodifiable. Slots are only
+	 * reallocated when a different list is passed.
+	 */
+	public void publish(List<Tracker> trackers) {
+		int back = front ^ 1;
+		Buffer buffer = buffers[back];
+		if (buffer.trackers != trackers) {
+			buffer = new Buffer(trackers, buffer);
+			buffers[back] = buffer;
+		}
+		TrackerPose[] slots = buffer.slots;
+		for (int i = 0; i < slots.length; ++i) {
+			slots[i].set(trackers.get(i));
+		}
+		long stamp = lock.writeLock();
+		front = back;
+		lock.unlockWrite(stamp);
+	}
+
+	/**
+	 * Copies the pose of the tracker as of the last published tick
+	 *
+	 * @return false if the tracker wasn't ticked with this performer, in which
+	 * case the store is left unchanged
+	 */
+	@ThreadSafe
+	public boolean get(Tracker tracker, TrackerPose store) {
+		long stamp = lock.tryOptimisticRead();
+		boolean found = buffers[front].copy(tracker, store);
+		if (lock.validate(stamp))
+			return found;
+		// Swapped while copying, the writer may have overwritten the buffer
+		stamp = lock.readLock();
+		try {
+			return buffers[front].copy(tracker, store);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Trackers and their pose slots, replaced rather than modified when the
+	 * trackers change so a reader racing the writer never sees a map being
+	 * built
+	 */
+	private static final class Buffer {
+
+		static final Buffer EMPTY = new Buffer();
+
+		private final List<Tracker> trackers;
+		private final TrackerPose[] slots;
+		private final Map<Tracker, TrackerPose> poses;
+
+		private Buffer() {
+			trackers = Collections.emptyList();
+			slots = new TrackerPose[0];
+			poses = Collections.emptyMap();
+		}
+
+		/**
+		 * Reuses the slots of the trackers that were already in the previous
+		 * buffer
+		 */
+		Buffer(List<Tracker> trackers, Buffer previous) {
+			this.trackers = trackers;
+			slots = new TrackerPose[trackers.size()];
+			poses = new IdentityHashMap<>(slots.length * 2);
+			for (int i = 0; i < slots.length; ++i) {
+				Tracker tracker = trackers.get(i);
+				TrackerPose slot = previous.poses.get(tracker);
+				slots[i] = slot != null ? slot : new TrackerPose();
+				poses.put(tracker, slots[i]);
+			}
+		}
+
+		boolean copy(Tracker tracker, TrackerPose store) {
+			TrackerPose pose = poses.get(tracker);
+			if (pose == null)
+				return false;
+			store.set(pose);
+			return true;
+		}
+	}
+}
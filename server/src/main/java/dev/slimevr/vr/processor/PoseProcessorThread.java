@@ -0,0 +1,116 @@
+package dev.slimevr.vr.processor;
+
+import dev.slimevr.bridge.Bridge;
+import dev.slimevr.util.ServerTaskQueue;
+import dev.slimevr.util.TickScheduler;
+import dev.slimevr.vr.trackers.Tracker;
+import dev.slimevr.vr.trackers.TrackerRegistry;
+import io.eiren.util.ann.ThreadSafe;
+import io.eiren.util.collections.FastList;
+
+import java.util.List;
+
+
+/**
+ * Ticks the trackers, pose processor and bridges of one performer on its own
+ * thread, so several users tracked by the same server run in parallel. Nothing
+ * else touches them: the server thread skips the trackers of this performer,
+ * hands changes over as tasks and reads their pose from the
+ * {@link PerformerPose} published at the end of every tick.
+ */
+public class PoseProcessorThread extends Thread {
+
+	/**
+	 * Time per tick background tasks can run for once critical tasks are done
+	 */
+	private static final long BACKGROUND_TASK_BUDGET_NANOS = 500_000;
+
+	private final HumanPoseProcessor processor;
+	private final TrackerRegistry trackers;
+	private final TickScheduler tickScheduler;
+	private final ServerTaskQueue tasks = new ServerTaskQueue(256, 1024);
+	private final List<Bridge> bridges = new FastList<>();
+	private final PerformerPose pose = new PerformerPose();
+
+	public PoseProcessorThread(
+		HumanPoseProcessor processor,
+		TrackerRegistry trackers,
+		TickScheduler tickScheduler
+	) {
+		super("Pose processor " + (processor.getPerformer() + 1));
+		setDaemon(true);
+		this.processor = processor;
+		this.trackers = trackers;
+		this.tickScheduler = tickScheduler;
+	}
+
+	public HumanPoseProcessor getProcessor() {
+		return processor;
+	}
+
+	/**
+	 * Runs a task on this thread at the start of the next tick
+	 */
+	@ThreadSafe
+	public void queueTask(Runnable r) {
+		tasks.addCritical(r);
+		wakeUp();
+	}
+
+	/**
+	 * Starts a bridge sharing the pose of this performer, its data is read and
+	 * written on this thread
+	 */
+	@ThreadSafe
+	public void addBridge(Bridge bridge) {
+		queueTask(() -> {
+			bridges.add(bridge);
+			bridge.startBridge();
+		});
+	}
+
+	/**
+	 * @return pose of the trackers of this performer, updated at the end of
+	 * every tick
+	 */
+	@ThreadSafe
+	public PerformerPose getPose() {
+		return pose;
+	}
+
+	@ThreadSafe
+	public void wakeUp() {
+		tickScheduler.signal();
+	}
+
+	/**
+	 * @see TickScheduler#setIdle(boolean)
+	 */
+	@ThreadSafe
+	public void setIdle(boolean idle) {
+		tickScheduler.setIdle(idle);
+	}
+
+	@Override
+	public void run() {
+		int performer = processor.getPerformer();
+		while (!isInterrupted()) {
+			tickScheduler.awaitNextTick();
+			tasks.runTasks(BACKGROUND_TASK_BUDGET_NANOS);
+			for (Bridge bridge : bridges) {
+				bridge.dataRead();
+			}
+			List<Tracker> performerTrackers = trackers
+				.getSnapshot()
+				.getPerformerTrackers(performer);
+			for (Tracker tracker : performerTrackers) {
+				tracker.tick();
+			}
+			processor.update();
+			for (Bridge bridge : bridges) {
+				bridge.dataWrite();
+			}
+			pose.publish(performerTrackers);
+		}
+	}
+}
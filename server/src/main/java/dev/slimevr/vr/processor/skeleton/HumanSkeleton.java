@@ -164,14 +164,27 @@ public class HumanSkeleton extends Skeleton implements SkeletonConfigCallback {
 	public HumanSkeleton(
 		VRServer server,
 		List<? extends ComputedHumanPoseTracker> computedTrackers
+	) {
+		this(server, computedTrackers, 0);
+	}
+
+	/**
+	 * @param performer index of the user to build the skeleton of, only the
+	 * trackers assigned to them are used
+	 */
+	public HumanSkeleton(
+		VRServer server,
+		List<? extends ComputedHumanPoseTracker> computedTrackers,
+		int performer
 	) {
 		this(computedTrackers);
-		setTrackersFromServer(server);
+		setTrackersFromServer(server, performer);
 		skeletonConfig.loadFromConfig(server.getConfigManager());
 
+		// Taps only reset this skeleton, and VRChat follows the first performer
 		tapDetectionManager = new TapDetectionManager(
 			this,
-			server.getVrcOSCHandler(),
+			performer == 0 ? server.getVrcOSCHandler() : null,
 			server.getConfigManager().getVrConfig().getTapDetection()
 		);
 		legTweaks.setConfig(server.getConfigManager().getVrConfig().getLegTweaks());
@@ -631,8 +644,16 @@ public class HumanSkeleton extends Skeleton implements SkeletonConfigCallback {
 	}
 
 	public void setTrackersFromServer(VRServer server) {
-		this.hmdTracker = server.hmdTracker;
-		setTrackersFromList(server.getAllTrackers());
+		setTrackersFromServer(server, 0);
+	}
+
+	public void setTrackersFromServer(VRServer server, int performer) {
+		// The headset of the server belongs to the first performer, others
+		// use a tracker of their own assigned to the head, if any
+		this.hmdTracker = performer == 0 ? server.hmdTracker : null;
+		setTrackersFromList(
+			server.getTrackerRegistry().getSnapshot().getPerformerTrackers(performer)
+		);
 	}
 
 	public void setComputedTracker(ComputedHumanPoseTracker tracker) {
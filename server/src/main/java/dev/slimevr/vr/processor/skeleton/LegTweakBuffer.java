@@ -3,6 +3,7 @@ package dev.slimevr.vr.processor.skeleton;
 import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 import com.jme3.math.FastMath;
+import dev.slimevr.util.Clock;
 
 
 /**
@@ -66,7 +67,7 @@ public class LegTweakBuffer {
 	private float rightFootAccelerationMagnitude = 0;
 
 	// other data
-	private long timeOfFrame = System.nanoTime();
+	private long timeOfFrame = Clock.nanoTime();
 	private LegTweakBuffer parent = null; // frame before this one
 	private int frameNumber = 0; // higher number is older frame
 	private int detectionMode = ANKLE_ACCEL; // detection mode
@@ -3,6 +3,7 @@ package dev.slimevr.vr.processor.skeleton;
 import java.util.LinkedList;
 import com.jme3.math.Vector3f;
 
+import dev.slimevr.util.Clock;
 import dev.slimevr.vr.trackers.Tracker;
 
 
@@ -94,7 +95,7 @@ public class TapDetection {
 		// get the acceleration of the tracker and add it to the list
 		Vector3f accel = new Vector3f();
 		trackerToWatch.getAcceleration(accel);
-		float time = System.nanoTime();
+		float time = Clock.nanoTime();
 		float[] listval = { accel.length(), time };
 		accelList.add(listval);
 
@@ -3,6 +3,7 @@ package dev.slimevr.vr.processor.skeleton;
 
 import dev.slimevr.config.TapDetectionConfig;
 import dev.slimevr.osc.VRCOSCHandler;
+import dev.slimevr.util.Clock;
 import dev.slimevr.vr.trackers.Tracker;
 
 
@@ -98,7 +99,7 @@ public class TapDetectionManager {
 		boolean tapped = (quickResetTaps <= quickResetDetector.getTaps());
 
 		if (
-			tapped && System.nanoTime() - quickResetDetector.getDetectionTime() > quickResetDelayNs
+			tapped && Clock.nanoTime() - quickResetDetector.getDetectionTime() > quickResetDelayNs
 		) {
 			if (oscHandler != null)
 				oscHandler.yawAlign();
@@ -111,7 +112,7 @@ public class TapDetectionManager {
 		boolean tapped = (resetTaps <= resetDetector.getTaps());
 
 		if (
-			tapped && System.nanoTime() - resetDetector.getDetectionTime() > resetDelayNs
+			tapped && Clock.nanoTime() - resetDetector.getDetectionTime() > resetDelayNs
 		) {
 			if (oscHandler != null)
 				oscHandler.yawAlign();
@@ -125,7 +126,7 @@ public class TapDetectionManager {
 
 		if (
 			tapped
-				&& System.nanoTime() - mountingResetDetector.getDetectionTime()
+				&& Clock.nanoTime() - mountingResetDetector.getDetectionTime()
 					> mountingResetDelayNs
 		) {
 			skeleton.resetTrackersMounting();
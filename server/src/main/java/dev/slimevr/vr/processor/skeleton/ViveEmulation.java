@@ -2,6 +2,7 @@ package dev.slimevr.vr.processor.skeleton;
 
 import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
+import dev.slimevr.util.Clock;
 import java.util.Random;
 
 
@@ -45,7 +46,7 @@ public class ViveEmulation {
 	private Vector3f targetPosition = new Vector3f();
 	private Quaternion randomRotation = new Quaternion();
 	private Quaternion lastRotation = new Quaternion();
-	private long time = System.nanoTime();
+	private long time = Clock.nanoTime();
 	private float timeDelta = 0.0f;
 
 	public ViveEmulation(HumanSkeleton skeleton) {
@@ -72,13 +73,13 @@ public class ViveEmulation {
 
 		// update state
 		ticksToFly--;
-		long newTime = System.nanoTime();
-		timeDelta = (System.nanoTime() - time) / NS_CONVERTER;
+		long newTime = Clock.nanoTime();
+		timeDelta = (Clock.nanoTime() - time) / NS_CONVERTER;
 		time = newTime;
 
 		// in the flying state update the tracker each frame
 		if (flying) {
-			if (System.nanoTime() - flyStartTime > flyTime) {
+			if (Clock.nanoTime() - flyStartTime > flyTime) {
 				flying = false;
 				flyingBack = true;
 				overShooting = true;
@@ -125,7 +126,7 @@ public class ViveEmulation {
 			flyTime = (random.nextFloat() * (MAX_FLY_TIME - MIN_FLY_TIME) + MIN_FLY_TIME)
 				* NS_CONVERTER;
 			flySpeed = (random.nextFloat() * FLY_SPEED_VARIANCE + FLY_SPEED);
-			flyStartTime = System.nanoTime();
+			flyStartTime = Clock.nanoTime();
 			randomRotation
 				.set(random.nextFloat(), random.nextFloat(), random.nextFloat(), random.nextFloat())
 				.normalizeLocal();
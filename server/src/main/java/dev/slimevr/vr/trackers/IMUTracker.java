@@ -8,6 +8,7 @@ import dev.slimevr.config.TrackerConfig;
 import dev.slimevr.filtering.CircularArrayList;
 import dev.slimevr.filtering.QuaternionMovingAverage;
 import dev.slimevr.filtering.TrackerFilters;
+import dev.slimevr.util.Clock;
 import dev.slimevr.vr.Device;
 import dev.slimevr.vr.trackers.udp.TrackersUDPServer;
 import dev.slimevr.vr.trackers.udp.UDPDevice;
@@ -22,6 +23,10 @@ public class IMUTracker
 	TrackerWithFiltering {
 
 	public static final float MAX_MAG_CORRECTION_ACCURACY = 5 * FastMath.RAD_TO_DEG;
+	/**
+	 * Samples buffered between two ticks before the oldest ones are dropped
+	 */
+	private static final int SAMPLE_BUFFER_CAPACITY = 32;
 
 	// public final Vector3f gyroVector = new Vector3f();
 	public final Vector3f accelVector = new Vector3f();
@@ -79,6 +84,15 @@ public class IMUTracker
 	private long totalDriftTime;
 	private long driftSince;
 	private long timeAtLastReset;
+	// Samples published by the tracker server thread, drained on tick
+	private final TrackerSampleBuffer samples = new TrackerSampleBuffer(SAMPLE_BUFFER_CAPACITY);
+	private final TrackerSampleBuffer.Sample sample = new TrackerSampleBuffer.Sample();
+	private final TrackerSampleBuffer.Sample overflowSample = new TrackerSampleBuffer.Sample();
+	/**
+	 * Null if samples are applied as soon as the tick sees them
+	 */
+	private TrackerJitterBuffer jitterBuffer = null;
+	private final Vector3f accelBuf = new Vector3f();
 
 	public IMUTracker(
 		UDPDevice device,
@@ -107,6 +121,13 @@ public class IMUTracker
 				vrserver.getConfigManager().getVrConfig().getDriftCompensation().getAmount(),
 				vrserver.getConfigManager().getVrConfig().getDriftCompensation().getMaxResets()
 			);
+			setJitterBufferDelay(
+				vrserver
+					.getConfigManager()
+					.getVrConfig()
+					.getServer()
+					.getTrackerJitterBufferDelayMs()
+			);
 		}
 	}
 
@@ -213,8 +234,141 @@ public class IMUTracker
 		}
 	}
 
+	/**
+	 * Holds received samples for the given delay before applying them at a
+	 * steady cadence, smoothing out bursty arrival at the cost of latency.
+	 * Must be called from the server thread.
+	 *
+	 * @param millis target delay, 0 to apply samples on the first tick after
+	 * they're received
+	 */
+	public void setJitterBufferDelay(int millis) {
+		if (millis <= 0) {
+			jitterBuffer = null;
+		} else if (jitterBuffer == null) {
+			jitterBuffer = new TrackerJitterBuffer(millis * 1_000_000L, SAMPLE_BUFFER_CAPACITY);
+		} else {
+			jitterBuffer.setTargetDelayNanos(millis * 1_000_000L);
+		}
+	}
+
+	/**
+	 * Publishes a new rotation for the next tick. Must only be called from the
+	 * thread receiving this tracker's data.
+	 */
+	public void publishRotation(Quaternion rotation, int calibrationInfo, long timeNanos) {
+		samples
+			.publish(
+				TrackerSampleBuffer.TYPE_ROTATION,
+				timeNanos,
+				rotation.getX(),
+				rotation.getY(),
+				rotation.getZ(),
+				rotation.getW(),
+				calibrationInfo
+			);
+		timer.update();
+	}
+
+	/**
+	 * Publishes a magnetometer-corrected rotation for the next tick. Must only
+	 * be called from the thread receiving this tracker's data.
+	 */
+	public void publishCorrection(Quaternion rotation, int calibrationInfo, long timeNanos) {
+		samples
+			.publish(
+				TrackerSampleBuffer.TYPE_CORRECTION,
+				timeNanos,
+				rotation.getX(),
+				rotation.getY(),
+				rotation.getZ(),
+				rotation.getW(),
+				calibrationInfo
+			);
+	}
+
+	/**
+	 * Publishes a new acceleration in the sensor frame for the next tick, it's
+	 * rotated by the rotation received before it. Must only be called from the
+	 * thread receiving this tracker's data.
+	 */
+	public void publishAcceleration(Vector3f acceleration, long timeNanos) {
+		samples
+			.publish(
+				TrackerSampleBuffer.TYPE_ACCELERATION,
+				timeNanos,
+				acceleration.x,
+				acceleration.y,
+				acceleration.z,
+				0,
+				0
+			);
+	}
+
+	/**
+	 * @return samples overwritten before a tick could apply them, because the
+	 * thread ticking this tracker couldn't keep up. Can be called from any
+	 * thread.
+	 */
+	public long getLostSamples() {
+		return samples.getLostSamples();
+	}
+
+	/**
+	 * @return samples the jitter buffer released early because it was full,
+	 * since it was enabled, 0 if it's disabled. Can be called from any thread.
+	 */
+	public long getJitterBufferOverflowSamples() {
+		TrackerJitterBuffer buffer = jitterBuffer;
+		return buffer != null ? buffer.getOverflowSamples() : 0;
+	}
+
+	/**
+	 * Applies the samples published since the last tick in order, or the ones
+	 * due if the jitter buffer is enabled.
+	 */
+	protected void drainSamples() {
+		if (jitterBuffer == null) {
+			while (samples.poll(sample)) {
+				applySample(sample);
+			}
+			return;
+		}
+		while (samples.poll(sample)) {
+			if (!jitterBuffer.offer(sample, overflowSample))
+				applySample(overflowSample);
+		}
+		long now = Clock.nanoTime();
+		while (jitterBuffer.poll(now, sample)) {
+			applySample(sample);
+		}
+	}
+
+	private void applySample(TrackerSampleBuffer.Sample sample) {
+		switch (sample.type) {
+			case TrackerSampleBuffer.TYPE_ROTATION -> {
+				rotQuaternion.set(sample.x, sample.y, sample.z, sample.w);
+				calibrationStatus = sample.info;
+				if (movingAverage != null) {
+					movingAverage.addQuaternion(rotQuaternion);
+				}
+			}
+			case TrackerSampleBuffer.TYPE_CORRECTION -> {
+				rotMagQuaternion.set(sample.x, sample.y, sample.z, sample.w);
+				magCalibrationStatus = sample.info;
+				hasNewCorrectionData = true;
+			}
+			case TrackerSampleBuffer.TYPE_ACCELERATION -> {
+				accelBuf.set(sample.x, sample.y, sample.z);
+				rotQuaternion.mult(accelBuf, accelVector);
+			}
+		}
+	}
+
 	@Override
 	public void tick() {
+		drainSamples();
+
 		if (magnetometerCalibrated && hasNewCorrectionData) {
 			hasNewCorrectionData = false;
 			if (magnetometerAccuracy <= MAX_MAG_CORRECTION_ACCURACY) {
@@ -268,7 +422,7 @@ public class IMUTracker
 				.slerpLocal(
 					store.mult(averagedDriftQuat),
 					driftAmount
-						* ((float) (System.currentTimeMillis() - driftSince)
+						* ((float) (Clock.currentTimeMillis() - driftSince)
 							/ totalDriftTime)
 				);
 		}
@@ -334,7 +488,7 @@ public class IMUTracker
 				.slerpLocal(
 					rot.mult(averagedDriftQuat),
 					driftAmount
-						* ((float) (System.currentTimeMillis() - driftSince)
+						* ((float) (Clock.currentTimeMillis() - driftSince)
 							/ totalDriftTime)
 				);
 		}
@@ -362,11 +516,6 @@ public class IMUTracker
 	@Override
 	public void dataTick() {
 		timer.update();
-
-		// Add new rotation to moving average
-		if (movingAverage != null) {
-			movingAverage.addQuaternion(rotQuaternion.clone());
-		}
 	}
 
 	@Override
@@ -531,7 +680,7 @@ public class IMUTracker
 
 			if (
 				driftSince > 0
-					&& System.currentTimeMillis() - timeAtLastReset > DRIFT_COOLDOWN_MS
+					&& Clock.currentTimeMillis() - timeAtLastReset > DRIFT_COOLDOWN_MS
 			) {
 				// Check and remove from lists to keep them under the reset
 				// limit
@@ -551,7 +700,7 @@ public class IMUTracker
 					);
 
 				// Add drift time to total
-				driftTimes.add(System.currentTimeMillis() - driftSince);
+				driftTimes.add(Clock.currentTimeMillis() - driftSince);
 				totalDriftTime = 0;
 				for (Long time : driftTimes) {
 					totalDriftTime += time;
@@ -584,9 +733,9 @@ public class IMUTracker
 
 				// Save tracker rotation and current time
 				rotationSinceReset.set(driftQuats.getLatest());
-				timeAtLastReset = System.currentTimeMillis();
+				timeAtLastReset = Clock.currentTimeMillis();
 			} else if (
-				System.currentTimeMillis() - timeAtLastReset < DRIFT_COOLDOWN_MS
+				Clock.currentTimeMillis() - timeAtLastReset < DRIFT_COOLDOWN_MS
 					&& driftQuats.size() > 0
 			) {
 				// Replace latest drift quaternion
@@ -608,7 +757,7 @@ public class IMUTracker
 				driftTimes
 					.set(
 						driftTimes.size() - 1,
-						driftTimes.getLatest() + System.currentTimeMillis() - driftSince
+						driftTimes.getLatest() + Clock.currentTimeMillis() - driftSince
 					);
 				totalDriftTime = 0;
 				for (Long time : driftTimes) {
@@ -638,10 +787,10 @@ public class IMUTracker
 				// Set final averaged drift Quaternion
 				averagedDriftQuat.fromAveragedQuaternions(driftQuats, driftWeights);
 			} else {
-				timeAtLastReset = System.currentTimeMillis();
+				timeAtLastReset = Clock.currentTimeMillis();
 			}
 
-			driftSince = System.currentTimeMillis();
+			driftSince = Clock.currentTimeMillis();
 		}
 	}
 
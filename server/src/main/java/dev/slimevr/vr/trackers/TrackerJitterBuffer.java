@@ -0,0 +1,150 @@
+package dev.slimevr.vr.trackers;
+
+/**
+ * Optional playout buffer between the {@link TrackerSampleBuffer} of a tracker
+ * and its tick, trading latency for smoothness.
+ *
+ * Every sample is held for a target delay after it was received. Samples of a
+ * type arriving in a burst are spaced out at the cadence they're produced at,
+ * estimated from their average inter-arrival time, without ever being held
+ * for more than twice the target delay. The estimate starts from 0 and gaps
+ * longer than the target delay count as the target delay, so a pause, like the
+ * one before the first samples, doesn't overestimate the cadence and hold the
+ * following samples for longer. Samples are released in schedule order across
+ * types.
+ *
+ * Must be used from the server thread only.
+ */
+public class TrackerJitterBuffer {
+
+	private final TypeQueue[] queues = new TypeQueue[4];
+	private long targetDelayNanos;
+	private volatile long overflowSamples = 0;
+
+	/**
+	 * @param capacity samples held per type before the oldest ones are
+	 * released early
+	 */
+	public TrackerJitterBuffer(long targetDelayNanos, int capacity) {
+		this.targetDelayNanos = targetDelayNanos;
+		for (int i = 0; i < queues.length; ++i) {
+			queues[i] = new TypeQueue(capacity);
+		}
+	}
+
+	public long getTargetDelayNanos() {
+		return targetDelayNanos;
+	}
+
+	public void setTargetDelayNanos(long targetDelayNanos) {
+		this.targetDelayNanos = targetDelayNanos;
+	}
+
+	/**
+	 * Holds a copy of a sample until its playout time.
+	 *
+	 * @return false if the buffer was full and the oldest sample of this type
+	 * must be released right away, in which case it was copied to
+	 * {@code overflow}
+	 */
+	public boolean offer(TrackerSampleBuffer.Sample sample, TrackerSampleBuffer.Sample overflow) {
+		TypeQueue queue = queues[sample.type & 3];
+		long arrival = sample.timeNanos;
+		if (queue.lastArrival != 0) {
+			long gap = Math.min(Math.max(arrival - queue.lastArrival, 0), targetDelayNanos);
+			queue.intervalNanos += (gap - queue.intervalNanos) / 16;
+		}
+		queue.lastArrival = arrival;
+		long playout = arrival + targetDelayNanos;
+		if (queue.lastPlayout != 0) {
+			long paced = queue.lastPlayout + queue.intervalNanos;
+			if (paced > playout)
+				playout = Math.min(paced, arrival + 2 * targetDelayNanos);
+		}
+		queue.lastPlayout = playout;
+		boolean accepted = true;
+		if (queue.size == queue.samples.length) {
+			queue.remove(overflow);
+			overflowSamples++;
+			accepted = false;
+		}
+		queue.add(sample, playout);
+		return accepted;
+	}
+
+	/**
+	 * Releases the next sample due at this time.
+	 *
+	 * @return false if no sample is due yet
+	 */
+	public boolean poll(long nowNanos, TrackerSampleBuffer.Sample store) {
+		TypeQueue next = null;
+		for (TypeQueue queue : queues) {
+			if (
+				queue.size > 0
+					&& queue.headPlayout() <= nowNanos
+					&& (next == null || queue.headPlayout() < next.headPlayout())
+			) {
+				next = queue;
+			}
+		}
+		if (next == null)
+			return false;
+		next.remove(store);
+		return true;
+	}
+
+	/**
+	 * @return samples released before their playout time because the buffer
+	 * was full. Can be called from any thread.
+	 */
+	public long getOverflowSamples() {
+		return overflowSamples;
+	}
+
+	private static class TypeQueue {
+
+		final TrackerSampleBuffer.Sample[] samples;
+		final long[] playouts;
+		int head = 0;
+		int size = 0;
+		long lastArrival = 0;
+		long lastPlayout = 0;
+		long intervalNanos = 0;
+
+		TypeQueue(int capacity) {
+			samples = new TrackerSampleBuffer.Sample[Math.max(capacity, 1)];
+			playouts = new long[samples.length];
+			for (int i = 0; i < samples.length; ++i) {
+				samples[i] = new TrackerSampleBuffer.Sample();
+			}
+		}
+
+		long headPlayout() {
+			return playouts[head];
+		}
+
+		void add(TrackerSampleBuffer.Sample sample, long playout) {
+			int index = (head + size) % samples.length;
+			copy(sample, samples[index]);
+			playouts[index] = playout;
+			size++;
+		}
+
+		void remove(TrackerSampleBuffer.Sample store) {
+			copy(samples[head], store);
+			head = (head + 1) % samples.length;
+			size--;
+		}
+
+		private static void copy(TrackerSampleBuffer.Sample from, TrackerSampleBuffer.Sample to) {
+			to.type = from.type;
+			to.timeNanos = from.timeNanos;
+			to.x = from.x;
+			to.y = from.y;
+			to.z = from.z;
+			to.w = from.w;
+			to.info = from.info;
+		}
+	}
+}
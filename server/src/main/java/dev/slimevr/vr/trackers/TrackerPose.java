@@ -0,0 +1,98 @@
+package dev.slimevr.vr.trackers;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+
+/**
+ * Copy of the pose of a tracker, taken on the thread ticking it so other
+ * threads can read a consistent pose. Reused from tick to tick instead of
+ * allocating a new copy, not thread safe.
+ */
+public final class TrackerPose {
+
+	private final Quaternion rotation = new Quaternion();
+	private final Quaternion rawRotation = new Quaternion();
+	private final Quaternion identityAdjustedRotation = new Quaternion();
+	private final Vector3f position = new Vector3f();
+	private final Vector3f acceleration = new Vector3f();
+	private boolean hasRotation = false;
+	private boolean hasIdentityAdjustedRotation = false;
+	private boolean hasPosition = false;
+	private boolean hasAcceleration = false;
+
+	/**
+	 * Must be called on the thread ticking the tracker
+	 */
+	public static TrackerPose of(Tracker tracker) {
+		TrackerPose pose = new TrackerPose();
+		pose.set(tracker);
+		return pose;
+	}
+
+	/**
+	 * Copies the current pose of the tracker. Must be called on the thread
+	 * ticking the tracker.
+	 */
+	public void set(Tracker tracker) {
+		hasRotation = tracker.hasRotation();
+		hasIdentityAdjustedRotation = hasRotation && tracker instanceof IMUTracker;
+		if (hasRotation) {
+			tracker.getRotation(rotation);
+			tracker.getRawRotation(rawRotation);
+			if (hasIdentityAdjustedRotation)
+				((IMUTracker) tracker).getIdentityAdjustedRotation(identityAdjustedRotation);
+		}
+		hasPosition = tracker.hasPosition();
+		if (hasPosition)
+			tracker.getPosition(position);
+		hasAcceleration = tracker.hasAcceleration();
+		if (hasAcceleration)
+			tracker.getAcceleration(acceleration);
+	}
+
+	public void set(TrackerPose pose) {
+		rotation.set(pose.rotation);
+		rawRotation.set(pose.rawRotation);
+		identityAdjustedRotation.set(pose.identityAdjustedRotation);
+		position.set(pose.position);
+		acceleration.set(pose.acceleration);
+		hasRotation = pose.hasRotation;
+		hasIdentityAdjustedRotation = pose.hasIdentityAdjustedRotation;
+		hasPosition = pose.hasPosition;
+		hasAcceleration = pose.hasAcceleration;
+	}
+
+	public boolean getRotation(Quaternion store) {
+		return copy(hasRotation, rotation, store);
+	}
+
+	public boolean getRawRotation(Quaternion store) {
+		return copy(hasRotation, rawRotation, store);
+	}
+
+	/**
+	 * @return false if the tracker isn't an {@link IMUTracker}
+	 */
+	public boolean getIdentityAdjustedRotation(Quaternion store) {
+		return copy(hasIdentityAdjustedRotation, identityAdjustedRotation, store);
+	}
+
+	public boolean getPosition(Vector3f store) {
+		return copy(hasPosition, position, store);
+	}
+
+	public boolean getAcceleration(Vector3f store) {
+		return copy(hasAcceleration, acceleration, store);
+	}
+
+	private static boolean copy(boolean has, Quaternion value, Quaternion store) {
+		store.set(has ? value : Quaternion.IDENTITY);
+		return has;
+	}
+
+	private static boolean copy(boolean has, Vector3f value, Vector3f store) {
+		store.set(has ? value : Vector3f.ZERO);
+		return has;
+	}
+}
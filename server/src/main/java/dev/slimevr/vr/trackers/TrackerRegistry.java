@@ -0,0 +1,176 @@
+package dev.slimevr.vr.trackers;
+
+import dev.slimevr.util.ann.VRServerThread;
+import dev.slimevr.vr.Device;
+import io.eiren.util.ann.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Trackers registered to the server. Every change publishes a new immutable
+ * {@link Snapshot} with its own indexes, so readers on any thread get the
+ * trackers and look them up by id, device, body position or performer (the
+ * user they're assigned to) without copying or locking.
+ *
+ * Body positions are indexed as of the last change, call
+ * {@link #refresh()} after changing the position of a tracker.
+ */
+public class TrackerRegistry {
+
+	/**
+	 * Device id of trackers without a device in
+	 * {@link Snapshot#getTracker(int, int)}
+	 */
+	public static final int NO_DEVICE = -1;
+
+	private volatile Snapshot snapshot = new Snapshot(
+		0,
+		Collections.emptyList(),
+		Collections.emptyMap()
+	);
+
+	@VRServerThread
+	public void add(Tracker tracker) {
+		add(tracker, 0);
+	}
+
+	@VRServerThread
+	public void add(Tracker tracker, int performer) {
+		List<Tracker> trackers = new ArrayList<>(snapshot.trackers);
+		trackers.add(tracker);
+		Map<Tracker, Integer> performers = new IdentityHashMap<>(snapshot.performers);
+		performers.put(tracker, performer);
+		snapshot = new Snapshot(snapshot.version + 1, trackers, performers);
+	}
+
+	/**
+	 * Publishes a new snapshot to index changed body positions
+	 */
+	@VRServerThread
+	public void refresh() {
+		snapshot = new Snapshot(snapshot.version + 1, snapshot.trackers, snapshot.performers);
+	}
+
+	@ThreadSafe
+	public Snapshot getSnapshot() {
+		return snapshot;
+	}
+
+	public static final class Snapshot {
+
+		private final long version;
+		private final List<Tracker> trackers;
+		private final List<Tracker> syntheticTrackers;
+		private final Map<Long, Tracker> trackersById = new HashMap<>();
+		private final Map<Integer, List<Tracker>> trackersByDevice = new HashMap<>();
+		private final Map<TrackerPosition, List<Tracker>> trackersByPosition = new EnumMap<>(
+			TrackerPosition.class
+		);
+		private final Map<Tracker, Integer> performers;
+		private final Map<Integer, List<Tracker>> trackersByPerformer = new HashMap<>();
+
+		private Snapshot(long version, List<Tracker> trackers, Map<Tracker, Integer> performers) {
+			this.version = version;
+			this.trackers = Collections.unmodifiableList(trackers);
+			this.performers = performers;
+			List<Tracker> synthetic = new ArrayList<>();
+			for (Tracker tracker : trackers) {
+				Device device = tracker.getDevice();
+				int deviceId = device != null ? device.getId() : NO_DEVICE;
+				// First registered wins, like a scan of the list would
+				trackersById.putIfAbsent(key(deviceId, tracker.getTrackerNum()), tracker);
+				if (device != null)
+					trackersByDevice
+						.computeIfAbsent(deviceId, id -> new ArrayList<>())
+						.add(tracker);
+				TrackerPosition position = tracker.getBodyPosition();
+				if (position != null)
+					trackersByPosition
+						.computeIfAbsent(position, p -> new ArrayList<>())
+						.add(tracker);
+				if (tracker.get().getDevice() == null)
+					synthetic.add(tracker);
+				trackersByPerformer
+					.computeIfAbsent(performers.get(tracker), p -> new ArrayList<>())
+					.add(tracker);
+			}
+			this.syntheticTrackers = Collections.unmodifiableList(synthetic);
+			trackersByDevice.replaceAll((id, list) -> Collections.unmodifiableList(list));
+			trackersByPosition.replaceAll((p, list) -> Collections.unmodifiableList(list));
+			trackersByPerformer.replaceAll((p, list) -> Collections.unmodifiableList(list));
+		}
+
+		private static long key(int deviceId, int trackerNum) {
+			return ((long) deviceId << 32) | (trackerNum & 0xFFFFFFFFL);
+		}
+
+		/**
+		 * @return incremented on every change
+		 */
+		public long getVersion() {
+			return version;
+		}
+
+		/**
+		 * @return all trackers in registration order, unmodifiable
+		 */
+		public List<Tracker> getTrackers() {
+			return trackers;
+		}
+
+		/**
+		 * @return trackers without a device, unmodifiable
+		 */
+		public List<Tracker> getSyntheticTrackers() {
+			return syntheticTrackers;
+		}
+
+		/**
+		 * @param deviceId id of the tracker's device, or {@link #NO_DEVICE}
+		 * @return the tracker, or null
+		 */
+		public Tracker getTracker(int deviceId, int trackerNum) {
+			return trackersById.get(key(deviceId, trackerNum));
+		}
+
+		/**
+		 * @return trackers of this device, unmodifiable
+		 */
+		public List<Tracker> getTrackers(Device device) {
+			return trackersByDevice.getOrDefault(device.getId(), Collections.emptyList());
+		}
+
+		/**
+		 * @return trackers assigned to this body position, unmodifiable
+		 */
+		public List<Tracker> getTrackers(TrackerPosition position) {
+			return trackersByPosition.getOrDefault(position, Collections.emptyList());
+		}
+
+		/**
+		 * @return trackers assigned to this performer, unmodifiable
+		 */
+		public List<Tracker> getPerformerTrackers(int performer) {
+			return trackersByPerformer.getOrDefault(performer, Collections.emptyList());
+		}
+
+		/**
+		 * @return index of the performer this tracker is assigned to, or -1 if
+		 * it isn't registered
+		 */
+		public int getPerformer(Tracker tracker) {
+			return performers.getOrDefault(tracker, -1);
+		}
+
+		public int size() {
+			return trackers.size();
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package dev.slimevr.vr.trackers;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+
+/**
+ * Lock-free single-producer/single-consumer handoff of timestamped IMU samples
+ * from the thread receiving tracker data to the server thread.
+ *
+ * Samples are kept as primitives in a ring of slots, each guarded by a
+ * sequence stamp (a seqlock). The producer never blocks: if the consumer falls
+ * behind, the oldest samples are overwritten. The consumer validates the stamp
+ * around every read, so it never sees a torn sample and skips the ones that
+ * were overwritten while it was reading them.
+ */
+public class TrackerSampleBuffer {
+
+	public static final int TYPE_ROTATION = 1;
+	public static final int TYPE_ACCELERATION = 2;
+	public static final int TYPE_CORRECTION = 3;
+
+	private static final VarHandle STAMPS = MethodHandles.arrayElementVarHandle(long[].class);
+	private static final VarHandle HEAD;
+
+	static {
+		try {
+			HEAD = MethodHandles
+				.lookup()
+				.findVarHandle(TrackerSampleBuffer.class, "head", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * Sequence number + 1 of the sample held by each slot, 0 while it's being
+	 * written
+	 */
+	private final long[] stamps;
+	private final long[] times;
+	private final int[] types;
+	private final int[] infos;
+	private final float[] values;
+	private final int mask;
+
+	/**
+	 * Sequence number of the next sample to publish, written by the producer
+	 * only
+	 */
+	private volatile long head = 0;
+
+	/**
+	 * Sequence number of the next sample to read, consumer only
+	 */
+	private long readSequence = 0;
+	/**
+	 * Written by the consumer, readable from any thread
+	 */
+	private volatile long lostSamples = 0;
+
+	/**
+	 * @param capacity number of samples kept before the oldest ones are
+	 * overwritten, rounded up to a power of two
+	 */
+	public TrackerSampleBuffer(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		stamps = new long[size];
+		times = new long[size];
+		types = new int[size];
+		infos = new int[size];
+		values = new float[size * 4];
+		mask = size - 1;
+	}
+
+	/**
+	 * Publishes a sample. Must only be called from the producer thread.
+	 */
+	public void publish(int type, long timeNanos, float x, float y, float z, float w, int info) {
+		long seq = (long) HEAD.getOpaque(this);
+		int index = (int) (seq & mask);
+		STAMPS.setOpaque(stamps, index, 0L);
+		VarHandle.storeStoreFence();
+		times[index] = timeNanos;
+		types[index] = type;
+		infos[index] = info;
+		int offset = index << 2;
+		values[offset] = x;
+		values[offset + 1] = y;
+		values[offset + 2] = z;
+		values[offset + 3] = w;
+		STAMPS.setRelease(stamps, index, seq + 1);
+		HEAD.setRelease(this, seq + 1);
+	}
+
+	/**
+	 * Reads the oldest sample not read yet. Must only be called from the
+	 * consumer thread.
+	 *
+	 * @param store where to copy the sample
+	 * @return false if there is no new sample
+	 */
+	public boolean poll(Sample store) {
+		long h = (long) HEAD.getAcquire(this);
+		while (readSequence < h) {
+			if (h - readSequence > mask + 1) {
+				// Producer lapped us, skip to the oldest sample still held
+				lostSamples += h - readSequence - mask - 1;
+				readSequence = h - mask - 1;
+			}
+			long seq = readSequence++;
+			int index = (int) (seq & mask);
+			long stamp = (long) STAMPS.getAcquire(stamps, index);
+			store.timeNanos = times[index];
+			store.type = types[index];
+			store.info = infos[index];
+			int offset = index << 2;
+			store.x = values[offset];
+			store.y = values[offset + 1];
+			store.z = values[offset + 2];
+			store.w = values[offset + 3];
+			VarHandle.loadLoadFence();
+			if (stamp == seq + 1 && (long) STAMPS.getOpaque(stamps, index) == stamp)
+				return true;
+			// Overwritten while reading
+			lostSamples++;
+			h = (long) HEAD.getAcquire(this);
+		}
+		return false;
+	}
+
+	/**
+	 * @return samples overwritten before the consumer could read them. Can be
+	 * called from any thread.
+	 */
+	public long getLostSamples() {
+		return lostSamples;
+	}
+
+	/**
+	 * Mutable holder for a sample read with {@link #poll(Sample)}
+	 */
+	public static class Sample {
+
+		public int type;
+		public long timeNanos;
+		public float x;
+		public float y;
+		public float z;
+		public float w;
+		public int info;
+	}
+}
@@ -0,0 +1,142 @@
+package dev.slimevr.vr.trackers.udp;
+
+/**
+ * Hashed timer wheel. Timeouts are hashed into buckets by their deadline tick,
+ * so scheduling is O(1) and advancing the wheel only visits the bucket of each
+ * elapsed tick, costing O(expired) rather than O(scheduled) per tick.
+ * Timeouts due on the same tick expire in the order they were scheduled.
+ *
+ * Not thread safe, must be used from a single thread.
+ */
+public class HashedTimerWheel {
+
+	private final Timeout[] buckets;
+	private final int mask;
+	private final long tickNanos;
+	private final long startNanos;
+	/**
+	 * Next tick to process
+	 */
+	private long currentTick = 0;
+	/**
+	 * Timeouts of the tick being processed that didn't expire yet
+	 */
+	private Timeout expiring;
+
+	/**
+	 * @param tickNanos resolution of the wheel
+	 * @param wheelSize number of buckets, rounded up to a power of two.
+	 * Deadlines further than a full turn are kept in their bucket until their
+	 * turn comes.
+	 */
+	public HashedTimerWheel(long tickNanos, int wheelSize, long startNanos) {
+		int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+		this.buckets = new Timeout[size];
+		this.mask = size - 1;
+		this.tickNanos = tickNanos;
+		this.startNanos = startNanos;
+	}
+
+	/**
+	 * Schedules a timeout that isn't scheduled yet. Deadlines already passed
+	 * expire on the next tick processed.
+	 */
+	public void schedule(Timeout timeout, long deadlineNanos) {
+		if (timeout.scheduled)
+			throw new IllegalStateException("Timeout already scheduled");
+		long tick = Math.max((deadlineNanos - startNanos + tickNanos - 1) / tickNanos, currentTick);
+		timeout.deadlineTick = tick;
+		int index = (int) (tick & mask);
+		timeout.next = buckets[index];
+		buckets[index] = timeout;
+		timeout.scheduled = true;
+	}
+
+	/**
+	 * Cancels a scheduled timeout, which can then be scheduled again. Costs
+	 * O(timeouts in its bucket).
+	 *
+	 * @return false if the timeout wasn't scheduled
+	 */
+	public boolean cancel(Timeout timeout) {
+		if (!timeout.scheduled)
+			return false;
+		timeout.scheduled = false;
+		int index = (int) (timeout.deadlineTick & mask);
+		buckets[index] = unlink(buckets[index], timeout);
+		// Or cancelled by another timeout expiring on the same tick
+		expiring = unlink(expiring, timeout);
+		timeout.next = null;
+		return true;
+	}
+
+	private static Timeout unlink(Timeout head, Timeout timeout) {
+		if (head == timeout)
+			return timeout.next;
+		Timeout previous = head;
+		while (previous != null && previous.next != timeout) {
+			previous = previous.next;
+		}
+		if (previous != null)
+			previous.next = timeout.next;
+		return head;
+	}
+
+	/**
+	 * Expires every timeout whose tick has elapsed at the given time. Expired
+	 * timeouts may reschedule themselves from {@link Timeout#expire()}.
+	 */
+	public void advance(long nowNanos) {
+		long lastTick = (nowNanos - startNanos) / tickNanos;
+		while (currentTick <= lastTick) {
+			int index = (int) (currentTick & mask);
+			// Unlink the expired timeouts first, so they can be rescheduled
+			// into the same bucket while expiring. Prepending them reverses
+			// the bucket, which is itself in reverse order of scheduling.
+			Timeout previous = null;
+			Timeout timeout = buckets[index];
+			while (timeout != null) {
+				Timeout next = timeout.next;
+				if (timeout.deadlineTick <= currentTick) {
+					if (previous == null)
+						buckets[index] = next;
+					else
+						previous.next = next;
+					timeout.next = expiring;
+					expiring = timeout;
+				} else {
+					previous = timeout;
+				}
+				timeout = next;
+			}
+			currentTick++;
+			while (expiring != null) {
+				Timeout expired = expiring;
+				expiring = expired.next;
+				expired.next = null;
+				expired.scheduled = false;
+				expired.expire();
+			}
+		}
+	}
+
+	/**
+	 * @return time at which the next tick is due
+	 */
+	public long nextTickNanos() {
+		return startNanos + currentTick * tickNanos;
+	}
+
+	public abstract static class Timeout {
+
+		private long deadlineTick;
+		private Timeout next;
+		private boolean scheduled = false;
+
+		public boolean isScheduled() {
+			return scheduled;
+		}
+
+		protected abstract void expire();
+	}
+}
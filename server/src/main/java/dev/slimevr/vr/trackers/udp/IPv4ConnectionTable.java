@@ -0,0 +1,122 @@
+package dev.slimevr.vr.trackers.udp;
+
+/**
+ * Open-addressing hash table of connections keyed by IPv4 address as a
+ * primitive int, so lookups neither box nor allocate. Uses linear probing with
+ * backward shift deletion.
+ *
+ * Not thread safe.
+ */
+public class IPv4ConnectionTable {
+
+	private static final float MAX_LOAD = 0.5f;
+
+	private int[] keys;
+	private UDPDevice[] values;
+	private int mask;
+	private int size = 0;
+
+	public IPv4ConnectionTable(int initialCapacity) {
+		int capacity = Integer.highestOneBit(Math.max(initialCapacity, 8) - 1) << 1;
+		keys = new int[capacity];
+		values = new UDPDevice[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * @return index of the slot where the probe sequence of this address
+	 * starts, for a table of this capacity
+	 */
+	public static int homeSlot(int address, int capacity) {
+		return hash(address) & (capacity - 1);
+	}
+
+	private static int hash(int address) {
+		// Addresses on a LAN only differ in their low bits, spread them
+		int h = address * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	public UDPDevice get(int address) {
+		int index = hash(address) & mask;
+		UDPDevice value;
+		while ((value = values[index]) != null) {
+			if (keys[index] == address)
+				return value;
+			index = (index + 1) & mask;
+		}
+		return null;
+	}
+
+	public void put(int address, UDPDevice connection) {
+		int index = hash(address) & mask;
+		while (values[index] != null) {
+			if (keys[index] == address) {
+				values[index] = connection;
+				return;
+			}
+			index = (index + 1) & mask;
+		}
+		keys[index] = address;
+		values[index] = connection;
+		if (++size > values.length * MAX_LOAD)
+			resize();
+	}
+
+	public void remove(int address) {
+		int index = hash(address) & mask;
+		while (values[index] != null) {
+			if (keys[index] == address) {
+				shiftBack(index);
+				size--;
+				return;
+			}
+			index = (index + 1) & mask;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return number of slots, grows to keep at most half of them used
+	 */
+	public int getCapacity() {
+		return values.length;
+	}
+
+	/**
+	 * Fills the hole left at this index by moving back the following entries
+	 * of the probe sequence that can't be reached anymore
+	 */
+	private void shiftBack(int hole) {
+		int index = hole;
+		while (true) {
+			index = (index + 1) & mask;
+			if (values[index] == null)
+				break;
+			int home = hash(keys[index]) & mask;
+			// Move the entry if its home slot isn't between the hole and it
+			if (((index - home) & mask) >= ((index - hole) & mask)) {
+				keys[hole] = keys[index];
+				values[hole] = values[index];
+				hole = index;
+			}
+		}
+		values[hole] = null;
+	}
+
+	private void resize() {
+		int[] oldKeys = keys;
+		UDPDevice[] oldValues = values;
+		keys = new int[oldKeys.length * 2];
+		values = new UDPDevice[oldValues.length * 2];
+		mask = values.length - 1;
+		size = 0;
+		for (int i = 0; i < oldValues.length; ++i) {
+			if (oldValues[i] != null)
+				put(oldKeys[i], oldValues[i]);
+		}
+	}
+}
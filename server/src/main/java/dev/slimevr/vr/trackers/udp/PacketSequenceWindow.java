@@ -0,0 +1,97 @@
+package dev.slimevr.vr.trackers.udp;
+
+/**
+ * Classifies the packet numbers received from a device against a sliding
+ * window of the last {@link #WINDOW_SIZE} numbers, without allocating or
+ * throwing.
+ *
+ * Packets newer than the newest one received so far are accepted, reporting
+ * how many numbers were skipped. Older ones are rejected as either late (never
+ * seen before) or duplicate. Packet number 0 is always accepted and restarts
+ * the sequence, firmware sends it after a reboot or when it doesn't number its
+ * packets.
+ *
+ * Must be used by the thread processing the device's packets only.
+ */
+public class PacketSequenceWindow {
+
+	/**
+	 * Next packet, first packet or restart of the sequence
+	 */
+	public static final int NEXT = 0;
+	/**
+	 * Newer than expected, the packets in between are missing so far
+	 */
+	public static final int GAP = 1;
+	/**
+	 * Older than the newest packet and not received before
+	 */
+	public static final int LATE = 2;
+	/**
+	 * Already received
+	 */
+	public static final int DUPLICATE = 3;
+
+	public static final int WINDOW_SIZE = 64;
+
+	private long newest = -1;
+	/**
+	 * Bit n is set if packet number newest - n was received
+	 */
+	private long received = 0;
+	private long lastGap = 0;
+
+	/**
+	 * Records a packet number and classifies it. Only {@link #NEXT} and
+	 * {@link #GAP} packets should be processed.
+	 */
+	public int accept(long packetNumber) {
+		if (packetNumber == 0 || newest < 0) {
+			newest = packetNumber;
+			received = 1;
+			return NEXT;
+		}
+		if (packetNumber > newest) {
+			long distance = packetNumber - newest;
+			received = distance >= WINDOW_SIZE ? 1 : (received << distance) | 1;
+			newest = packetNumber;
+			if (distance == 1)
+				return NEXT;
+			lastGap = distance - 1;
+			return GAP;
+		}
+		long distance = newest - packetNumber;
+		if (distance >= WINDOW_SIZE) {
+			// Too old to know, but can't be processed anyway
+			return LATE;
+		}
+		long bit = 1L << distance;
+		if ((received & bit) != 0)
+			return DUPLICATE;
+		received |= bit;
+		return LATE;
+	}
+
+	/**
+	 * @return number of packets skipped by the last {@link #GAP}
+	 */
+	public long getLastGap() {
+		return lastGap;
+	}
+
+	/**
+	 * Restarts the sequence, the next packet number is accepted whatever it
+	 * is
+	 */
+	public void reset() {
+		newest = -1;
+		received = 0;
+	}
+
+	/**
+	 * @return newest packet number received, -1 if none yet
+	 */
+	public long getNewest() {
+		return newest;
+	}
+}
@@ -0,0 +1,41 @@
+package dev.slimevr.vr.trackers.udp;
+
+/**
+ * Token bucket per source address for datagrams from sources that aren't
+ * registered devices, so a single source can't flood the parser.
+ *
+ * Sources are keyed by the hash code of their address, the address itself for
+ * IPv4, in a fixed size table of buckets: sources hashed to the same slot share
+ * its budget. Memory stays bounded however many sources there are, and a flood
+ * rotating through many addresses is limited by the total rate of the table
+ * rather than getting a fresh bucket for every address.
+ *
+ * Not thread safe, owned by an ingest worker.
+ */
+public class SourceRateLimiter {
+
+	private final TokenBucket[] buckets;
+	private final int mask;
+
+	/**
+	 * @param slots number of buckets, rounded up to a power of two
+	 * @param ratePerSecond datagrams accepted per second from each slot
+	 * @param burst datagrams accepted at once from each slot
+	 */
+	public SourceRateLimiter(int slots, double ratePerSecond, int burst) {
+		int size = Integer.highestOneBit(Math.max(slots, 2) - 1) << 1;
+		buckets = new TokenBucket[size];
+		mask = size - 1;
+		for (int i = 0; i < size; ++i) {
+			buckets[i] = new TokenBucket(ratePerSecond, burst);
+		}
+	}
+
+	/**
+	 * @return true if the datagram is accepted
+	 */
+	public boolean tryAcquire(int source, long nowNanos) {
+		int h = source * 0x9E3779B9;
+		return buckets[(h ^ (h >>> 16)) & mask].tryAcquire(nowNanos);
+	}
+}
@@ -0,0 +1,45 @@
+package dev.slimevr.vr.trackers.udp;
+
+/**
+ * Token bucket rate limiter refilled from the caller's clock, without
+ * allocation or locking. Not thread safe.
+ */
+public class TokenBucket {
+
+	private final long nanosPerToken;
+	private final long capacityNanos;
+	/**
+	 * Available tokens, as time worth of refill
+	 */
+	private long availableNanos;
+	private long lastRefill;
+	private boolean started = false;
+
+	/**
+	 * @param ratePerSecond tokens refilled per second
+	 * @param burst tokens available at once, the bucket starts full
+	 */
+	public TokenBucket(double ratePerSecond, int burst) {
+		nanosPerToken = Math.max((long) (1_000_000_000L / ratePerSecond), 1);
+		capacityNanos = nanosPerToken * Math.max(burst, 1);
+		availableNanos = capacityNanos;
+	}
+
+	/**
+	 * @return true if a token was taken, false if the bucket is empty
+	 */
+	public boolean tryAcquire(long nowNanos) {
+		if (started) {
+			long elapsed = nowNanos - lastRefill;
+			if (elapsed > 0)
+				availableNanos = Math.min(capacityNanos, availableNanos + elapsed);
+		} else {
+			started = true;
+		}
+		lastRefill = nowNanos;
+		if (availableNanos < nanosPerToken)
+			return false;
+		availableNanos -= nanosPerToken;
+		return true;
+	}
+}
@@ -0,0 +1,313 @@
+package dev.slimevr.vr.trackers.udp;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import io.eiren.util.logging.LogManager;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Emulates a fleet of SlimeVR firmware devices over loopback UDP to load test
+ * {@link TrackersUDPServer} and the server tick.
+ *
+ * Every device does the handshake, reports its sensors and then streams
+ * rotation and acceleration at a fixed rate with synthetic motion, battery
+ * level every second, and answers the server pings. Devices follow the send
+ * rates requested by the server with {@link UDPPacket22RateControl}, without
+ * going above the configured rate. The server tells devices
+ * apart by their IP address, so each one binds its own address in 127.0.0.0/8
+ * (available on Linux and Windows, but not by default on macOS).
+ */
+public class TrackerFleetSimulator extends Thread {
+
+	private static final int FIRMWARE_BUILD = 17;
+	private static final String FIRMWARE_VERSION = "simulated";
+	private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+	private static final long BATTERY_NANOS = TimeUnit.SECONDS.toNanos(1);
+	private static final long REPORT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+	private final InetSocketAddress server;
+	private final VirtualDevice[] devices;
+	private final int sensorsPerDevice;
+	private final long intervalNanos;
+	private final ByteBuffer sendBuffer = ByteBuffer
+		.allocateDirect(512)
+		.order(ByteOrder.BIG_ENDIAN);
+	private final ByteBuffer receiveBuffer = ByteBuffer
+		.allocateDirect(512)
+		.order(ByteOrder.BIG_ENDIAN);
+	private final Quaternion rotation = new Quaternion();
+	private long sentPackets = 0;
+	private long pongs = 0;
+
+	/**
+	 * @param rate rotation and acceleration packets sent per second by each
+	 * sensor
+	 */
+	public TrackerFleetSimulator(
+		InetSocketAddress server,
+		int deviceCount,
+		int sensorsPerDevice,
+		float rate
+	) {
+		super("Tracker fleet simulator");
+		setDaemon(true);
+		this.server = server;
+		this.devices = new VirtualDevice[deviceCount];
+		this.sensorsPerDevice = Math.max(sensorsPerDevice, 1);
+		this.intervalNanos = (long) (1_000_000_000L / Math.max(rate, 1f));
+	}
+
+	@Override
+	public void run() {
+		try {
+			for (int i = 0; i < devices.length; ++i) {
+				devices[i] = new VirtualDevice(i + 1);
+			}
+			LogManager
+				.info(
+					"[Simulator] Simulating "
+						+ devices.length
+						+ " devices with "
+						+ sensorsPerDevice
+						+ " sensors at "
+						+ 1_000_000_000L / intervalNanos
+						+ " Hz against "
+						+ server
+				);
+			long start = System.nanoTime();
+			long nextReport = start + REPORT_NANOS;
+			long lastSent = 0;
+			while (!isInterrupted()) {
+				long now = System.nanoTime();
+				long nextDeadline = now + intervalNanos;
+				for (VirtualDevice device : devices) {
+					receive(device, now);
+					nextDeadline = Math.min(nextDeadline, device.update(now, start));
+				}
+				if (now >= nextReport) {
+					int connected = 0;
+					for (VirtualDevice device : devices) {
+						if (device.sensorsAcked == sensorsPerDevice)
+							connected++;
+					}
+					LogManager
+						.info(
+							"[Simulator] "
+								+ connected
+								+ "/"
+								+ devices.length
+								+ " devices set up, "
+								+ (sentPackets - lastSent) * 1_000_000_000L / REPORT_NANOS
+								+ " packets/s sent, "
+								+ pongs
+								+ " pings answered"
+						);
+					lastSent = sentPackets;
+					nextReport += REPORT_NANOS;
+				}
+				long wait = nextDeadline - System.nanoTime();
+				if (wait > 0)
+					LockSupport.parkNanos(this, wait);
+			}
+		} catch (IOException e) {
+			LogManager.severe("[Simulator] Simulator stopped", e);
+		} finally {
+			for (VirtualDevice device : devices) {
+				if (device != null) {
+					try {
+						device.channel.close();
+					} catch (IOException ignored) {}
+				}
+			}
+		}
+	}
+
+	private void receive(VirtualDevice device, long now) throws IOException {
+		while (true) {
+			receiveBuffer.clear();
+			if (device.channel.receive(receiveBuffer) == null)
+				return;
+			receiveBuffer.flip();
+			if (receiveBuffer.remaining() < 4)
+				continue;
+			if (receiveBuffer.get(0) == UDPProtocolParser.PACKET_HANDSHAKE) {
+				// Handshake response has a single byte packet id
+				device.handshakeDone = true;
+				device.nextHandshake = now;
+				continue;
+			}
+			int packetId = receiveBuffer.getInt();
+			switch (packetId) {
+				case UDPProtocolParser.PACKET_PING_PONG -> {
+					receiveBuffer.getLong();
+					int pingId = receiveBuffer.getInt();
+					startPacket(device, UDPProtocolParser.PACKET_PING_PONG);
+					sendBuffer.putInt(pingId);
+					send(device);
+					pongs++;
+				}
+				case UDPProtocolParser.PACKET_SENSOR_INFO -> {
+					int sensorId = receiveBuffer.get() & 0xFF;
+					device.sensorsAcked = Math.max(device.sensorsAcked, sensorId + 1);
+				}
+				case UDPProtocolParser.PACKET_RATE_CONTROL -> {
+					receiveBuffer.getLong();
+					int rate = receiveBuffer.getShort() & 0xFFFF;
+					device.motionIntervalNanos = rate == 0
+						? intervalNanos
+						: Math.max(1_000_000_000L / rate, intervalNanos);
+				}
+				default -> {
+				}
+			}
+		}
+	}
+
+	private void startPacket(VirtualDevice device, int packetId) {
+		sendBuffer.clear();
+		sendBuffer.putInt(packetId);
+		sendBuffer.putLong(++device.packetNumber);
+	}
+
+	private void send(VirtualDevice device) throws IOException {
+		sendBuffer.flip();
+		device.channel.send(sendBuffer, server);
+		sentPackets++;
+	}
+
+	private void sendHandshake(VirtualDevice device) throws IOException {
+		startPacket(device, UDPProtocolParser.PACKET_HANDSHAKE);
+		sendBuffer.putInt(0); // Board type
+		sendBuffer.putInt(0); // IMU type
+		sendBuffer.putInt(0); // MCU type
+		sendBuffer.putInt(0); // IMU info
+		sendBuffer.putInt(0);
+		sendBuffer.putInt(0);
+		sendBuffer.putInt(FIRMWARE_BUILD);
+		byte[] firmware = FIRMWARE_VERSION.getBytes(StandardCharsets.US_ASCII);
+		sendBuffer.put((byte) firmware.length);
+		sendBuffer.put(firmware);
+		// Locally administered MAC built from the device index
+		sendBuffer.put((byte) 0x02);
+		sendBuffer.put((byte) 0x53);
+		sendBuffer.putInt(device.index);
+		sendBuffer.putInt(UDPProtocolParser.FIRMWARE_FEATURE_RATE_CONTROL);
+		send(device);
+	}
+
+	private void sendSensorInfo(VirtualDevice device, int sensorId) throws IOException {
+		startPacket(device, UDPProtocolParser.PACKET_SENSOR_INFO);
+		sendBuffer.put((byte) sensorId);
+		sendBuffer.put((byte) 1); // OK
+		sendBuffer.put((byte) 0); // Sensor type
+		send(device);
+	}
+
+	private void sendMotion(VirtualDevice device, int sensorId, float t) throws IOException {
+		float phase = device.index * 0.37f + sensorId;
+		rotation
+			.fromAngles(
+				FastMath.sin(t * 1.3f + phase) * 0.3f,
+				FastMath.sin(t * 0.5f + phase) * FastMath.HALF_PI,
+				FastMath.sin(t * 0.9f + phase) * 0.2f
+			);
+		startPacket(device, UDPProtocolParser.PACKET_ROTATION_DATA);
+		sendBuffer.put((byte) sensorId);
+		sendBuffer.put((byte) UDPPacket17RotationData.DATA_TYPE_NORMAL);
+		sendBuffer.putFloat(rotation.getX());
+		sendBuffer.putFloat(rotation.getY());
+		sendBuffer.putFloat(rotation.getZ());
+		sendBuffer.putFloat(rotation.getW());
+		sendBuffer.put((byte) 0); // Calibration info
+		send(device);
+
+		startPacket(device, UDPProtocolParser.PACKET_ACCEL);
+		sendBuffer.putFloat(FastMath.sin(t * 2.1f + phase) * 0.5f);
+		sendBuffer.putFloat(FastMath.sin(t * 1.7f + phase) * 0.5f);
+		sendBuffer.putFloat(FastMath.sin(t * 2.9f + phase) * 0.5f);
+		sendBuffer.put((byte) sensorId);
+		send(device);
+	}
+
+	private void sendBattery(VirtualDevice device, float t) throws IOException {
+		startPacket(device, UDPProtocolParser.PACKET_BATTERY_LEVEL);
+		float level = 1f - (t / 3600f) % 1f;
+		sendBuffer.putFloat(3.2f + level);
+		sendBuffer.putFloat(level);
+		send(device);
+	}
+
+	private class VirtualDevice {
+
+		final int index;
+		final DatagramChannel channel;
+		long packetNumber = 0;
+		boolean handshakeDone = false;
+		int sensorsAcked = 0;
+		long nextHandshake = 0;
+		long nextMotion = 0;
+		long nextBattery = 0;
+		long motionIntervalNanos;
+
+		VirtualDevice(int index) throws IOException {
+			this.index = index;
+			this.motionIntervalNanos = intervalNanos;
+			InetAddress address = InetAddress
+				.getByAddress(
+					new byte[] {
+						127,
+						(byte) (1 + (index >> 16)),
+						(byte) (index >> 8),
+						(byte) index
+					}
+				);
+			channel = DatagramChannel.open();
+			channel.bind(new InetSocketAddress(address, 0));
+			channel.configureBlocking(false);
+		}
+
+		/**
+		 * Sends whatever is due
+		 *
+		 * @return time at which the next packet is due
+		 */
+		long update(long now, long start) throws IOException {
+			if (!handshakeDone || sensorsAcked < sensorsPerDevice) {
+				if (now >= nextHandshake) {
+					if (!handshakeDone) {
+						sendHandshake(this);
+					} else {
+						for (int i = sensorsAcked; i < sensorsPerDevice; ++i) {
+							sendSensorInfo(this, i);
+						}
+					}
+					nextHandshake = now + RETRY_NANOS;
+				}
+				return nextHandshake;
+			}
+			float t = (now - start) / 1e9f;
+			if (now >= nextMotion) {
+				for (int i = 0; i < sensorsPerDevice; ++i) {
+					sendMotion(this, i, t);
+				}
+				// Keep a fixed rate, but don't try to catch up after a stall
+				nextMotion = Math.max(nextMotion + motionIntervalNanos, now);
+			}
+			if (now >= nextBattery) {
+				sendBattery(this, t);
+				nextBattery = now + BATTERY_NANOS;
+			}
+			return Math.min(nextMotion, nextBattery);
+		}
+	}
+}
@@ -5,8 +5,11 @@ import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 import dev.slimevr.Main;
 import dev.slimevr.NetworkProtocol;
+import dev.slimevr.util.Clock;
+import dev.slimevr.util.TickScheduler;
 import dev.slimevr.vr.trackers.IMUTracker;
 import dev.slimevr.vr.trackers.Tracker;
+import dev.slimevr.vr.trackers.TrackerRegistry;
 import dev.slimevr.vr.trackers.TrackerStatus;
 import io.eiren.util.Util;
 import io.eiren.util.collections.FastList;
@@ -17,12 +20,41 @@ import java.io.IOException;
 import java.net.*;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 
 /**
  * Receives trackers data by UDP using extended owoTrack protocol.
+ *
+ * <p>
+ * Two ingest modes are available. The default one is built on a non-blocking
+ * {@link DatagramChannel} with a direct buffer and a {@link Selector}, and
+ * doesn't allocate per received or sent datagram. The legacy one loops on a
+ * blocking {@link DatagramSocket} and is kept as a fallback.
+ * </p>
+ * <p>
+ * Parsing and processing can be sharded over several {@link UDPIngestWorker}
+ * threads. Datagrams are dispatched by hashing their source address, so every
+ * connection is owned by a single worker.
+ * </p>
+ * <p>
+ * Heartbeats, pings, timeouts and discovery broadcasts are handled apart from
+ * the receive path by a {@link UDPHousekeeper} thread. Handshakes and sensor
+ * infos are acknowledged right away, and devices and trackers are set up by a
+ * {@link UDPRegistrar} thread.
+ * </p>
+ * <p>
+ * Received datagrams can be captured to a file with
+ * {@link #setCaptureFile(Path)}, and a capture can be replayed instead of
+ * listening with {@link #setReplay(Path, double)}.
+ * </p>
  */
 public class TrackersUDPServer extends Thread {
 	/**
@@ -30,26 +62,124 @@ public class TrackersUDPServer extends Thread {
 	 */
 	private static final Quaternion offset = new Quaternion()
 		.fromAngleAxis(-FastMath.HALF_PI, Vector3f.UNIT_X);
+	/**
+	 * Upper bound of datagrams drained after a single selector wake-up
+	 */
+	private static final int MAX_DATAGRAMS_PER_SELECT = 64;
+	/**
+	 * Datagrams each worker can hold before the receive thread drops them
+	 */
+	private static final int WORKER_QUEUE_CAPACITY = 512;
+	/**
+	 * Handshakes accepted from a known device or MAC address, a device
+	 * rebooting does a few of them while a loop or duplicate MAC addresses
+	 * fighting for a connection keep going
+	 */
+	private static final double DEVICE_HANDSHAKES_PER_SECOND = 1;
+	private static final int DEVICE_HANDSHAKE_BURST = 5;
+	/**
+	 * Datagrams accepted from each source that isn't a registered device,
+	 * which only sends handshakes until it's registered
+	 */
+	private static final double UNKNOWN_SOURCE_DATAGRAMS_PER_SECOND = 10;
+	private static final int UNKNOWN_SOURCE_BURST = 20;
+	private static final int UNKNOWN_SOURCE_SLOTS = 256;
+	private static final long PARSE_ERROR_LOG_INTERVAL_NANOS = 10_000_000_000L;
 
-	private final Quaternion buf = new Quaternion();
-	private final Random random = new Random();
 	private final List<UDPDevice> connections = new FastList<>();
+	/**
+	 * Registered connections by MAC address, written under the connections
+	 * lock and read by the ingest workers without locking
+	 */
+	private final Map<String, UDPDevice> connectionsByMAC = new ConcurrentHashMap<>();
+	/**
+	 * Registered connections by their current address, registrar thread only
+	 */
 	private final Map<InetAddress, UDPDevice> connectionsByAddress = new HashMap<>();
-	private final Map<String, UDPDevice> connectionsByMAC = new HashMap<>();
+	private final Object registrationLock = new Object();
 	private final Consumer<Tracker> trackersConsumer;
 	private final int port;
 	private final ArrayList<SocketAddress> broadcastAddresses = new ArrayList<>();
-	private final UDPProtocolParser parser = new UDPProtocolParser();
-	private final byte[] rcvBuffer = new byte[512];
-	private final ByteBuffer bb = ByteBuffer.wrap(rcvBuffer).order(ByteOrder.BIG_ENDIAN);
+	private final boolean useChannel;
+	private final UDPIngestWorker[] workers;
+	private final UDPHousekeeper housekeeper;
+	private final UDPRegistrar registrar;
+	private final byte[] rcvBuffer;
+	private final ByteBuffer bb;
 
 	protected DatagramSocket socket = null;
-	protected long lastKeepup = System.currentTimeMillis();
+	protected DatagramChannel channel = null;
+	protected Selector selector = null;
+	private Path captureFile = null;
+	/**
+	 * Written by the receive thread, flushed by the housekeeper and closed on
+	 * shutdown
+	 */
+	private volatile UDPCaptureWriter capture = null;
+	private Path replayFile = null;
+	private double replaySpeed = 1;
+	private int packetRateLimit = 2000;
+	private boolean rateControl = true;
+	private TickScheduler rateControlTick = null;
+	private IntConsumer dataListener = null;
 
 	public TrackersUDPServer(int port, String name, Consumer<Tracker> trackersConsumer) {
+		this(port, name, trackersConsumer, true);
+	}
+
+	/**
+	 * @param useChannel if true, use the non-blocking {@link DatagramChannel}
+	 * ingest, otherwise use the legacy blocking {@link DatagramSocket} loop
+	 */
+	public TrackersUDPServer(
+		int port,
+		String name,
+		Consumer<Tracker> trackersConsumer,
+		boolean useChannel
+	) {
+		this(port, name, trackersConsumer, useChannel, 1);
+	}
+
+	/**
+	 * @param useChannel if true, use the non-blocking {@link DatagramChannel}
+	 * ingest, otherwise use the legacy blocking {@link DatagramSocket} loop
+	 * @param workerCount number of threads parsing and processing packets. With
+	 * a single worker everything runs on the receive thread.
+	 */
+	public TrackersUDPServer(
+		int port,
+		String name,
+		Consumer<Tracker> trackersConsumer,
+		boolean useChannel,
+		int workerCount
+	) {
 		super(name);
 		this.port = port;
 		this.trackersConsumer = trackersConsumer;
+		this.useChannel = useChannel;
+		if (useChannel) {
+			// The channel reads and writes straight from native memory
+			rcvBuffer = null;
+			bb = ByteBuffer.allocateDirect(512).order(ByteOrder.BIG_ENDIAN);
+		} else {
+			rcvBuffer = new byte[512];
+			bb = ByteBuffer.wrap(rcvBuffer).order(ByteOrder.BIG_ENDIAN);
+		}
+		workers = new UDPIngestWorker[Math.max(workerCount, 1)];
+		for (int i = 0; i < workers.length; ++i) {
+			workers[i] = new UDPIngestWorker(
+				this,
+				name + " worker " + i,
+				useChannel,
+				WORKER_QUEUE_CAPACITY
+			);
+			workers[i].unknownSourceLimiter = new SourceRateLimiter(
+				UNKNOWN_SOURCE_SLOTS,
+				UNKNOWN_SOURCE_DATAGRAMS_PER_SECOND,
+				UNKNOWN_SOURCE_BURST
+			);
+		}
+		setRateLimits(packetRateLimit, 20);
 		try {
 			Enumeration<NetworkInterface> ifaces = NetworkInterface.getNetworkInterfaces();
 			while (ifaces.hasMoreElements()) {
@@ -89,43 +219,71 @@ public class TrackersUDPServer extends Thread {
 		} catch (Exception e) {
 			LogManager.severe("[TrackerServer] Can't enumerate network interfaces", e);
 		}
+		housekeeper = new UDPHousekeeper(
+			this,
+			name + " housekeeper",
+			useChannel,
+			broadcastAddresses,
+			registrationLock
+		);
+		registrar = new UDPRegistrar(name + " registrar", registrationLock);
 	}
 
-	private static String packetToString(DatagramPacket packet) {
+	private static String packetToString(SocketAddress source, ByteBuffer buf) {
 		StringBuilder sb = new StringBuilder();
 		sb.append("DatagramPacket{");
-		if (packet == null) {
+		if (source == null) {
 			sb.append("null");
 		} else {
-			sb.append(packet.getAddress().toString());
-			sb.append(packet.getPort());
+			sb.append(source);
 			sb.append(',');
-			sb.append(packet.getLength());
+			sb.append(buf.limit());
 			sb.append(',');
-			sb.append(ArrayUtils.toString(packet.getData()));
+			byte[] data = new byte[buf.limit()];
+			buf.get(0, data);
+			sb.append(ArrayUtils.toString(data));
 		}
 		sb.append('}');
 		return sb.toString();
 	}
 
-	private void setUpNewConnection(DatagramPacket handshakePacket, UDPPacket3Handshake handshake)
+	/**
+	 * Registers the device behind a handshake from an address unknown to its
+	 * worker, or hands its MAC address over from a previous address, then
+	 * publishes it to the worker. Runs on the registrar thread.
+	 */
+	private void setUpNewConnection(
+		UDPIngestWorker worker,
+		InetSocketAddress handshakeAddress,
+		UDPPacket3Handshake handshake
+	)
 		throws IOException {
 		LogManager
 			.info(
 				"[TrackerServer] Handshake received from "
-					+ handshakePacket.getAddress()
+					+ handshakeAddress.getAddress()
 					+ ":"
-					+ handshakePacket.getPort()
+					+ handshakeAddress.getPort()
+			);
+		InetAddress addr = handshakeAddress.getAddress();
+		UDPDevice connection = connectionsByAddress.get(addr);
+		boolean handedOver = false;
+		if (connection == null || !addr.equals(connection.ipAddress)) {
+			connection = new UDPDevice(handshakeAddress, addr);
+			if (packetRateLimit > 0) {
+				// Allow bursts of half a second
+				connection.packetLimiter = new TokenBucket(
+					packetRateLimit,
+					Math.max(packetRateLimit / 2, 1)
+				);
+			}
+			connection.handshakeLimiter = new TokenBucket(
+				DEVICE_HANDSHAKES_PER_SECOND,
+				DEVICE_HANDSHAKE_BURST
 			);
-		InetAddress addr = handshakePacket.getAddress();
-		UDPDevice connection;
-		synchronized (connections) {
-			connection = connectionsByAddress.get(addr);
-		}
-		if (connection == null) {
-			connection = new UDPDevice(handshakePacket.getSocketAddress(), addr);
 			Main.getVrServer().getDeviceManager().addDevice(connection);
 			connection.firmwareBuild = handshake.firmwareBuild;
+			connection.firmwareFeatures = handshake.firmwareFeatures;
 			if (handshake.firmware == null || handshake.firmware.length() == 0) {
 				// Only old owoTrack doesn't report firmware and have different
 				// packet IDs with
@@ -137,8 +295,8 @@ public class TrackersUDPServer extends Thread {
 			connection.name = handshake.macString != null
 				? "udp://" + handshake.macString
 				: "udp:/"
-					+ handshakePacket.getAddress().toString();
-			connection.descriptiveName = "udp:/" + handshakePacket.getAddress().toString();
+					+ handshakeAddress.getAddress().toString();
+			connection.descriptiveName = "udp:/" + handshakeAddress.getAddress().toString();
 			int i = 0;
 			synchronized (connections) {
 				if (
@@ -146,19 +304,23 @@ public class TrackersUDPServer extends Thread {
 				) {
 					UDPDevice previousConnection = connectionsByMAC.get(handshake.macString);
 					i = connections.indexOf(previousConnection);
+					// The worker owning the previous address will drop it on
+					// its next lookup since the address changed
 					connectionsByAddress.remove(previousConnection.ipAddress);
-					previousConnection.lastPacketNumber = 0;
+					handedOver = true;
 					previousConnection.ipAddress = addr;
-					previousConnection.address = handshakePacket.getSocketAddress();
+					previousConnection.address = handshakeAddress;
 					previousConnection.name = connection.name;
 					previousConnection.descriptiveName = connection.descriptiveName;
+					previousConnection.firmwareFeatures = connection.firmwareFeatures;
 					connectionsByAddress.put(addr, previousConnection);
+					connection = previousConnection;
 					LogManager
 						.info(
 							"[TrackerServer] Tracker "
 								+ i
 								+ " handed over to address "
-								+ handshakePacket.getSocketAddress()
+								+ handshakeAddress
 								+ ". Board type: "
 								+ handshake.boardType
 								+ ", imu type: "
@@ -166,7 +328,7 @@ public class TrackersUDPServer extends Thread {
 								+ ", firmware: "
 								+ handshake.firmware
 								+ " ("
-								+ connection.firmwareBuild
+								+ handshake.firmwareBuild
 								+ "), mac: "
 								+ handshake.macString
 								+ ", name: "
@@ -176,6 +338,7 @@ public class TrackersUDPServer extends Thread {
 					i = connections.size();
 					connections.add(connection);
 					connectionsByAddress.put(addr, connection);
+					housekeeper.register(connection);
 					if (handshake.macString != null) {
 						connectionsByMAC.put(handshake.macString, connection);
 					}
@@ -184,7 +347,7 @@ public class TrackersUDPServer extends Thread {
 							"[TrackerServer] Tracker "
 								+ i
 								+ " added with address "
-								+ handshakePacket.getSocketAddress()
+								+ handshakeAddress
 								+ ". Board type: "
 								+ handshake.boardType
 								+ ", imu type: "
@@ -208,12 +371,48 @@ public class TrackersUDPServer extends Thread {
 				setUpSensor(connection, 0, handshake.imuType, 1);
 			}
 		}
-		bb.limit(bb.capacity());
-		bb.rewind();
-		parser.writeHandshakeResponse(bb, connection);
-		socket.send(new DatagramPacket(rcvBuffer, bb.position(), connection.address));
+		// Also published again if the handshake was repeated before the
+		// worker took it
+		worker.publishConnection(connection, handedOver);
+	}
+
+	/**
+	 * Handshakes set up a whole device, so they're rate limited by device, or
+	 * by MAC address if it's known from another address, and over all unknown
+	 * sources. The limiters are owned by the worker, so this never waits for
+	 * a registration. Not limited when replaying a capture.
+	 */
+	private boolean allowHandshake(
+		UDPIngestWorker worker,
+		UDPPacket3Handshake handshake,
+		UDPDevice connection
+	) {
+		if (replayFile != null)
+			return true;
+		TokenBucket limiter;
+		if (connection != null) {
+			limiter = connection.handshakeLimiter;
+		} else if (
+			handshake.macString != null && connectionsByMAC.containsKey(handshake.macString)
+		) {
+			limiter = worker.macHandshakeLimiters
+				.computeIfAbsent(
+					handshake.macString,
+					mac -> new TokenBucket(DEVICE_HANDSHAKES_PER_SECOND, DEVICE_HANDSHAKE_BURST)
+				);
+		} else {
+			limiter = worker.unknownHandshakeLimiter;
+		}
+		if (limiter == null || limiter.tryAcquire(Clock.nanoTime()))
+			return true;
+		worker.rateLimitedHandshakes++;
+		return false;
 	}
 
+	/**
+	 * Creates and registers the tracker of a sensor if it doesn't exist yet,
+	 * and updates its status. Runs on the registrar thread.
+	 */
 	private void setUpSensor(UDPDevice connection, int trackerId, int sensorType, int sensorStatus)
 		throws IOException {
 		LogManager
@@ -237,7 +436,7 @@ public class TrackersUDPServer extends Thread {
 				Main.getVrServer()
 			);
 
-			connection.getTrackers().put(trackerId, imu);
+			connection.addTracker(trackerId, imu);
 			trackersConsumer.accept(imu);
 			LogManager
 				.info(
@@ -254,128 +453,409 @@ public class TrackersUDPServer extends Thread {
 			imu.setStatus(status);
 	}
 
+	/**
+	 * Sets the limits protecting the server from flooding devices. Must be
+	 * called before the server is started.
+	 *
+	 * @param packetsPerSecond datagrams accepted per second from each device,
+	 * the excess is dropped before parsing. 0 to disable.
+	 * @param handshakesPerSecond handshakes accepted per second from unknown
+	 * sources all together, shared between the ingest workers. 0 to disable.
+	 */
+	public void setRateLimits(int packetsPerSecond, int handshakesPerSecond) {
+		this.packetRateLimit = packetsPerSecond;
+		for (UDPIngestWorker worker : workers) {
+			worker.unknownHandshakeLimiter = handshakesPerSecond > 0
+				? new TokenBucket(
+					(double) handshakesPerSecond / workers.length,
+					Math.max(handshakesPerSecond / workers.length, 1)
+				)
+				: null;
+		}
+	}
+
+	/**
+	 * Sets a listener called from the ingest threads every time tracker data
+	 * was received, with the performer wearing the device. Must be called
+	 * before the server is started.
+	 */
+	public void setDataListener(IntConsumer dataListener) {
+		this.dataListener = dataListener;
+	}
+
+	/**
+	 * Enables asking devices to lower their send rate when the server or the
+	 * network can't keep up. Must be called before the server is started.
+	 *
+	 * @param serverTick tick consuming the samples, its overruns count as the
+	 * server being overloaded. Null if unknown.
+	 */
+	public void setRateControl(boolean enabled, TickScheduler serverTick) {
+		this.rateControl = enabled;
+		this.rateControlTick = serverTick;
+	}
+
+	boolean isRateControlEnabled() {
+		return rateControl;
+	}
+
+	TickScheduler getRateControlTick() {
+		return rateControlTick;
+	}
+
+	/**
+	 * Captures every received datagram to a file. Must be called before the
+	 * server is started.
+	 */
+	public void setCaptureFile(Path captureFile) {
+		this.captureFile = captureFile;
+	}
+
+	/**
+	 * Replays a capture instead of listening. Datagrams are processed on the
+	 * server thread by the worker owning their source, devices are registered
+	 * synchronously, and replies are dropped. Must be called before the server
+	 * is started.
+	 *
+	 * @param speed replay speed relative to the capture, 0 or less to replay
+	 * as fast as possible
+	 */
+	public void setReplay(Path replayFile, double speed) {
+		this.replayFile = replayFile;
+		this.replaySpeed = speed;
+	}
+
 	@Override
 	public void run() {
-		StringBuilder serialBuffer2 = new StringBuilder();
+		if (replayFile != null) {
+			runReplay();
+			return;
+		}
+		if (captureFile != null) {
+			try {
+				capture = new UDPCaptureWriter(captureFile);
+				LogManager.info("[TrackerServer] Capturing datagrams to " + captureFile);
+			} catch (IOException e) {
+				LogManager.severe("[TrackerServer] Can't open capture file " + captureFile, e);
+			}
+		}
+		if (workers.length > 1) {
+			for (UDPIngestWorker worker : workers) {
+				worker.start();
+			}
+		}
 		try {
-			socket = new DatagramSocket(port);
-
-			long prevPacketTime = System.currentTimeMillis();
-			socket.setSoTimeout(250);
-			while (true) {
-				DatagramPacket received = null;
-				try {
-					boolean hasActiveTrackers = false;
-					for (UDPDevice tracker : connections) {
-						if (tracker.getTrackers().size() > 0) {
-							hasActiveTrackers = true;
-							break;
-						}
-					}
-					if (!hasActiveTrackers) {
-						long discoveryPacketTime = System.currentTimeMillis();
-						if ((discoveryPacketTime - prevPacketTime) >= 2000) {
-							for (SocketAddress addr : broadcastAddresses) {
-								bb.limit(bb.capacity());
-								bb.rewind();
-								parser.write(bb, null, new UDPPacket0Heartbeat());
-								socket.send(new DatagramPacket(rcvBuffer, bb.position(), addr));
-							}
-							prevPacketTime = discoveryPacketTime;
-						}
-					}
+			if (useChannel) {
+				runChannel();
+			} else {
+				runSocket();
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			housekeeper.interrupt();
+			registrar.interrupt();
+			if (workers.length > 1) {
+				for (UDPIngestWorker worker : workers) {
+					worker.interrupt();
+				}
+			}
+			Util.close(selector, channel, socket);
+			closeCapture();
+		}
+	}
 
-					received = new DatagramPacket(rcvBuffer, rcvBuffer.length);
-					socket.receive(received);
-					bb.limit(received.getLength());
-					bb.rewind();
+	/**
+	 * Writes the buffered part of the capture to the file
+	 */
+	void flushCapture() {
+		UDPCaptureWriter capture = this.capture;
+		if (capture == null)
+			return;
+		try {
+			capture.flush();
+		} catch (IOException e) {
+			LogManager.severe("[TrackerServer] Error flushing capture, capture stopped", e);
+			this.capture = null;
+			Util.close(capture);
+		}
+	}
 
-					UDPDevice connection;
+	/**
+	 * Stops capturing datagrams and closes the capture file, for example when
+	 * the server shuts down. Can be called from any thread.
+	 */
+	public void closeCapture() {
+		UDPCaptureWriter capture = this.capture;
+		if (capture == null)
+			return;
+		this.capture = null;
+		Util.close(capture);
+		LogManager
+			.info(
+				"[TrackerServer] Captured "
+					+ capture.getDatagrams()
+					+ " datagrams to "
+					+ captureFile
+			);
+	}
 
-					synchronized (connections) {
-						connection = connectionsByAddress.get(received.getAddress());
-					}
-					UDPPacket packet = parser.parse(bb, connection);
-					if (packet != null) {
-						processPacket(received, packet, connection);
-					}
-				} catch (SocketTimeoutException ignored) {} catch (Exception e) {
-					LogManager
-						.warning(
-							"[TrackerServer] Error parsing packet " + packetToString(received),
-							e
-						);
+	private void runReplay() {
+		LogManager
+			.info(
+				"[TrackerServer] Replaying "
+					+ replayFile
+					+ (replaySpeed > 0 ? " at " + replaySpeed + "x" : " as fast as possible")
+			);
+		housekeeper.start();
+		// Registrations take effect before the next datagram, so replays
+		// don't depend on thread timing
+		registrar.setSynchronous(true);
+		try (UDPCaptureReader reader = new UDPCaptureReader(replayFile)) {
+			new UDPReplayDriver(reader, replaySpeed)
+				.run((source, datagram) -> onDatagram(getWorker(source), source, datagram));
+		} catch (IOException e) {
+			LogManager.severe("[TrackerServer] Error replaying " + replayFile, e);
+		} finally {
+			housekeeper.interrupt();
+		}
+	}
+
+	/**
+	 * Non-blocking ingest loop. Drains every pending datagram from the channel
+	 * into the direct receive buffer after each selector wake-up, without
+	 * allocating a packet object per datagram.
+	 */
+	private void runChannel() throws IOException {
+		channel = DatagramChannel.open();
+		channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+		channel.bind(new InetSocketAddress(port));
+		channel.configureBlocking(false);
+		selector = Selector.open();
+		channel.register(selector, SelectionKey.OP_READ);
+		housekeeper.start();
+		registrar.start();
+		while (!isInterrupted()) {
+			try {
+				if (selector.select(250) > 0) {
+					selector.selectedKeys().clear();
 				}
-				if (lastKeepup + 500 < System.currentTimeMillis()) {
-					lastKeepup = System.currentTimeMillis();
-					synchronized (connections) {
-						for (UDPDevice conn : connections) {
-							bb.limit(bb.capacity());
-							bb.rewind();
-							parser.write(bb, conn, new UDPPacket1Heartbeat());
-							socket.send(new DatagramPacket(rcvBuffer, bb.position(), conn.address));
-							if (conn.lastPacket + 1000 < System.currentTimeMillis()) {
-								for (Tracker value : conn.getTrackers().values()) {
-									IMUTracker tracker = (IMUTracker) value;
-									if (tracker.getStatus() == TrackerStatus.OK)
-										tracker.setStatus(TrackerStatus.DISCONNECTED);
-								}
-								if (!conn.timedOut) {
-									conn.timedOut = true;
-									LogManager.info("[TrackerServer] Tracker timed out: " + conn);
-								}
-							} else {
-								conn.timedOut = false;
-								for (Tracker value : conn.getTrackers().values()) {
-									IMUTracker tracker = (IMUTracker) value;
-									if (tracker.getStatus() == TrackerStatus.DISCONNECTED)
-										tracker.setStatus(TrackerStatus.OK);
-								}
-							}
-							if (conn.serialBuffer.length() > 0) {
-								if (conn.lastSerialUpdate + 500L < System.currentTimeMillis()) {
-									serialBuffer2
-										.append('[')
-										.append(conn.name)
-										.append("] ")
-										.append(conn.serialBuffer);
-									System.out.println(serialBuffer2);
-									serialBuffer2.setLength(0);
-									conn.serialBuffer.setLength(0);
-								}
-							}
-							if (conn.lastPingPacketTime + 500 < System.currentTimeMillis()) {
-								conn.lastPingPacketId = random.nextInt();
-								conn.lastPingPacketTime = System.currentTimeMillis();
-								bb.limit(bb.capacity());
-								bb.rewind();
-								bb.putInt(10);
-								bb.putLong(0);
-								bb.putInt(conn.lastPingPacketId);
-								socket
-									.send(
-										new DatagramPacket(rcvBuffer, bb.position(), conn.address)
-									);
-							}
-						}
-					}
+				// Check for interruption even if the datagrams keep coming
+				for (int i = 0; i < MAX_DATAGRAMS_PER_SELECT; ++i) {
+					bb.clear();
+					SocketAddress received = channel.receive(bb);
+					if (received == null)
+						break;
+					bb.flip();
+					dispatch((InetSocketAddress) received);
 				}
+			} catch (Exception e) {
+				LogManager.warning("[TrackerServer] Error receiving packet", e);
+			}
+		}
+	}
+
+	/**
+	 * Legacy blocking ingest loop on a {@link DatagramSocket}.
+	 */
+	private void runSocket() throws IOException {
+		socket = new DatagramSocket(port);
+		socket.setSoTimeout(250);
+		housekeeper.start();
+		registrar.start();
+		while (!isInterrupted()) {
+			try {
+				DatagramPacket received = new DatagramPacket(rcvBuffer, rcvBuffer.length);
+				socket.receive(received);
+				bb.limit(received.getLength());
+				bb.rewind();
+				dispatch((InetSocketAddress) received.getSocketAddress());
+			} catch (SocketTimeoutException ignored) {} catch (Exception e) {
+				LogManager.warning("[TrackerServer] Error receiving packet", e);
+			}
+		}
+	}
+
+	/**
+	 * Hands the datagram currently held in the receive buffer to the worker
+	 * owning its source address.
+	 */
+	private void dispatch(InetSocketAddress received) {
+		UDPCaptureWriter capture = this.capture;
+		if (capture != null) {
+			try {
+				capture.write(System.nanoTime(), received, bb);
+			} catch (IOException e) {
+				LogManager.severe("[TrackerServer] Error capturing datagram, capture stopped", e);
+				this.capture = null;
+				Util.close(capture);
+			}
+		}
+		if (workers.length == 1) {
+			onDatagram(workers[0], received, bb);
+			return;
+		}
+		getWorker(received).offer(received, bb);
+	}
+
+	private UDPIngestWorker getWorker(InetSocketAddress source) {
+		return workers[Math.floorMod(source.getAddress().hashCode(), workers.length)];
+	}
+
+	/**
+	 * Parses and processes a datagram on the thread of the worker owning its
+	 * source address.
+	 */
+	void onDatagram(UDPIngestWorker worker, InetSocketAddress received, ByteBuffer buf) {
+		try {
+			long now = Clock.nanoTime();
+			worker.takePublishedConnections();
+			UDPDevice connection = worker.getConnection(received.getAddress());
+			// Limits refill with the wall clock, a capture replayed faster
+			// than it was captured would be mostly dropped
+			boolean limited = replayFile == null;
+			if (connection != null) {
+				if (
+					limited
+						&& connection.packetLimiter != null
+						&& !connection.packetLimiter.tryAcquire(now)
+				) {
+					// Flooding, drop before doing anything else
+					connection.stats.onRateLimited();
+					return;
+				}
+				connection.stats.onDatagram(buf.remaining(), now);
+			} else if (
+				limited
+					&& !worker.unknownSourceLimiter
+						.tryAcquire(received.getAddress().hashCode(), now)
+			) {
+				worker.rateLimitedUnknownDatagrams++;
+				return;
+			}
+			UDPPacket packet = worker.parser.parse(buf, connection);
+			if (packet != null) {
+				processPacket(worker, received, packet, connection);
+				if (dataListener != null && connection != null && carriesSamples(packet))
+					dataListener.accept(getPerformer(connection));
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
-		} finally {
-			Util.close(socket);
+			logParseError(worker, received, buf, e);
+		}
+	}
+
+	/**
+	 * Logs a parse error with its datagram, at most once per interval per
+	 * worker so a source sending garbage doesn't flood the log
+	 */
+	private static void logParseError(
+		UDPIngestWorker worker,
+		InetSocketAddress received,
+		ByteBuffer buf,
+		Exception e
+	) {
+		long now = System.nanoTime();
+		if (
+			worker.lastParseErrorLog != 0
+				&& now - worker.lastParseErrorLog < PARSE_ERROR_LOG_INTERVAL_NANOS
+		) {
+			worker.parseErrorsNotLogged++;
+			return;
+		}
+		LogManager
+			.warning(
+				"[TrackerServer] Error parsing packet "
+					+ packetToString(received, buf)
+					+ (worker.parseErrorsNotLogged > 0
+						? " (" + worker.parseErrorsNotLogged + " more since last logged)"
+						: ""),
+				e
+			);
+		worker.lastParseErrorLog = now;
+		worker.parseErrorsNotLogged = 0;
+	}
+
+	private static boolean carriesSamples(UDPPacket packet) {
+		return switch (packet.getPacketId()) {
+			case UDPProtocolParser.PACKET_ROTATION,
+				UDPProtocolParser.PACKET_ACCEL,
+				UDPProtocolParser.PACKET_ROTATION_2,
+				UDPProtocolParser.PACKET_ROTATION_DATA,
+				UDPProtocolParser.PACKET_BUNDLE -> true;
+			default -> false;
+		};
+	}
+
+	/**
+	 * Sends the content of the buffer written so far (from 0 to its position).
+	 * Safe to call from any thread as long as it uses its own buffer.
+	 */
+	void send(ByteBuffer buf, SocketAddress address) throws IOException {
+		if (replayFile != null)
+			return;
+		if (channel != null) {
+			buf.flip();
+			channel.send(buf, address);
+		} else {
+			socket.send(new DatagramPacket(buf.array(), buf.position(), address));
 		}
 	}
 
-	protected void processPacket(DatagramPacket received, UDPPacket packet, UDPDevice connection)
+	/**
+	 * @return true if any connection has set up trackers
+	 */
+	boolean hasActiveTrackers() {
+		synchronized (connections) {
+			for (UDPDevice connection : connections) {
+				if (connection.getSensorCount() > 0)
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return performer wearing the trackers of this device, the first one if
+	 * none is registered yet
+	 */
+	private static int getPerformer(UDPDevice connection) {
+		TrackerRegistry.Snapshot snapshot = Main.getVrServer().getTrackerRegistry().getSnapshot();
+		for (Tracker tracker : connection.getTrackerList()) {
+			int performer = snapshot.getPerformer(tracker);
+			if (performer >= 0)
+				return performer;
+		}
+		return 0;
+	}
+
+	protected void processPacket(
+		UDPIngestWorker worker,
+		InetSocketAddress received,
+		UDPPacket packet,
+		UDPDevice connection
+	)
 		throws IOException {
+		Quaternion buf = worker.quatBuf;
 		IMUTracker tracker = null;
+		if (connection != null)
+			connection.stats.onPacket(packet.getPacketId());
 		switch (packet.getPacketId()) {
 			case UDPProtocolParser.PACKET_HEARTBEAT:
 				break;
 			case UDPProtocolParser.PACKET_HANDSHAKE:
-				setUpNewConnection(received, (UDPPacket3Handshake) packet);
+				UDPPacket3Handshake handshake = (UDPPacket3Handshake) packet;
+				if (!allowHandshake(worker, handshake, connection))
+					break;
+				// Acknowledge right away, the device is registered off the
+				// ingest path
+				worker.sendBuffer.clear();
+				worker.parser.writeHandshakeResponse(worker.sendBuffer, connection);
+				send(worker.sendBuffer, received);
+				if (connection == null) {
+					// The parser reuses the packet
+					UDPPacket3Handshake handshakeCopy = handshake.copy();
+					registrar.submit(() -> setUpNewConnection(worker, received, handshakeCopy));
+				}
 				break;
 			case UDPProtocolParser.PACKET_ROTATION:
 			case UDPProtocolParser.PACKET_ROTATION_2:
@@ -387,8 +867,7 @@ public class TrackersUDPServer extends Thread {
 				tracker = connection.getTracker(rotationPacket.getSensorId());
 				if (tracker == null)
 					break;
-				tracker.rotQuaternion.set(buf);
-				tracker.dataTick();
+				tracker.publishRotation(buf, tracker.calibrationStatus, Clock.nanoTime());
 				break;
 			case UDPProtocolParser.PACKET_ROTATION_DATA:
 				if (connection == null)
@@ -402,15 +881,12 @@ public class TrackersUDPServer extends Thread {
 
 				switch (rotationData.dataType) {
 					case UDPPacket17RotationData.DATA_TYPE_NORMAL -> {
-						tracker.rotQuaternion.set(buf);
-						tracker.calibrationStatus = rotationData.calibrationInfo;
-						tracker.dataTick();
-					}
-					case UDPPacket17RotationData.DATA_TYPE_CORRECTION -> {
-						tracker.rotMagQuaternion.set(buf);
-						tracker.magCalibrationStatus = rotationData.calibrationInfo;
-						tracker.hasNewCorrectionData = true;
+						connection.stats.onRotation();
+						tracker
+							.publishRotation(buf, rotationData.calibrationInfo, Clock.nanoTime());
 					}
+					case UDPPacket17RotationData.DATA_TYPE_CORRECTION -> tracker
+						.publishCorrection(buf, rotationData.calibrationInfo, Clock.nanoTime());
 				}
 				break;
 			case UDPProtocolParser.PACKET_MAGNETOMETER_ACCURACY:
@@ -433,8 +909,7 @@ public class TrackersUDPServer extends Thread {
 				if (tracker == null)
 					break;
 
-				Vector3f acceleration = tracker.rotQuaternion.mult(accelPacket.acceleration);
-				tracker.accelVector.set(acceleration);
+				tracker.publishAcceleration(accelPacket.acceleration, Clock.nanoTime());
 				break;
 
 			case 2: // PACKET_GYRO
@@ -452,13 +927,10 @@ public class TrackersUDPServer extends Thread {
 					break;
 				UDPPacket10PingPong ping = (UDPPacket10PingPong) packet;
 				if (connection.lastPingPacketId == ping.pingId) {
-					for (Tracker t : connection.getTrackers().values()) {
-						IMUTracker imuTracker = (IMUTracker) t;
-						imuTracker
-							.setPing(
-								(int) (System.currentTimeMillis()
-									- connection.lastPingPacketTime) / 2
-							);
+					long rtt = Clock.currentTimeMillis() - connection.lastPingPacketTime;
+					connection.stats.onPing(rtt);
+					for (IMUTracker imuTracker : connection.getTrackerList()) {
+						imuTracker.setPing((int) rtt / 2);
 
 						imuTracker.dataTick();
 					}
@@ -483,13 +955,9 @@ public class TrackersUDPServer extends Thread {
 					break;
 				UDPPacket12BatteryLevel battery = (UDPPacket12BatteryLevel) packet;
 
-				if (connection.getTrackers().size() > 0) {
-
-					for (Tracker value : connection.getTrackers().values()) {
-						IMUTracker tr = (IMUTracker) value;
-						tr.setBatteryVoltage(battery.voltage);
-						tr.setBatteryLevel(battery.level * 100);
-					}
+				for (IMUTracker tr : connection.getTrackerList()) {
+					tr.setBatteryVoltage(battery.voltage);
+					tr.setBatteryLevel(battery.level * 100);
 				}
 				break;
 			case UDPProtocolParser.PACKET_TAP:
@@ -512,7 +980,7 @@ public class TrackersUDPServer extends Thread {
 				LogManager
 					.severe(
 						"[TrackerServer] Error received from "
-							+ received.getSocketAddress()
+							+ received
 							+ ": "
 							+ error.errorNumber
 					);
@@ -527,32 +995,33 @@ public class TrackersUDPServer extends Thread {
 				if (connection == null)
 					break;
 				UDPPacket15SensorInfo info = (UDPPacket15SensorInfo) packet;
-				setUpSensor(connection, info.getSensorId(), info.sensorType, info.sensorStatus);
-				// Send ack
-				bb.limit(bb.capacity());
-				bb.rewind();
-				parser.writeSensorInfoResponse(bb, connection, info);
-				socket.send(new DatagramPacket(rcvBuffer, bb.position(), connection.address));
-				LogManager
-					.info(
-						"[TrackerServer] Sensor info for "
-							+ connection.descriptiveName
-							+ "/"
-							+ info.getSensorId()
-							+ ": "
-							+ info.sensorStatus
-					);
+				// Send ack right away, the tracker is set up off the ingest path
+				worker.sendBuffer.clear();
+				worker.parser.writeSensorInfoResponse(worker.sendBuffer, connection, info);
+				send(worker.sendBuffer, connection.address);
+				int sensorId = info.getSensorId();
+				int sensorType = info.sensorType;
+				int sensorStatus = info.sensorStatus;
+				registrar.submit(() -> {
+					setUpSensor(connection, sensorId, sensorType, sensorStatus);
+					LogManager
+						.info(
+							"[TrackerServer] Sensor info for "
+								+ connection.descriptiveName
+								+ "/"
+								+ sensorId
+								+ ": "
+								+ sensorStatus
+						);
+				});
 				break;
 			case UDPProtocolParser.PACKET_SIGNAL_STRENGTH:
 				if (connection == null)
 					break;
 				UDPPacket19SignalStrength signalStrength = (UDPPacket19SignalStrength) packet;
 
-				if (connection.getTrackers().size() > 0) {
-					for (Tracker value : connection.getTrackers().values()) {
-						IMUTracker tr = (IMUTracker) value;
-						tr.setSignalStrength(signalStrength.signalStrength);
-					}
+				for (IMUTracker tr : connection.getTrackerList()) {
+					tr.setSignalStrength(signalStrength.signalStrength);
 				}
 				break;
 			case UDPProtocolParser.PACKET_TEMPERATURE:
@@ -564,6 +1033,22 @@ public class TrackersUDPServer extends Thread {
 					break;
 				tracker.temperature = temp.temperature;
 				break;
+			case UDPProtocolParser.PACKET_BUNDLE:
+				if (connection == null)
+					break;
+				UDPPacket100Bundle bundle = (UDPPacket100Bundle) packet;
+				while (bundle.hasRemaining()) {
+					UDPPacket bundled;
+					try {
+						bundled = worker.parser.parseBundled(bundle);
+					} catch (IOException | RuntimeException e) {
+						connection.stats.onParseFailure();
+						throw e;
+					}
+					if (bundled != null)
+						processPacket(worker, received, bundled, connection);
+				}
+				break;
 			case UDPProtocolParser.PACKET_USER_ACTION:
 				if (connection == null)
 					break;
@@ -573,18 +1058,19 @@ public class TrackersUDPServer extends Thread {
 					case UDPPacket21UserAction.RESET_YAW:
 					case UDPPacket21UserAction.RESET_MOUNTING:
 						String name = "";
+						int performer = getPerformer(connection);
 						switch (action.type) {
 							case UDPPacket21UserAction.RESET:
 								name = "Full";
-								Main.getVrServer().resetTrackers();
+								Main.getVrServer().resetTrackers(performer);
 								break;
 							case UDPPacket21UserAction.RESET_YAW:
 								name = "Yaw";
-								Main.getVrServer().resetTrackersYaw();
+								Main.getVrServer().resetTrackersYaw(performer);
 								break;
 							case UDPPacket21UserAction.RESET_MOUNTING:
 								name = "Mounting";
-								Main.getVrServer().resetTrackersMounting();
+								Main.getVrServer().resetTrackersMounting(performer);
 								break;
 						}
 						LogManager
@@ -607,4 +1093,52 @@ public class TrackersUDPServer extends Thread {
 	public List<UDPDevice> getConnections() {
 		return connections;
 	}
+
+	/**
+	 * @return datagrams dropped because a worker couldn't keep up
+	 */
+	public long getDroppedDatagrams() {
+		long dropped = 0;
+		for (UDPIngestWorker worker : workers) {
+			dropped += worker.getDroppedDatagrams();
+		}
+		return dropped;
+	}
+
+	/**
+	 * @return datagrams dropped because a source that isn't a registered
+	 * device exceeded its rate limit
+	 */
+	public long getRateLimitedUnknownDatagrams() {
+		long rateLimited = 0;
+		for (UDPIngestWorker worker : workers) {
+			rateLimited += worker.rateLimitedUnknownDatagrams;
+		}
+		return rateLimited;
+	}
+
+	/**
+	 * @return handshakes dropped by the rate limits
+	 */
+	public long getRateLimitedHandshakes() {
+		long rateLimited = 0;
+		for (UDPIngestWorker worker : workers) {
+			rateLimited += worker.rateLimitedHandshakes;
+		}
+		return rateLimited;
+	}
+
+	/**
+	 * @return the local port the server is bound to, or -1 if it isn't bound
+	 * yet
+	 */
+	public int getLocalPort() {
+		try {
+			if (channel != null && channel.getLocalAddress() != null)
+				return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+		} catch (IOException ignored) {}
+		if (socket != null)
+			return socket.getLocalPort();
+		return -1;
+	}
 }
@@ -0,0 +1,84 @@
+package dev.slimevr.vr.trackers.udp;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+/**
+ * Reads a capture written by {@link UDPCaptureWriter}, one datagram at a time.
+ */
+public class UDPCaptureReader implements Closeable {
+
+	private final DataInputStream in;
+	private final byte[] data = new byte[65535];
+	private final ByteBuffer datagram = ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN);
+	private long timeNanos;
+	private InetSocketAddress source;
+
+	public UDPCaptureReader(Path file) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 65536));
+		if (in.readInt() != UDPCaptureWriter.MAGIC)
+			throw new IOException("Not a tracker datagram capture: " + file);
+		int version = in.readUnsignedShort();
+		if (version != UDPCaptureWriter.VERSION)
+			throw new IOException("Unsupported capture version " + version + ": " + file);
+	}
+
+	/**
+	 * Reads the next datagram
+	 *
+	 * @return false at the end of the capture, including on a truncated last
+	 * record left by a capture that wasn't closed
+	 */
+	public boolean next() throws IOException {
+		byte[] address;
+		int port;
+		int length;
+		try {
+			timeNanos = in.readLong();
+			address = new byte[in.readUnsignedByte()];
+			in.readFully(address);
+			port = in.readUnsignedShort();
+			length = in.readUnsignedShort();
+			in.readFully(data, 0, length);
+		} catch (EOFException e) {
+			return false;
+		}
+		source = new InetSocketAddress(InetAddress.getByAddress(address), port);
+		datagram.clear();
+		datagram.limit(length);
+		return true;
+	}
+
+	/**
+	 * @return receive time of the current datagram, in nanoseconds
+	 */
+	public long getTimeNanos() {
+		return timeNanos;
+	}
+
+	public InetSocketAddress getSource() {
+		return source;
+	}
+
+	/**
+	 * @return the current datagram, reused by the next call to {@link #next()}
+	 */
+	public ByteBuffer getDatagram() {
+		return datagram;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
@@ -0,0 +1,79 @@
+package dev.slimevr.vr.trackers.udp;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+/**
+ * Appends received datagrams to a compact binary capture, to be replayed with
+ * {@link UDPReplayDriver}.
+ *
+ * The capture starts with {@link #MAGIC} and {@link #VERSION}, followed by one
+ * record per datagram: receive time in nanoseconds (long), source address
+ * length (byte), source address, source port (u16), datagram length (u16) and
+ * datagram. All values are big endian.
+ *
+ * Writes are buffered and done on the calling thread. The buffer can be
+ * flushed and the capture closed from other threads, so it can be saved when
+ * the server shuts down. Writes after closing are ignored.
+ */
+public class UDPCaptureWriter implements Closeable {
+
+	public static final int MAGIC = 0x53565243; // "SVRC"
+	public static final int VERSION = 1;
+
+	private final DataOutputStream out;
+	private final byte[] scratch = new byte[512];
+	private long datagrams = 0;
+	private boolean closed = false;
+
+	public UDPCaptureWriter(Path file) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 65536));
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+	}
+
+	/**
+	 * Appends a datagram, from the position to the limit of the buffer. Doesn't
+	 * change the buffer position.
+	 */
+	public synchronized void write(long timeNanos, InetSocketAddress source, ByteBuffer datagram)
+		throws IOException {
+		if (closed)
+			return;
+		byte[] address = source.getAddress().getAddress();
+		int length = datagram.remaining();
+		byte[] data = length <= scratch.length ? scratch : new byte[length];
+		datagram.get(datagram.position(), data, 0, length);
+		out.writeLong(timeNanos);
+		out.writeByte(address.length);
+		out.write(address);
+		out.writeShort(source.getPort());
+		out.writeShort(length);
+		out.write(data, 0, length);
+		datagrams++;
+	}
+
+	public synchronized long getDatagrams() {
+		return datagrams;
+	}
+
+	public synchronized void flush() throws IOException {
+		if (!closed)
+			out.flush();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		out.close();
+	}
+}
@@ -1,32 +1,55 @@
 package dev.slimevr.vr.trackers.udp;
 
 import dev.slimevr.NetworkProtocol;
+import dev.slimevr.util.Clock;
 import dev.slimevr.vr.Device;
 import dev.slimevr.vr.trackers.IMUTracker;
 import dev.slimevr.vr.trackers.Tracker;
 
 import java.net.InetAddress;
 import java.net.SocketAddress;
+import java.util.Arrays;
 import java.util.HashMap;
 
 
 public class UDPDevice extends Device {
 
 	public final int id;
-	public SocketAddress address;
-	public InetAddress ipAddress;
-	public long lastPacket = System.currentTimeMillis();
-	public int lastPingPacketId = -1;
-	public long lastPingPacketTime = 0;
+	// Can be changed on handover by the ingest worker owning the new address
+	public volatile SocketAddress address;
+	public volatile InetAddress ipAddress;
+	// Shared between the ingest worker and the housekeeping thread
+	public volatile long lastPacket = Clock.currentTimeMillis();
+	public volatile int lastPingPacketId = -1;
+	public volatile long lastPingPacketTime = 0;
 	public String name;
 	public String descriptiveName;
 	public StringBuilder serialBuffer = new StringBuilder();
 	public long lastSerialUpdate = 0;
-	public long lastPacketNumber = -1;
+	public final PacketSequenceWindow sequence = new PacketSequenceWindow();
 	public NetworkProtocol protocol = null;
 	public int firmwareBuild = 0;
+	public int firmwareFeatures = 0;
 	public boolean timedOut = false;
+	public final UDPDeviceStats stats = new UDPDeviceStats();
+	// Rate limits, null if unlimited. Used by the ingest worker owning the
+	// device only.
+	public TokenBucket packetLimiter = null;
+	public TokenBucket handshakeLimiter = null;
+	// Housekeeping thread only
+	public final UDPRateController.Device rateControl = new UDPRateController.Device();
+	public long lastRateControlLog = 0;
+	public int rateChangesNotLogged = 0;
 	private final HashMap<Integer, Tracker> trackers = new HashMap<>();
+	/**
+	 * Trackers indexed by sensor id for the packet processing path, replaced
+	 * on every change so it can be read without locking
+	 */
+	private volatile IMUTracker[] trackersBySensor = new IMUTracker[0];
+	/**
+	 * All the trackers, replaced on every change like trackersBySensor
+	 */
+	private volatile IMUTracker[] trackerList = new IMUTracker[0];
 
 	public UDPDevice(SocketAddress address, InetAddress ipAddress) {
 		this.address = address;
@@ -34,13 +57,6 @@ public class UDPDevice extends Device {
 		this.id = UDPDevice.nextLocalDeviceId.incrementAndGet();
 	}
 
-	public boolean isNextPacket(long packetId) {
-		if (packetId != 0 && packetId <= lastPacketNumber)
-			return false;
-		lastPacketNumber = packetId;
-		return true;
-	}
-
 	@Override
 	public String toString() {
 		return "udp:/" + ipAddress;
@@ -76,12 +92,49 @@ public class UDPDevice extends Device {
 		return this.ipAddress;
 	}
 
+	/**
+	 * Written by the registrar with the registration lock of the tracker
+	 * server held. The threads processing packets use
+	 * {@link #getTrackerList()} instead.
+	 */
 	@Override
 	public HashMap<Integer, Tracker> getTrackers() {
 		return this.trackers;
 	}
 
+	/**
+	 * @return the trackers of all sensors, a snapshot that must not be
+	 * modified. Lock-free.
+	 */
+	public IMUTracker[] getTrackerList() {
+		return trackerList;
+	}
+
+	/**
+	 * @return the tracker of this sensor id, or null. Lock-free.
+	 */
 	public IMUTracker getTracker(int id) {
-		return (IMUTracker) this.getTrackers().get(id);
+		IMUTracker[] trackers = trackersBySensor;
+		return id >= 0 && id < trackers.length ? trackers[id] : null;
+	}
+
+	/**
+	 * @return number of sensors with a tracker. Lock-free.
+	 */
+	public int getSensorCount() {
+		return trackerList.length;
+	}
+
+	/**
+	 * Adds a tracker for a sensor id. Must be called with the registration
+	 * lock of the tracker server held.
+	 */
+	public void addTracker(int id, IMUTracker tracker) {
+		this.trackers.put(id, tracker);
+		IMUTracker[] trackers = Arrays
+			.copyOf(trackersBySensor, Math.max(trackersBySensor.length, id + 1));
+		trackers[id] = tracker;
+		trackersBySensor = trackers;
+		trackerList = this.trackers.values().toArray(new IMUTracker[0]);
 	}
 }
@@ -0,0 +1,184 @@
+package dev.slimevr.vr.trackers.udp;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+
+/**
+ * Ingest telemetry of a {@link UDPDevice}: datagrams and bytes received,
+ * packets by packet id, late and duplicate packets dropped, packet numbers
+ * skipped, datagrams dropped by the rate limit, parse failures, inter-arrival
+ * jitter and ping round-trip time distribution.
+ *
+ * Updated by the ingest worker owning the device only, and readable from any
+ * thread. Counters are only ever increasing, rates are computed by the reader.
+ */
+public class UDPDeviceStats {
+
+	/**
+	 * Upper bounds of the ping round-trip time histogram buckets in
+	 * milliseconds, the last bucket holds everything above
+	 */
+	public static final int[] RTT_BUCKETS_MS = { 2, 5, 10, 20, 50, 100, 200, 500 };
+
+	private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	private static final int DATAGRAMS = 0;
+	private static final int BYTES = 1;
+	private static final int LATE_PACKETS = 2;
+	private static final int DUPLICATE_PACKETS = 3;
+	private static final int MISSING_PACKETS = 4;
+	private static final int PARSE_FAILURES = 5;
+	private static final int JITTER_NANOS = 6;
+	private static final int RATE_LIMITED = 7;
+	private static final int LAST_RTT_MILLIS = 8;
+	private static final int ROTATIONS = 9;
+
+	private final long[] counters = new long[10];
+	private final long[] packetsById = new long[256];
+	private final long[] rttHistogram = new long[RTT_BUCKETS_MS.length + 1];
+
+	// Owner only
+	private long lastArrivalNanos = 0;
+	private long lastInterArrivalNanos = 0;
+
+	private static void increment(long[] array, int index, long delta) {
+		LONGS.setOpaque(array, index, (long) LONGS.getOpaque(array, index) + delta);
+	}
+
+	private static long get(long[] array, int index) {
+		return (long) LONGS.getOpaque(array, index);
+	}
+
+	/**
+	 * Records a received datagram and updates the inter-arrival jitter, an
+	 * exponential average of the variation between consecutive inter-arrival
+	 * times as in RFC 3550
+	 */
+	void onDatagram(int bytes, long timeNanos) {
+		increment(counters, DATAGRAMS, 1);
+		increment(counters, BYTES, bytes);
+		if (lastArrivalNanos != 0) {
+			long interArrival = timeNanos - lastArrivalNanos;
+			if (lastInterArrivalNanos != 0) {
+				long jitter = get(counters, JITTER_NANOS);
+				long variation = Math.abs(interArrival - lastInterArrivalNanos);
+				LONGS.setOpaque(counters, JITTER_NANOS, jitter + (variation - jitter) / 16);
+			}
+			lastInterArrivalNanos = interArrival;
+		}
+		lastArrivalNanos = timeNanos;
+	}
+
+	void onPacket(int packetId) {
+		increment(packetsById, packetId & 0xFF, 1);
+	}
+
+	/**
+	 * Records a rotation sample, correction packets excluded
+	 */
+	void onRotation() {
+		increment(counters, ROTATIONS, 1);
+	}
+
+	/**
+	 * Records a packet number classified by {@link PacketSequenceWindow}
+	 */
+	void onSequence(int classification, long gap) {
+		switch (classification) {
+			case PacketSequenceWindow.GAP -> increment(counters, MISSING_PACKETS, gap);
+			case PacketSequenceWindow.LATE -> increment(counters, LATE_PACKETS, 1);
+			case PacketSequenceWindow.DUPLICATE -> increment(counters, DUPLICATE_PACKETS, 1);
+			default -> {
+			}
+		}
+	}
+
+	void onRateLimited() {
+		increment(counters, RATE_LIMITED, 1);
+	}
+
+	void onParseFailure() {
+		increment(counters, PARSE_FAILURES, 1);
+	}
+
+	void onPing(long rttMillis) {
+		int bucket = 0;
+		while (bucket < RTT_BUCKETS_MS.length && rttMillis > RTT_BUCKETS_MS[bucket])
+			bucket++;
+		increment(rttHistogram, bucket, 1);
+		LONGS.setOpaque(counters, LAST_RTT_MILLIS, rttMillis);
+	}
+
+	public long getDatagrams() {
+		return get(counters, DATAGRAMS);
+	}
+
+	public long getBytes() {
+		return get(counters, BYTES);
+	}
+
+	/**
+	 * @return packets dropped because a newer one was already received
+	 */
+	public long getLatePackets() {
+		return get(counters, LATE_PACKETS);
+	}
+
+	public long getDuplicatePackets() {
+		return get(counters, DUPLICATE_PACKETS);
+	}
+
+	/**
+	 * @return packet numbers skipped when a packet arrived ahead of sequence,
+	 * some of them may have arrived late since
+	 */
+	public long getMissingPackets() {
+		return get(counters, MISSING_PACKETS);
+	}
+
+	/**
+	 * @return datagrams dropped because the device exceeded its rate limit
+	 */
+	public long getRateLimited() {
+		return get(counters, RATE_LIMITED);
+	}
+
+	public long getParseFailures() {
+		return get(counters, PARSE_FAILURES);
+	}
+
+	public long getJitterNanos() {
+		return get(counters, JITTER_NANOS);
+	}
+
+	/**
+	 * @return rotation samples received, without the correction packets
+	 * sharing their packet id
+	 */
+	public long getRotations() {
+		return get(counters, ROTATIONS);
+	}
+
+	/**
+	 * @return packets received with this id, including bundled ones
+	 */
+	public long getPackets(int packetId) {
+		return get(packetsById, packetId & 0xFF);
+	}
+
+	/**
+	 * @return round-trip time of the latest ping, 0 if none was answered yet
+	 */
+	public long getLastPingMillis() {
+		return get(counters, LAST_RTT_MILLIS);
+	}
+
+	/**
+	 * @return number of pings whose round-trip time fell in this bucket of
+	 * {@link #RTT_BUCKETS_MS}
+	 */
+	public long getPingCount(int bucket) {
+		return get(rttHistogram, bucket);
+	}
+}
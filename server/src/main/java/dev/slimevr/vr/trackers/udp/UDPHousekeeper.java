@@ -0,0 +1,362 @@
+package dev.slimevr.vr.trackers.udp;
+
+import dev.slimevr.util.Clock;
+import dev.slimevr.util.TickScheduler;
+import dev.slimevr.vr.trackers.IMUTracker;
+import dev.slimevr.vr.trackers.TrackerStatus;
+import io.eiren.util.logging.LogManager;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Housekeeping thread of {@link TrackersUDPServer}: sends heartbeats, pings and
+ * discovery broadcasts, detects timed out devices, flushes their serial output,
+ * reports packets dropped out of sequence and asks devices to change their send
+ * rate as decided by a {@link UDPRateController}.
+ *
+ * Every device has its own deadline in a {@link HashedTimerWheel}, so a tick
+ * only visits the devices that are due instead of scanning all of them, and
+ * none of this work runs on the threads receiving packets.
+ */
+class UDPHousekeeper extends Thread {
+
+	private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+	private static final int WHEEL_SIZE = 64;
+	private static final long KEEPUP_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+	private static final long DISCOVERY_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(2000);
+	private static final long RATE_CONTROL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+	private static final long CAPTURE_FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+	private static final long TIMEOUT_MS = 1000;
+	private static final long PING_INTERVAL_MS = 500;
+	private static final long SERIAL_FLUSH_MS = 500;
+	private static final long SEQUENCE_REPORT_MS = 10_000;
+	private static final long RATE_CONTROL_LOG_MS = 60_000;
+	private static final UDPPacket0Heartbeat DISCOVERY_HEARTBEAT = new UDPPacket0Heartbeat();
+	private static final UDPPacket1Heartbeat KEEPUP_HEARTBEAT = new UDPPacket1Heartbeat();
+
+	private final TrackersUDPServer server;
+	private final List<SocketAddress> broadcastAddresses;
+	private final Object registrationLock;
+	private final UDPProtocolParser parser = new UDPProtocolParser();
+	private final ByteBuffer sendBuffer;
+	private final Random random = new Random();
+	private final StringBuilder serialBuffer = new StringBuilder();
+	private final Queue<UDPDevice> newConnections = new ConcurrentLinkedQueue<>();
+	private final HashedTimerWheel wheel;
+	private final UDPRateController rateController = new UDPRateController();
+	private final UDPPacket22RateControl rateControlPacket = new UDPPacket22RateControl();
+
+	/**
+	 * Times of the tick being processed, read once per tick. The wheel paces
+	 * the thread on the system clock, while device timeouts follow the
+	 * {@link Clock} their packets are timestamped with.
+	 */
+	private long nowNanos;
+	private long nowMillis;
+
+	UDPHousekeeper(
+		TrackersUDPServer server,
+		String name,
+		boolean direct,
+		List<SocketAddress> broadcastAddresses,
+		Object registrationLock
+	) {
+		super(name);
+		setDaemon(true);
+		this.server = server;
+		this.broadcastAddresses = broadcastAddresses;
+		this.registrationLock = registrationLock;
+		this.sendBuffer = (direct ? ByteBuffer.allocateDirect(512) : ByteBuffer.allocate(512))
+			.order(ByteOrder.BIG_ENDIAN);
+		this.wheel = new HashedTimerWheel(TICK_NANOS, WHEEL_SIZE, System.nanoTime());
+	}
+
+	/**
+	 * Starts housekeeping of a new connection. Can be called from any thread.
+	 */
+	void register(UDPDevice connection) {
+		newConnections.add(connection);
+	}
+
+	@Override
+	public void run() {
+		wheel.schedule(new DiscoveryTimeout(), System.nanoTime() + DISCOVERY_INTERVAL_NANOS);
+		wheel
+			.schedule(new CaptureFlushTimeout(), System.nanoTime() + CAPTURE_FLUSH_INTERVAL_NANOS);
+		if (server.isRateControlEnabled()) {
+			wheel
+				.schedule(
+					new RateControlTimeout(System.nanoTime()),
+					System.nanoTime() + RATE_CONTROL_INTERVAL_NANOS
+				);
+		}
+		while (!isInterrupted()) {
+			nowNanos = System.nanoTime();
+			nowMillis = Clock.currentTimeMillis();
+			UDPDevice connection;
+			while ((connection = newConnections.poll()) != null) {
+				wheel.schedule(new KeepupTimeout(connection), nowNanos + KEEPUP_INTERVAL_NANOS);
+			}
+			wheel.advance(nowNanos);
+			long wait = wheel.nextTickNanos() - System.nanoTime();
+			if (wait > 0)
+				LockSupport.parkNanos(this, wait);
+		}
+	}
+
+	private void broadcastDiscovery() throws IOException {
+		if (server.hasActiveTrackers())
+			return;
+		for (SocketAddress addr : broadcastAddresses) {
+			sendBuffer.clear();
+			parser.write(sendBuffer, null, DISCOVERY_HEARTBEAT);
+			server.send(sendBuffer, addr);
+		}
+	}
+
+	private void keepup(UDPDevice conn) throws IOException {
+		sendBuffer.clear();
+		parser.write(sendBuffer, conn, KEEPUP_HEARTBEAT);
+		server.send(sendBuffer, conn.address);
+		if (conn.lastPacket + TIMEOUT_MS < nowMillis) {
+			setTrackersStatus(conn, TrackerStatus.OK, TrackerStatus.DISCONNECTED);
+			if (!conn.timedOut) {
+				conn.timedOut = true;
+				LogManager.info("[TrackerServer] Tracker timed out: " + conn);
+			}
+		} else {
+			conn.timedOut = false;
+			setTrackersStatus(conn, TrackerStatus.DISCONNECTED, TrackerStatus.OK);
+		}
+		if (conn.serialBuffer.length() > 0) {
+			if (conn.lastSerialUpdate + SERIAL_FLUSH_MS < nowMillis) {
+				serialBuffer
+					.append('[')
+					.append(conn.name)
+					.append("] ")
+					.append(conn.serialBuffer);
+				System.out.println(serialBuffer);
+				serialBuffer.setLength(0);
+				conn.serialBuffer.setLength(0);
+			}
+		}
+		if (conn.lastPingPacketTime + PING_INTERVAL_MS < nowMillis) {
+			// Time first, the ingest workers read it after matching the id
+			conn.lastPingPacketTime = nowMillis;
+			conn.lastPingPacketId = random.nextInt();
+			sendBuffer.clear();
+			sendBuffer.putInt(10);
+			sendBuffer.putLong(0);
+			sendBuffer.putInt(conn.lastPingPacketId);
+			server.send(sendBuffer, conn.address);
+		}
+	}
+
+	private void controlRate(UDPDevice conn, boolean overloaded, float seconds)
+		throws IOException {
+		if ((conn.firmwareFeatures & UDPProtocolParser.FIRMWARE_FEATURE_RATE_CONTROL) == 0)
+			return;
+		UDPRateController.Device state = conn.rateControl;
+		UDPDeviceStats stats = conn.stats;
+		state.sensors = conn.getSensorCount();
+		state.rotationPackets = stats.getRotations();
+		state.receivedPackets = stats.getDatagrams();
+		state.missingPackets = stats.getMissingPackets();
+		state.rateLimitedPackets = stats.getRateLimited();
+		long lostSamples = 0;
+		for (IMUTracker tracker : conn.getTrackerList()) {
+			lostSamples += tracker.getLostSamples();
+		}
+		state.lostSamples = lostSamples;
+		state.rttMillis = stats.getLastPingMillis();
+		boolean unresponsive = state.isUnresponsive();
+		int rate = rateController.update(state, overloaded, seconds);
+		if (!unresponsive && state.isUnresponsive())
+			LogManager
+				.warning(
+					"[TrackerServer] "
+						+ conn
+						+ " ignores the requested send rate, not sending it anymore"
+				);
+		if (rate == UDPRateController.UNCHANGED)
+			return;
+		rateControlPacket.rotationRate = rate;
+		rateControlPacket.accelRate = rate;
+		sendBuffer.clear();
+		parser.write(sendBuffer, conn, rateControlPacket);
+		server.send(sendBuffer, conn.address);
+		// Rates can change every interval, only log the latest one now and then
+		if (conn.lastRateControlLog + RATE_CONTROL_LOG_MS > nowMillis) {
+			conn.rateChangesNotLogged++;
+			return;
+		}
+		LogManager
+			.info(
+				"[TrackerServer] Requested "
+					+ (rate == UDPRateController.FIRMWARE_DEFAULT ? "default" : rate + " Hz")
+					+ " send rate from "
+					+ conn
+					+ (conn.rateChangesNotLogged > 0
+						? " (" + conn.rateChangesNotLogged + " changes since last logged)"
+						: "")
+			);
+		conn.lastRateControlLog = nowMillis;
+		conn.rateChangesNotLogged = 0;
+	}
+
+	private void setTrackersStatus(UDPDevice conn, TrackerStatus from, TrackerStatus to) {
+		// The registrar sets the status of the sensors it sets up under this
+		// lock
+		synchronized (registrationLock) {
+			for (IMUTracker tracker : conn.getTrackerList()) {
+				if (tracker.getStatus() == from)
+					tracker.setStatus(to);
+			}
+		}
+	}
+
+	private class KeepupTimeout extends HashedTimerWheel.Timeout {
+
+		private final UDPDevice connection;
+		private long reportedLate = 0;
+		private long reportedDuplicate = 0;
+		private long reportedMissing = 0;
+		private long lastReport = 0;
+
+		KeepupTimeout(UDPDevice connection) {
+			this.connection = connection;
+		}
+
+		@Override
+		protected void expire() {
+			try {
+				keepup(connection);
+			} catch (Exception e) {
+				LogManager.warning("[TrackerServer] Error sending keepup to " + connection, e);
+			}
+			if (lastReport + SEQUENCE_REPORT_MS <= nowMillis)
+				reportSequence();
+			wheel.schedule(this, nowNanos + KEEPUP_INTERVAL_NANOS);
+		}
+
+		/**
+		 * Logs the packets dropped out of sequence since the last report, at
+		 * most once per {@link #SEQUENCE_REPORT_MS}
+		 */
+		private void reportSequence() {
+			UDPDeviceStats stats = connection.stats;
+			long late = stats.getLatePackets();
+			long duplicate = stats.getDuplicatePackets();
+			long missing = stats.getMissingPackets();
+			if (
+				late == reportedLate && duplicate == reportedDuplicate && missing == reportedMissing
+			)
+				return;
+			LogManager
+				.info(
+					"[TrackerServer] "
+						+ connection
+						+ " dropped "
+						+ (late - reportedLate)
+						+ " late and "
+						+ (duplicate - reportedDuplicate)
+						+ " duplicate packets, skipped "
+						+ (missing - reportedMissing)
+						+ " packet numbers"
+				);
+			reportedLate = late;
+			reportedDuplicate = duplicate;
+			reportedMissing = missing;
+			lastReport = nowMillis;
+		}
+	}
+
+	private class RateControlTimeout extends HashedTimerWheel.Timeout {
+
+		private final TickScheduler serverTick = server.getRateControlTick();
+		private long lastRun;
+		private long lastDropped;
+		private long lastTicks;
+		private long lastOverruns;
+
+		RateControlTimeout(long now) {
+			this.lastRun = now;
+			this.lastDropped = server.getDroppedDatagrams();
+			if (serverTick != null) {
+				lastTicks = serverTick.getTicks();
+				lastOverruns = serverTick.getOverruns();
+			}
+		}
+
+		@Override
+		protected void expire() {
+			long dropped = server.getDroppedDatagrams();
+			boolean overloaded = dropped > lastDropped;
+			lastDropped = dropped;
+			if (serverTick != null) {
+				long ticks = serverTick.getTicks();
+				long overruns = serverTick.getOverruns();
+				// A few overruns happen when the thread is descheduled
+				overloaded |= overruns - lastOverruns
+					> (ticks - lastTicks) * UDPRateController.LOSS_THRESHOLD;
+				lastTicks = ticks;
+				lastOverruns = overruns;
+			}
+			float seconds = (nowNanos - lastRun) / 1e9f;
+			lastRun = nowNanos;
+			List<UDPDevice> connections = server.getConnections();
+			synchronized (connections) {
+				for (UDPDevice connection : connections) {
+					if (connection.timedOut)
+						continue;
+					try {
+						controlRate(connection, overloaded, seconds);
+					} catch (Exception e) {
+						LogManager
+							.warning(
+								"[TrackerServer] Error sending rate control to " + connection,
+								e
+							);
+					}
+				}
+			}
+			wheel.schedule(this, nowNanos + RATE_CONTROL_INTERVAL_NANOS);
+		}
+	}
+
+	private class DiscoveryTimeout extends HashedTimerWheel.Timeout {
+
+		@Override
+		protected void expire() {
+			try {
+				broadcastDiscovery();
+			} catch (Exception e) {
+				LogManager.warning("[TrackerServer] Error sending discovery broadcast", e);
+			}
+			wheel.schedule(this, nowNanos + DISCOVERY_INTERVAL_NANOS);
+		}
+	}
+
+	/**
+	 * Bounds what's lost from a capture if the server doesn't shut down
+	 * cleanly
+	 */
+	private class CaptureFlushTimeout extends HashedTimerWheel.Timeout {
+
+		@Override
+		protected void expire() {
+			server.flushCapture();
+			wheel.schedule(this, nowNanos + CAPTURE_FLUSH_INTERVAL_NANOS);
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package dev.slimevr.vr.trackers.udp;
+
+import com.jme3.math.Quaternion;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Ingest shard of {@link TrackersUDPServer}. Owns a disjoint set of
+ * {@link UDPDevice} connections (all connections from the source addresses
+ * hashed to it) together with its own parser and buffers, so it can parse and
+ * process their packets without any lock.
+ *
+ * When the server runs a single shard, the receive thread processes the
+ * datagrams inline with the worker state and the worker thread is never
+ * started. Otherwise the receive thread copies every datagram into the
+ * single-producer/single-consumer ring of the worker owning its source.
+ */
+public class UDPIngestWorker extends Thread {
+
+	/**
+	 * Max time to park when idle, bounds the latency of a missed wake-up
+	 */
+	private static final long PARK_NANOS = 1_000_000;
+
+	final UDPProtocolParser parser = new UDPProtocolParser(true);
+	final Quaternion quatBuf = new Quaternion();
+	final ByteBuffer sendBuffer;
+	private final IPv4ConnectionTable ipv4Connections = new IPv4ConnectionTable(64);
+	private final Map<InetAddress, UDPDevice> otherConnections = new HashMap<>();
+	private final Queue<Published> publishedConnections = new ConcurrentLinkedQueue<>();
+	/**
+	 * Handshake limits of the sources hashed to this worker: by registered MAC
+	 * address seen from an unknown address, and over all unknown sources
+	 */
+	final Map<String, TokenBucket> macHandshakeLimiters = new HashMap<>();
+	TokenBucket unknownHandshakeLimiter = null;
+	long rateLimitedHandshakes = 0;
+	SourceRateLimiter unknownSourceLimiter = null;
+	long rateLimitedUnknownDatagrams = 0;
+	// Parse errors logged at most once per interval
+	long lastParseErrorLog = 0;
+	int parseErrorsNotLogged = 0;
+
+	private final TrackersUDPServer server;
+	private final ByteBuffer[] slots;
+	private final InetSocketAddress[] sources;
+	private final int mask;
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+	private volatile boolean waiting = false;
+	private long droppedDatagrams = 0;
+
+	UDPIngestWorker(TrackersUDPServer server, String name, boolean direct, int capacity) {
+		super(name);
+		setDaemon(true);
+		this.server = server;
+		this.sendBuffer = (direct ? ByteBuffer.allocateDirect(512) : ByteBuffer.allocate(512))
+			.order(ByteOrder.BIG_ENDIAN);
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		this.slots = new ByteBuffer[size];
+		this.sources = new InetSocketAddress[size];
+		this.mask = size - 1;
+		for (int i = 0; i < size; ++i) {
+			slots[i] = ByteBuffer.allocate(512).order(ByteOrder.BIG_ENDIAN);
+		}
+	}
+
+	/**
+	 * Must only be called from this worker's thread, or from the receive thread
+	 * if the worker isn't started.
+	 *
+	 * @return the connection for this source address, or null if unknown
+	 */
+	UDPDevice getConnection(InetAddress address) {
+		UDPDevice connection = address instanceof Inet4Address
+			? ipv4Connections.get(ipv4Key(address))
+			: otherConnections.get(address);
+		if (connection != null && !address.equals(connection.ipAddress)) {
+			// The device was handed over to another address, possibly owned
+			// by another worker
+			removeConnection(address);
+			return null;
+		}
+		return connection;
+	}
+
+	/**
+	 * Hands over a connection registered by another thread. The worker adds it
+	 * under its current address before processing its next datagram.
+	 *
+	 * @param handedOver true if the device moved from another address, its
+	 * packet sequence is then restarted by this worker, its new owner
+	 */
+	void publishConnection(UDPDevice connection, boolean handedOver) {
+		publishedConnections.add(new Published(connection, handedOver));
+	}
+
+	/**
+	 * Adds the connections published since the last call. Must only be called
+	 * from this worker's thread, or from the receive thread if the worker
+	 * isn't started.
+	 */
+	void takePublishedConnections() {
+		Published published;
+		while ((published = publishedConnections.poll()) != null) {
+			UDPDevice connection = published.connection();
+			if (published.handedOver())
+				connection.sequence.reset();
+			putConnection(connection.ipAddress, connection);
+		}
+	}
+
+	private void putConnection(InetAddress address, UDPDevice connection) {
+		if (address instanceof Inet4Address)
+			ipv4Connections.put(ipv4Key(address), connection);
+		else
+			otherConnections.put(address, connection);
+	}
+
+	private void removeConnection(InetAddress address) {
+		if (address instanceof Inet4Address)
+			ipv4Connections.remove(ipv4Key(address));
+		else
+			otherConnections.remove(address);
+	}
+
+	/**
+	 * The hash code of an {@link Inet4Address} is its address, unlike
+	 * {@link InetAddress#getAddress()} it doesn't allocate
+	 */
+	private static int ipv4Key(InetAddress address) {
+		return address.hashCode();
+	}
+
+	/**
+	 * Copies a datagram to this worker's ring. Must only be called from the
+	 * receive thread.
+	 *
+	 * @return false if the ring is full and the datagram was dropped
+	 */
+	boolean offer(InetSocketAddress source, ByteBuffer datagram) {
+		long h = head.get();
+		if (h - tail.get() > mask) {
+			droppedDatagrams++;
+			return false;
+		}
+		int index = (int) (h & mask);
+		ByteBuffer slot = slots[index];
+		slot.clear();
+		slot.put(datagram);
+		slot.flip();
+		sources[index] = source;
+		head.set(h + 1);
+		if (waiting)
+			LockSupport.unpark(this);
+		return true;
+	}
+
+	/**
+	 * @return datagrams dropped because this worker couldn't keep up
+	 */
+	public long getDroppedDatagrams() {
+		return droppedDatagrams;
+	}
+
+	private record Published(UDPDevice connection, boolean handedOver) {
+	}
+
+	@Override
+	public void run() {
+		long t = tail.get();
+		while (!isInterrupted()) {
+			if (t == head.get()) {
+				waiting = true;
+				if (t == head.get())
+					LockSupport.parkNanos(this, PARK_NANOS);
+				waiting = false;
+				continue;
+			}
+			int index = (int) (t & mask);
+			server.onDatagram(this, sources[index], slots[index]);
+			sources[index] = null;
+			tail.lazySet(++t);
+		}
+	}
+}
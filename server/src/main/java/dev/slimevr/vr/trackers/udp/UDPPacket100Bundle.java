@@ -0,0 +1,47 @@
+package dev.slimevr.vr.trackers.udp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Carries several packets in a single datagram, so a device with multiple
+ * sensors pays the header and the syscall once. Each bundled packet is
+ * prefixed by its length as an unsigned short, followed by its packet id and
+ * payload, without a packet number of its own.
+ *
+ * The bundle doesn't copy its content, it keeps a reference to the datagram
+ * buffer and is only valid while the buffer holds the datagram. Bundled
+ * packets are read with {@link UDPProtocolParser#parseBundled(UDPPacket100Bundle)}.
+ */
+public class UDPPacket100Bundle extends UDPPacket {
+
+	private ByteBuffer buf;
+
+	public UDPPacket100Bundle() {
+	}
+
+	@Override
+	public int getPacketId() {
+		return 100;
+	}
+
+	@Override
+	public void readData(ByteBuffer buf) throws IOException {
+		// Bundled packets are parsed lazily from the current position
+		this.buf = buf;
+	}
+
+	@Override
+	public void writeData(ByteBuffer buf) throws IOException {
+		// Never sent back in current protocol
+	}
+
+	public ByteBuffer getBuffer() {
+		return buf;
+	}
+
+	public boolean hasRemaining() {
+		return buf != null && buf.hasRemaining();
+	}
+}
@@ -33,8 +33,7 @@ public class UDPPacket15SensorInfo extends UDPPacket implements SensorSpecificPa
 	public void readData(ByteBuffer buf) throws IOException {
 		sensorId = buf.get() & 0xFF;
 		sensorStatus = buf.get() & 0xFF;
-		if (buf.remaining() > 0)
-			sensorType = buf.get() & 0xFF;
+		sensorType = buf.remaining() > 0 ? buf.get() & 0xFF : 0;
 	}
 
 	@Override
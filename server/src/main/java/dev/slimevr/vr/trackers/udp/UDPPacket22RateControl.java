@@ -0,0 +1,36 @@
+package dev.slimevr.vr.trackers.udp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Sent by the server to ask a device to change the rate it streams sensor data
+ * at. Rates are per sensor in Hz, 0 to go back to the firmware's default.
+ * Firmware clamps them to what it supports.
+ */
+public class UDPPacket22RateControl extends UDPPacket {
+
+	public int rotationRate;
+	public int accelRate;
+
+	public UDPPacket22RateControl() {
+	}
+
+	@Override
+	public int getPacketId() {
+		return 22;
+	}
+
+	@Override
+	public void readData(ByteBuffer buf) throws IOException {
+		rotationRate = buf.getShort() & 0xFFFF;
+		accelRate = buf.getShort() & 0xFFFF;
+	}
+
+	@Override
+	public void writeData(ByteBuffer buf) throws IOException {
+		buf.putShort((short) rotationRate);
+		buf.putShort((short) accelRate);
+	}
+}
@@ -12,6 +12,11 @@ public class UDPPacket3Handshake extends UDPPacket {
 	public int firmwareBuild;
 	public String firmware;
 	public String macString;
+	/**
+	 * Features of the firmware, see
+	 * {@link UDPProtocolParser#FIRMWARE_FEATURE_RATE_CONTROL}
+	 */
+	public int firmwareFeatures;
 
 	public UDPPacket3Handshake() {
 	}
@@ -23,6 +28,14 @@ public class UDPPacket3Handshake extends UDPPacket {
 
 	@Override
 	public void readData(ByteBuffer buf) throws IOException {
+		// Packet instance can be reused by the parser, don't keep old values
+		boardType = 0;
+		imuType = 0;
+		mcuType = 0;
+		firmwareBuild = 0;
+		firmware = null;
+		macString = null;
+		firmwareFeatures = 0;
 		if (buf.remaining() > 0) {
 			byte[] mac = new byte[6];
 			if (buf.remaining() > 3)
@@ -57,10 +70,27 @@ public class UDPPacket3Handshake extends UDPPacket {
 					);
 				if (macString.equals("00:00:00:00:00:00"))
 					macString = null;
+				if (buf.remaining() > 3)
+					firmwareFeatures = buf.getInt();
 			}
 		}
 	}
 
+	/**
+	 * @return a copy to keep, the parser may reuse this instance
+	 */
+	public UDPPacket3Handshake copy() {
+		UDPPacket3Handshake copy = new UDPPacket3Handshake();
+		copy.boardType = boardType;
+		copy.imuType = imuType;
+		copy.mcuType = mcuType;
+		copy.firmwareBuild = firmwareBuild;
+		copy.firmware = firmware;
+		copy.macString = macString;
+		copy.firmwareFeatures = firmwareFeatures;
+		return copy;
+	}
+
 	@Override
 	public void writeData(ByteBuffer buf) throws IOException {
 		// Never sent back in current protocol
@@ -1,7 +1,6 @@
 package dev.slimevr.vr.trackers.udp;
 
 import java.io.IOException;
-import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 
 import com.jme3.math.Vector3f;
@@ -24,9 +23,9 @@ public class UDPPacket4Acceleration extends UDPPacket implements SensorSpecificP
 	public void readData(ByteBuffer buf) throws IOException {
 		acceleration.set(buf.getFloat(), buf.getFloat(), buf.getFloat());
 
-		try {
+		if (buf.hasRemaining()) {
 			sensorId = buf.get() & 0xFF;
-		} catch (BufferUnderflowException e) {
+		} else {
 			// for owo track app
 			sensorId = 0;
 		}
@@ -1,5 +1,7 @@
 package dev.slimevr.vr.trackers.udp;
 
+import dev.slimevr.util.Clock;
+
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
@@ -31,42 +33,91 @@ public class UDPProtocolParser {
 	public static final int PACKET_SIGNAL_STRENGTH = 19;
 	public static final int PACKET_TEMPERATURE = 20;
 	public static final int PACKET_USER_ACTION = 21;
+	public static final int PACKET_RATE_CONTROL = 22;
+	public static final int PACKET_BUNDLE = 100;
 
 	public static final int PACKET_PROTOCOL_CHANGE = 200;
 
+	/**
+	 * Server accepts {@link UDPPacket100Bundle} packets
+	 */
+	public static final int SERVER_FEATURE_BUNDLE = 1;
+	/**
+	 * Server may send {@link UDPPacket22RateControl} packets
+	 */
+	public static final int SERVER_FEATURE_RATE_CONTROL = 2;
+	/**
+	 * Features advertised to the firmware in the handshake response
+	 */
+	public static final int SERVER_FEATURES = SERVER_FEATURE_BUNDLE
+		| SERVER_FEATURE_RATE_CONTROL;
+
+	/**
+	 * Firmware follows {@link UDPPacket22RateControl} packets. Firmware
+	 * features are sent as flags after the MAC address in the handshake.
+	 */
+	public static final int FIRMWARE_FEATURE_RATE_CONTROL = 1;
+
+	/**
+	 * Offset of the server feature flags in the handshake response, right
+	 * after the nul-terminated greeting. Older firmware ignores these bytes.
+	 */
+	public static final int HANDSHAKE_FEATURES_OFFSET = 14;
 	private static final byte[] HANDSHAKE_BUFFER = new byte[64];
 
 	static {
 		HANDSHAKE_BUFFER[0] = 3;
 		byte[] str = "Hey OVR =D 5".getBytes(StandardCharsets.US_ASCII);
 		System.arraycopy(str, 0, HANDSHAKE_BUFFER, 1, str.length);
+		ByteBuffer.wrap(HANDSHAKE_BUFFER).putInt(HANDSHAKE_FEATURES_OFFSET, SERVER_FEATURES);
 	}
 
+	/**
+	 * Preallocated packet instances by packet id, null if packets are not
+	 * reused
+	 */
+	private final UDPPacket[] packetPool;
+
 	public UDPProtocolParser() {
+		this(false);
+	}
+
+	/**
+	 * @param reusePackets if true, the parser keeps one preallocated packet
+	 * instance per packet id and decodes every received packet into it instead
+	 * of allocating a new one. Packets returned by
+	 * {@link #parse(ByteBuffer, UDPDevice)} are then only valid until the next
+	 * call and must not be kept.
+	 */
+	public UDPProtocolParser(boolean reusePackets) {
+		packetPool = reusePackets ? new UDPPacket[256] : null;
 	}
 
 	public UDPPacket parse(ByteBuffer buf, UDPDevice connection) throws IOException {
 		int packetId = buf.getInt();
 		long packetNumber = buf.getLong();
 		if (connection != null) {
-			if (!connection.isNextPacket(packetNumber)) {
-				// Skip packet because it's not next
-				throw new IOException(
-					"Out of order packet received: id "
-						+ packetId
-						+ ", number "
-						+ packetNumber
-						+ ", last "
-						+ connection.lastPacketNumber
-						+ ", from "
-						+ connection
-				);
+			int sequence = connection.sequence.accept(packetNumber);
+			connection.stats.onSequence(sequence, connection.sequence.getLastGap());
+			if (
+				sequence == PacketSequenceWindow.LATE
+					|| sequence == PacketSequenceWindow.DUPLICATE
+			) {
+				// Skip packet because a newer one was processed already,
+				// reported by the housekeeping
+				return null;
 			}
-			connection.lastPacket = System.currentTimeMillis();
+			connection.lastPacket = Clock.currentTimeMillis();
 		}
-		UDPPacket newPacket = getNewPacket(packetId);
+		UDPPacket newPacket = getPacket(packetId);
 		if (newPacket != null) {
-			newPacket.readData(buf);
+			try {
+				newPacket.readData(buf);
+			} catch (IOException | RuntimeException e) {
+				if (connection != null)
+					connection.stats.onParseFailure();
+				throw e;
+			}
 		} else {
 			// LogManager.log.debug("[UDPProtocolParser] Skipped packet id " +
 			// packetId + "
@@ -75,6 +126,49 @@ public class UDPProtocolParser {
 		return newPacket;
 	}
 
+	/**
+	 * Reads the next packet out of a bundle. Bundled packets don't have a
+	 * packet number, the bundle's one was already checked when it was parsed.
+	 *
+	 * @return the next bundled packet, or null if it's unknown or not allowed
+	 * in a bundle, in which case it's skipped. Use
+	 * {@link UDPPacket100Bundle#hasRemaining()} to know when the bundle is
+	 * exhausted.
+	 */
+	public UDPPacket parseBundled(UDPPacket100Bundle bundle) throws IOException {
+		ByteBuffer buf = bundle.getBuffer();
+		if (buf.remaining() < 2) {
+			int remaining = buf.remaining();
+			buf.position(buf.limit());
+			throw new IOException("Truncated bundle: " + remaining + " trailing bytes");
+		}
+		int length = buf.getShort() & 0xFFFF;
+		if (length < 4 || length > buf.remaining()) {
+			int remaining = buf.remaining();
+			buf.position(buf.limit());
+			throw new IOException(
+				"Malformed bundle: packet length " + length + ", remaining " + remaining
+			);
+		}
+		int end = buf.position() + length;
+		int limit = buf.limit();
+		int packetId = buf.getInt();
+		// Handshakes need their own datagram, and bundles can't be nested
+		UDPPacket packet = packetId == PACKET_HANDSHAKE || packetId == PACKET_BUNDLE
+			? null
+			: getPacket(packetId);
+		if (packet != null) {
+			buf.limit(end);
+			try {
+				packet.readData(buf);
+			} finally {
+				buf.limit(limit);
+			}
+		}
+		buf.position(end);
+		return packet;
+	}
+
 	public void write(ByteBuffer buf, UDPDevice connection, UDPPacket packet) throws IOException {
 		buf.putInt(packet.getPacketId());
 		buf.putLong(0); // Packet number is always 0 when sending data to
@@ -96,6 +190,17 @@ public class UDPProtocolParser {
 		buf.put((byte) packet.sensorStatus);
 	}
 
+	protected UDPPacket getPacket(int packetId) {
+		if (packetPool == null || packetId < 0 || packetId >= packetPool.length)
+			return getNewPacket(packetId);
+		UDPPacket packet = packetPool[packetId];
+		if (packet == null) {
+			packet = getNewPacket(packetId);
+			packetPool[packetId] = packet;
+		}
+		return packet;
+	}
+
 	protected UDPPacket getNewPacket(int packetId) {
 		return switch (packetId) {
 			case PACKET_HEARTBEAT -> new UDPPacket0Heartbeat();
@@ -114,6 +219,8 @@ public class UDPProtocolParser {
 			case PACKET_SIGNAL_STRENGTH -> new UDPPacket19SignalStrength();
 			case PACKET_TEMPERATURE -> new UDPPacket20Temperature();
 			case PACKET_USER_ACTION -> new UDPPacket21UserAction();
+			case PACKET_RATE_CONTROL -> new UDPPacket22RateControl();
+			case PACKET_BUNDLE -> new UDPPacket100Bundle();
 			case PACKET_PROTOCOL_CHANGE -> new UDPPacket200ProtocolChange();
 			default -> null;
 		};
@@ -0,0 +1,157 @@
+package dev.slimevr.vr.trackers.udp;
+
+/**
+ * Decides the send rate to request from each device with
+ * {@link UDPPacket22RateControl}, so that sessions with many trackers degrade
+ * by lowering their rate instead of losing packets.
+ *
+ * Works like TCP congestion avoidance (AIMD): the rate of a device is cut by a
+ * factor as soon as it loses packets, exceeds its rate limit, has a high ping,
+ * its samples are lost because the tick consuming them can't keep up, or the
+ * whole server is overloaded, then raised in small steps
+ * after a few healthy intervals until it's back to the firmware's default.
+ * Devices that keep ignoring the requested rate are left alone.
+ */
+public class UDPRateController {
+
+	/**
+	 * Returned by {@link #update(Device, boolean, float)} when nothing needs
+	 * to be sent
+	 */
+	public static final int UNCHANGED = -1;
+	/**
+	 * Requested rate asking the firmware to go back to its default rate
+	 */
+	public static final int FIRMWARE_DEFAULT = 0;
+
+	public static final int MIN_RATE = 20;
+	public static final float LOSS_THRESHOLD = 0.05f;
+	public static final long RTT_THRESHOLD_MS = 100;
+	private static final float DECREASE_FACTOR = 0.7f;
+	private static final float INCREASE_FRACTION = 0.1f;
+	private static final int HEALTHY_INTERVALS = 3;
+	/**
+	 * Observed rate above the requested one from which the request is assumed
+	 * lost, or forgotten by a rebooted device, and sent again
+	 */
+	private static final float RESEND_FACTOR = 1.5f;
+	/**
+	 * Requests in a row a device can ignore before it's left alone
+	 */
+	public static final int MAX_UNANSWERED_REQUESTS = 3;
+
+	/**
+	 * Evaluates a device over the interval since its last update
+	 *
+	 * @param overloaded the server dropped datagrams it couldn't process, or
+	 * its tick overran, during the interval
+	 * @param seconds length of the interval
+	 * @return the rate to request from the device, or {@link #UNCHANGED}
+	 */
+	public int update(Device device, boolean overloaded, float seconds) {
+		long rotationPackets = device.rotationPackets - device.lastRotationPackets;
+		long received = device.receivedPackets - device.lastReceivedPackets;
+		long missing = device.missingPackets - device.lastMissingPackets;
+		long rateLimited = device.rateLimitedPackets - device.lastRateLimitedPackets;
+		long lostSamples = device.lostSamples - device.lastLostSamples;
+		device.lastRotationPackets = device.rotationPackets;
+		device.lastReceivedPackets = device.receivedPackets;
+		device.lastMissingPackets = device.missingPackets;
+		device.lastRateLimitedPackets = device.rateLimitedPackets;
+		device.lastLostSamples = device.lostSamples;
+		if (!device.started) {
+			device.started = true;
+			return UNCHANGED;
+		}
+		if (device.unresponsive || seconds <= 0 || rotationPackets <= 0)
+			return UNCHANGED;
+		int observedRate = (int) (rotationPackets / Math.max(device.sensors, 1) / seconds);
+		if (device.rate != FIRMWARE_DEFAULT && observedRate > device.rate * RESEND_FACTOR) {
+			if (++device.unansweredRequests >= MAX_UNANSWERED_REQUESTS) {
+				device.unresponsive = true;
+				return UNCHANGED;
+			}
+			return device.rate;
+		}
+		device.unansweredRequests = 0;
+		boolean congested = overloaded
+			|| rateLimited > 0
+			|| missing > (received + missing) * LOSS_THRESHOLD
+			|| lostSamples > rotationPackets * LOSS_THRESHOLD
+			|| device.rttMillis > RTT_THRESHOLD_MS;
+		if (congested) {
+			device.healthyIntervals = 0;
+			if (device.rate == FIRMWARE_DEFAULT)
+				device.ceiling = Math.max(observedRate, MIN_RATE);
+			int base = device.rate == FIRMWARE_DEFAULT
+				? observedRate
+				: Math.min(device.rate, observedRate);
+			int rate = Math.max((int) (base * DECREASE_FACTOR), MIN_RATE);
+			if (rate == device.rate || rate >= device.ceiling)
+				return UNCHANGED;
+			device.rate = rate;
+			return rate;
+		}
+		if (device.rate == FIRMWARE_DEFAULT)
+			return UNCHANGED;
+		if (++device.healthyIntervals < HEALTHY_INTERVALS)
+			return UNCHANGED;
+		device.healthyIntervals = 0;
+		int rate = device.rate + Math.max((int) (device.ceiling * INCREASE_FRACTION), 1);
+		device.rate = rate >= device.ceiling ? FIRMWARE_DEFAULT : rate;
+		return device.rate;
+	}
+
+	/**
+	 * Rate control state of a device. The observations are totals since the
+	 * device connected, to be set before every update.
+	 */
+	public static class Device {
+
+		public int sensors;
+		public long rotationPackets;
+		public long receivedPackets;
+		public long missingPackets;
+		public long rateLimitedPackets;
+		/**
+		 * Samples received but lost before the tick consuming them could
+		 * apply them
+		 */
+		public long lostSamples;
+		/**
+		 * Latest ping round-trip time, 0 if unknown
+		 */
+		public long rttMillis;
+
+		private boolean started = false;
+		private long lastRotationPackets;
+		private long lastReceivedPackets;
+		private long lastMissingPackets;
+		private long lastRateLimitedPackets;
+		private long lastLostSamples;
+		private int rate = FIRMWARE_DEFAULT;
+		/**
+		 * Rate observed when the device was first slowed down
+		 */
+		private int ceiling;
+		private int healthyIntervals;
+		private int unansweredRequests;
+		private boolean unresponsive = false;
+
+		/**
+		 * @return rate requested from the device, or
+		 * {@link UDPRateController#FIRMWARE_DEFAULT}
+		 */
+		public int getRequestedRate() {
+			return rate;
+		}
+
+		/**
+		 * @return the device ignored {@link #MAX_UNANSWERED_REQUESTS}
+		 * requests in a row and isn't sent any more
+		 */
+		public boolean isUnresponsive() {
+			return unresponsive;
+		}
+	}
+}
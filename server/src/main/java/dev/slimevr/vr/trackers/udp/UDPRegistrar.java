@@ -0,0 +1,79 @@
+package dev.slimevr.vr.trackers.udp;
+
+import io.eiren.util.logging.LogManager;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+
+/**
+ * Registration stage of {@link TrackersUDPServer}. The ingest workers
+ * acknowledge handshakes and sensor infos right away and queue the expensive
+ * part of setting up devices and trackers here: logging, reading the config,
+ * creating trackers and registering them with the server. Registered devices
+ * are then published back to the worker owning their address.
+ *
+ * Tasks run in order, with the registration lock held. When replaying a
+ * capture, they run synchronously on the submitting thread instead, so devices
+ * are registered at the same point of the replay every time.
+ */
+class UDPRegistrar extends Thread {
+
+	private final BlockingQueue<Task> tasks = new LinkedBlockingQueue<>();
+	private final Object registrationLock;
+	private volatile boolean synchronous = false;
+
+	UDPRegistrar(String name, Object registrationLock) {
+		super(name);
+		setDaemon(true);
+		this.registrationLock = registrationLock;
+	}
+
+	/**
+	 * Queues a registration task, or runs it right away if synchronous. Can
+	 * be called from any thread.
+	 */
+	void submit(Task task) {
+		if (synchronous)
+			runTask(task);
+		else
+			tasks.add(task);
+	}
+
+	/**
+	 * Runs tasks on the submitting thread from now on, the registrar thread
+	 * doesn't need to be started
+	 */
+	void setSynchronous(boolean synchronous) {
+		this.synchronous = synchronous;
+	}
+
+	@Override
+	public void run() {
+		while (!isInterrupted()) {
+			Task task;
+			try {
+				task = tasks.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			runTask(task);
+		}
+	}
+
+	private void runTask(Task task) {
+		try {
+			synchronized (registrationLock) {
+				task.run();
+			}
+		} catch (Exception e) {
+			LogManager.warning("[TrackerServer] Error registering device", e);
+		}
+	}
+
+	@FunctionalInterface
+	interface Task {
+
+		void run() throws Exception;
+	}
+}
@@ -0,0 +1,74 @@
+package dev.slimevr.vr.trackers.udp;
+
+import io.eiren.util.logging.LogManager;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Feeds a capture written by {@link UDPCaptureWriter} back to a handler,
+ * keeping the original spacing between datagrams scaled by a speed factor, or
+ * as fast as possible.
+ */
+public class UDPReplayDriver {
+
+	private final UDPCaptureReader reader;
+	private final double speed;
+
+	/**
+	 * @param speed replay speed relative to the capture, 0 or less to replay
+	 * as fast as possible
+	 */
+	public UDPReplayDriver(UDPCaptureReader reader, double speed) {
+		this.reader = reader;
+		this.speed = speed;
+	}
+
+	/**
+	 * Replays the capture until its end or until the calling thread is
+	 * interrupted.
+	 *
+	 * @return number of datagrams replayed
+	 */
+	public long run(DatagramHandler handler) throws IOException {
+		long datagrams = 0;
+		long firstCaptureTime = 0;
+		long start = System.nanoTime();
+		while (!Thread.currentThread().isInterrupted() && reader.next()) {
+			if (datagrams == 0)
+				firstCaptureTime = reader.getTimeNanos();
+			if (speed > 0) {
+				long due = start + (long) ((reader.getTimeNanos() - firstCaptureTime) / speed);
+				long wait;
+				while ((wait = due - System.nanoTime()) > 0) {
+					LockSupport.parkNanos(wait);
+					if (Thread.currentThread().isInterrupted())
+						return datagrams;
+				}
+			}
+			handler.onDatagram(reader.getSource(), reader.getDatagram());
+			datagrams++;
+		}
+		long elapsed = System.nanoTime() - start;
+		LogManager
+			.info(
+				"[TrackerServer] Replayed "
+					+ datagrams
+					+ " datagrams in "
+					+ elapsed / 1_000_000
+					+ " ms ("
+					+ (long) (datagrams * 1e9 / Math.max(elapsed, 1))
+					+ " datagrams/s)"
+			);
+		return datagrams;
+	}
+
+	@FunctionalInterface
+	public interface DatagramHandler {
+
+		void onDatagram(InetSocketAddress source, ByteBuffer datagram) throws IOException;
+	}
+}
@@ -146,6 +146,7 @@ public class WebSocketVRBridge extends WebsocketAPI implements Bridge {
 				);
 			internalHMDTracker.dataTick();
 			newHMDData.set(true);
+			server.wakeUp();
 
 			// Send tracker info in reply
 			for (int i = 0; i < internalTrackers.size(); ++i) {
@@ -170,8 +171,8 @@ public class WebSocketVRBridge extends WebsocketAPI implements Bridge {
 
 	private void parseAction(ObjectNode json, WebSocket conn) {
 		switch (json.get("name").asText()) {
-			case "calibrate" -> Main.getVrServer().resetTrackersYaw();
-			case "full_calibrate" -> Main.getVrServer().resetTrackers();
+			case "calibrate" -> Main.getVrServer().resetTrackersYaw(0);
+			case "full_calibrate" -> Main.getVrServer().resetTrackers(0);
 		}
 	}
 
@@ -0,0 +1,105 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.config.ConfigManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests the asynchronous saving of {@link ConfigManager}
+ */
+public class ConfigManagerTests {
+
+	@Test
+	public void savesAreCoalesced() throws Exception {
+		Path dir = Files.createTempDirectory("slimevr-config");
+		CountingConfigManager configManager = new CountingConfigManager(dir);
+		configManager.getVrConfig().getServer().setConfigSaveDelayMs(200);
+		for (int rate = 1; rate <= 5; ++rate) {
+			configManager.getVrConfig().getServer().setTickRate(rate);
+			configManager.saveConfig();
+		}
+		long waitUntil = System.currentTimeMillis() + 5000;
+		while (configManager.writes.get() == 0 && System.currentTimeMillis() < waitUntil)
+			Thread.sleep(10);
+		// Give a second write the time to happen if saves weren't coalesced
+		Thread.sleep(400);
+		assertEquals(1, configManager.writes.get());
+		assertTrue(configManager.read().contains("tickRate: 5"));
+	}
+
+	@Test
+	public void savesAreSerializedOnTheSnapshotExecutor() throws Exception {
+		Path dir = Files.createTempDirectory("slimevr-config");
+		CountingConfigManager configManager = new CountingConfigManager(dir);
+		Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+		configManager.setSnapshotExecutor(tasks::add);
+		configManager.getVrConfig().getServer().setConfigSaveDelayMs(50);
+		for (int rate = 1; rate <= 3; ++rate) {
+			configManager.getVrConfig().getServer().setTickRate(rate);
+			configManager.saveConfig();
+		}
+		long waitUntil = System.currentTimeMillis() + 5000;
+		while (tasks.isEmpty() && System.currentTimeMillis() < waitUntil)
+			Thread.sleep(10);
+		// Nothing is serialized or written until the executor runs the task
+		assertEquals(0, configManager.writes.get());
+		configManager.getVrConfig().getServer().setTickRate(4);
+		tasks.poll().run();
+		waitUntil = System.currentTimeMillis() + 5000;
+		while (configManager.writes.get() == 0 && System.currentTimeMillis() < waitUntil)
+			Thread.sleep(10);
+		assertEquals(1, configManager.writes.get());
+		assertTrue(configManager.read().contains("tickRate: 4"));
+		assertTrue(tasks.isEmpty());
+	}
+
+	@Test
+	public void flushWritesTheConfigRightAway() throws Exception {
+		Path dir = Files.createTempDirectory("slimevr-config");
+		CountingConfigManager configManager = new CountingConfigManager(dir);
+		configManager.getVrConfig().getServer().setConfigSaveDelayMs(60_000);
+		configManager.getVrConfig().getServer().setTickRate(7);
+		configManager.saveConfig();
+
+		configManager.flushConfig();
+		assertEquals(1, configManager.writes.get());
+		assertTrue(configManager.read().contains("tickRate: 7"));
+
+		// Nothing pending anymore
+		configManager.flushConfig();
+		assertEquals(1, configManager.writes.get());
+	}
+
+	private static class CountingConfigManager extends ConfigManager {
+
+		private final Path file;
+		private final AtomicInteger writes = new AtomicInteger();
+
+		CountingConfigManager(Path dir) {
+			super(dir.resolve("vrconfig.yml").toString());
+			this.file = dir.resolve("vrconfig.yml");
+			loadConfig();
+		}
+
+		@Override
+		protected void writeConfig(byte[] data) throws IOException {
+			super.writeConfig(data);
+			writes.incrementAndGet();
+		}
+
+		String read() throws IOException {
+			return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		}
+	}
+}
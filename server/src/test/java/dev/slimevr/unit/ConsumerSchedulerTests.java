@@ -0,0 +1,82 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.util.ConsumerScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * Tests {@link ConsumerScheduler}
+ */
+public class ConsumerSchedulerTests {
+
+	private static final long START = TimeUnit.SECONDS.toNanos(10);
+	private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	public void consumersRunAtTheirRate() {
+		ConsumerScheduler scheduler = new ConsumerScheduler(1000);
+		int[] runs = new int[3];
+		scheduler.add(START, 0, () -> runs[0]++);
+		scheduler.add(START, 100, () -> runs[1]++);
+		scheduler.add(START, 10, () -> runs[2]++);
+		for (int tick = 0; tick < 1000; ++tick) {
+			scheduler.run(START + tick * TICK_NANOS);
+		}
+		assertEquals(1000, runs[0]);
+		assertEquals(100, runs[1]);
+		assertEquals(10, runs[2]);
+	}
+
+	@Test
+	public void consumersWithTheSameRateAreStaggered() {
+		ConsumerScheduler scheduler = new ConsumerScheduler(1000);
+		int[] lastRunTick = new int[1];
+		int[] runsPerTick = new int[100];
+		int[] tick = new int[1];
+		for (int i = 0; i < 5; ++i) {
+			scheduler.add(START, 100, () -> {
+				runsPerTick[tick[0]]++;
+				lastRunTick[0] = tick[0];
+			});
+		}
+		for (; tick[0] < 100; ++tick[0]) {
+			scheduler.run(START + tick[0] * TICK_NANOS);
+		}
+		// One tick apart, each every 10 ticks
+		for (int i = 0; i < runsPerTick.length; ++i) {
+			assertEquals(i % 10 < 5 ? 1 : 0, runsPerTick[i], "Runs in tick " + i);
+		}
+		assertEquals(94, lastRunTick[0]);
+	}
+
+	@Test
+	public void lateConsumersSkipMissedPeriods() {
+		ConsumerScheduler scheduler = new ConsumerScheduler(1000);
+		int[] runs = new int[1];
+		scheduler.add(START, 100, () -> runs[0]++);
+		scheduler.run(START);
+		// Stalled for 10 periods, runs once instead of catching up
+		scheduler.run(START + TimeUnit.MILLISECONDS.toNanos(105));
+		scheduler.run(START + TimeUnit.MILLISECONDS.toNanos(106));
+		assertEquals(2, runs[0]);
+		// Keeps its phase
+		scheduler.run(START + TimeUnit.MILLISECONDS.toNanos(110));
+		assertEquals(3, runs[0]);
+	}
+
+	@Test
+	public void rateChangesApplyAtTheNextTick() {
+		ConsumerScheduler scheduler = new ConsumerScheduler(1000);
+		int[] runs = new int[1];
+		ConsumerScheduler.Registration registration = scheduler.add(START, 10, () -> runs[0]++);
+		registration.setRate(0);
+		for (int tick = 0; tick < 10; ++tick) {
+			scheduler.run(START + tick * TICK_NANOS);
+		}
+		assertEquals(10, runs[0]);
+	}
+}
@@ -0,0 +1,149 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.vr.trackers.udp.HashedTimerWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link HashedTimerWheel} with 8 buckets of 10 ns, starting at 0
+ */
+public class HashedTimerWheelTests {
+
+	private static final long TICK = 10;
+	private static final int SIZE = 8;
+
+	private final HashedTimerWheel wheel = new HashedTimerWheel(TICK, SIZE, 0);
+	private final List<String> expired = new ArrayList<>();
+
+	@Test
+	public void expiresOnTheTickOfTheDeadline() {
+		Named timeout = new Named("a");
+		wheel.schedule(timeout, 25);
+		wheel.advance(29);
+		assertEquals(List.of(), expired);
+		assertTrue(timeout.isScheduled());
+		wheel.advance(30);
+		assertEquals(List.of("a"), expired);
+		assertFalse(timeout.isScheduled());
+		assertEquals(40, wheel.nextTickNanos());
+	}
+
+	@Test
+	public void keepsDeadlinesBeyondATurnUntilTheirTurn() {
+		// Same bucket as a timeout due in the first turn
+		wheel.schedule(new Named("near"), 2 * TICK);
+		wheel.schedule(new Named("far"), (2 * SIZE + 2) * TICK);
+		wheel.advance((SIZE + 2) * TICK);
+		assertEquals(List.of("near"), expired);
+		wheel.advance((2 * SIZE + 1) * TICK);
+		assertEquals(List.of("near"), expired);
+		wheel.advance((2 * SIZE + 2) * TICK);
+		assertEquals(List.of("near", "far"), expired);
+	}
+
+	@Test
+	public void expiresTimeoutsOfATickInSchedulingOrder() {
+		wheel.schedule(new Named("a"), 3 * TICK);
+		// Ahead in the bucket but a turn later
+		wheel.schedule(new Named("later"), (SIZE + 3) * TICK);
+		wheel.schedule(new Named("b"), 3 * TICK - 5);
+		wheel.schedule(new Named("c"), 3 * TICK);
+		wheel.advance(3 * TICK);
+		assertEquals(List.of("a", "b", "c"), expired);
+	}
+
+	@Test
+	public void expiresPassedDeadlinesOnTheNextTick() {
+		wheel.advance(5 * TICK);
+		wheel.schedule(new Named("late"), TICK);
+		wheel.advance(5 * TICK + 5);
+		assertEquals(List.of(), expired);
+		wheel.advance(6 * TICK);
+		assertEquals(List.of("late"), expired);
+	}
+
+	@Test
+	public void timeoutsCanRescheduleWhileExpiring() {
+		Named repeating = new Named("repeating") {
+			@Override
+			protected void expire() {
+				super.expire();
+				// Lands in the same bucket, must wait for the next turn
+				wheel.schedule(this, wheel.nextTickNanos() + (SIZE - 1) * TICK);
+			}
+		};
+		wheel.schedule(repeating, TICK);
+		wheel.advance(TICK);
+		assertEquals(1, expired.size());
+		assertTrue(repeating.isScheduled());
+		wheel.advance(SIZE * TICK);
+		assertEquals(1, expired.size());
+		wheel.advance((SIZE + 1) * TICK);
+		assertEquals(2, expired.size());
+		wheel.advance((3 * SIZE + 1) * TICK);
+		assertEquals(4, expired.size());
+	}
+
+	@Test
+	public void cancelledTimeoutsDontExpire() {
+		Named a = new Named("a");
+		Named b = new Named("b");
+		Named c = new Named("c");
+		wheel.schedule(a, 2 * TICK);
+		wheel.schedule(b, 2 * TICK);
+		wheel.schedule(c, 2 * TICK);
+		assertTrue(wheel.cancel(b));
+		assertFalse(b.isScheduled());
+		assertFalse(wheel.cancel(b));
+		wheel.advance(2 * TICK);
+		assertEquals(List.of("a", "c"), expired);
+		assertFalse(wheel.cancel(a));
+
+		// Can be scheduled again once cancelled
+		wheel.schedule(b, 4 * TICK);
+		wheel.advance(4 * TICK);
+		assertEquals(List.of("a", "c", "b"), expired);
+	}
+
+	@Test
+	public void timeoutsCanCancelOthersDueOnTheSameTick() {
+		Named victim = new Named("victim");
+		Named canceller = new Named("canceller") {
+			@Override
+			protected void expire() {
+				super.expire();
+				assertTrue(wheel.cancel(victim));
+				// Rescheduling it mustn't resurrect the rest of the tick
+				wheel.schedule(victim, wheel.nextTickNanos() + TICK);
+			}
+		};
+		wheel.schedule(canceller, TICK);
+		wheel.schedule(victim, TICK);
+		wheel.schedule(new Named("last"), TICK);
+		wheel.advance(TICK);
+		assertEquals(List.of("canceller", "last"), expired);
+		wheel.advance(3 * TICK);
+		assertEquals(List.of("canceller", "last", "victim"), expired);
+	}
+
+	private class Named extends HashedTimerWheel.Timeout {
+
+		private final String name;
+
+		Named(String name) {
+			this.name = name;
+		}
+
+		@Override
+		protected void expire() {
+			expired.add(name);
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.vr.trackers.udp.IPv4ConnectionTable;
+import dev.slimevr.vr.trackers.udp.UDPDevice;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+/**
+ * Tests {@link IPv4ConnectionTable}
+ */
+public class IPv4ConnectionTableTests {
+
+	private static final int CAPACITY = 8;
+
+	@Test
+	public void collidingAddressesFollowTheProbeChain() {
+		IPv4ConnectionTable table = new IPv4ConnectionTable(CAPACITY);
+		// Chain wrapping around the end of the table
+		int[] chain = addressesWithHomeSlot(CAPACITY - 1, 3);
+		UDPDevice[] devices = new UDPDevice[chain.length];
+		for (int i = 0; i < chain.length; ++i) {
+			devices[i] = device();
+			table.put(chain[i], devices[i]);
+		}
+		assertEquals(CAPACITY, table.getCapacity());
+		for (int i = 0; i < chain.length; ++i) {
+			assertSame(devices[i], table.get(chain[i]));
+		}
+		assertNull(table.get(addressesWithHomeSlot(CAPACITY - 1, 4)[3]));
+	}
+
+	@Test
+	public void removalInTheMiddleOfAChainKeepsTheRestReachable() {
+		IPv4ConnectionTable table = new IPv4ConnectionTable(CAPACITY);
+		int[] chain = addressesWithHomeSlot(CAPACITY - 1, 3);
+		// Home slot 0 is taken by the chain, so it lands after it
+		int next = addressesWithHomeSlot(0, 1)[0];
+		UDPDevice first = device();
+		UDPDevice second = device();
+		UDPDevice third = device();
+		UDPDevice fourth = device();
+		table.put(chain[0], first);
+		table.put(chain[1], second);
+		table.put(chain[2], third);
+		table.put(next, fourth);
+
+		table.remove(chain[1]);
+		assertEquals(3, table.size());
+		assertSame(first, table.get(chain[0]));
+		assertNull(table.get(chain[1]));
+		assertSame(third, table.get(chain[2]));
+		assertSame(fourth, table.get(next));
+
+		// Every following entry shifts back past the end of the table
+		table.remove(chain[0]);
+		assertEquals(2, table.size());
+		assertNull(table.get(chain[0]));
+		assertSame(third, table.get(chain[2]));
+		assertSame(fourth, table.get(next));
+
+		// Removing an address that isn't there changes nothing
+		table.remove(chain[1]);
+		assertEquals(2, table.size());
+		table.put(chain[1], second);
+		assertSame(second, table.get(chain[1]));
+		assertEquals(3, table.size());
+	}
+
+	@Test
+	public void replacesTheConnectionOfAnAddress() {
+		IPv4ConnectionTable table = new IPv4ConnectionTable(CAPACITY);
+		int[] chain = addressesWithHomeSlot(3, 2);
+		table.put(chain[0], device());
+		table.put(chain[1], device());
+		UDPDevice replacement = device();
+		table.put(chain[1], replacement);
+		assertSame(replacement, table.get(chain[1]));
+		assertEquals(2, table.size());
+	}
+
+	@Test
+	public void growsPastHalfFull() {
+		IPv4ConnectionTable table = new IPv4ConnectionTable(CAPACITY);
+		Map<Integer, UDPDevice> expected = new HashMap<>();
+		for (int i = 0; i < CAPACITY / 2; ++i) {
+			UDPDevice device = device();
+			table.put(0x0A000000 + i, device);
+			expected.put(0x0A000000 + i, device);
+		}
+		assertEquals(CAPACITY, table.getCapacity());
+		for (int i = CAPACITY / 2; i < 100; ++i) {
+			UDPDevice device = device();
+			table.put(0x0A000000 + i, device);
+			expected.put(0x0A000000 + i, device);
+		}
+		assertEquals(256, table.getCapacity());
+		assertEquals(100, table.size());
+		expected.forEach((address, device) -> assertSame(device, table.get(address)));
+	}
+
+	@Test
+	public void matchesAMapUnderRandomChanges() {
+		IPv4ConnectionTable table = new IPv4ConnectionTable(CAPACITY);
+		Map<Integer, UDPDevice> expected = new HashMap<>();
+		Random random = new Random(42);
+		// Few addresses, so chains are long and get removed from often
+		for (int i = 0; i < 10_000; ++i) {
+			int address = 0xC0A80000 + random.nextInt(32);
+			if (random.nextBoolean()) {
+				UDPDevice device = device();
+				table.put(address, device);
+				expected.put(address, device);
+			} else {
+				table.remove(address);
+				expected.remove(address);
+			}
+			assertEquals(expected.size(), table.size());
+			for (int a = 0; a < 32; ++a) {
+				assertSame(expected.get(0xC0A80000 + a), table.get(0xC0A80000 + a));
+			}
+		}
+	}
+
+	private static int[] addressesWithHomeSlot(int slot, int count) {
+		int[] addresses = new int[count];
+		int found = 0;
+		for (int address = 0x0A000001; found < count; ++address) {
+			if (IPv4ConnectionTable.homeSlot(address, CAPACITY) == slot)
+				addresses[found++] = address;
+		}
+		return addresses;
+	}
+
+	private static UDPDevice device() {
+		return new UDPDevice(null, null);
+	}
+}
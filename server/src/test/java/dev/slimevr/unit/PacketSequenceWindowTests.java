@@ -0,0 +1,49 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.vr.trackers.udp.PacketSequenceWindow;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * Tests {@link PacketSequenceWindow}
+ */
+public class PacketSequenceWindowTests {
+
+	@Test
+	public void classifiesPackets() {
+		PacketSequenceWindow window = new PacketSequenceWindow();
+		assertEquals(PacketSequenceWindow.NEXT, window.accept(10));
+		assertEquals(PacketSequenceWindow.NEXT, window.accept(11));
+		assertEquals(PacketSequenceWindow.GAP, window.accept(15));
+		assertEquals(3, window.getLastGap());
+		assertEquals(PacketSequenceWindow.LATE, window.accept(13));
+		assertEquals(PacketSequenceWindow.DUPLICATE, window.accept(13));
+		assertEquals(PacketSequenceWindow.DUPLICATE, window.accept(15));
+		assertEquals(PacketSequenceWindow.DUPLICATE, window.accept(11));
+		assertEquals(PacketSequenceWindow.NEXT, window.accept(16));
+		assertEquals(16, window.getNewest());
+	}
+
+	@Test
+	public void packetsOutsideWindowAreLate() {
+		PacketSequenceWindow window = new PacketSequenceWindow();
+		window.accept(1);
+		assertEquals(PacketSequenceWindow.GAP, window.accept(1000));
+		assertEquals(PacketSequenceWindow.LATE, window.accept(1));
+		assertEquals(PacketSequenceWindow.LATE, window.accept(1000 - PacketSequenceWindow.WINDOW_SIZE));
+	}
+
+	@Test
+	public void zeroAndResetRestartTheSequence() {
+		PacketSequenceWindow window = new PacketSequenceWindow();
+		window.accept(500);
+		assertEquals(PacketSequenceWindow.NEXT, window.accept(0));
+		assertEquals(PacketSequenceWindow.NEXT, window.accept(1));
+		window.accept(500);
+		window.reset();
+		assertEquals(PacketSequenceWindow.NEXT, window.accept(3));
+		assertEquals(PacketSequenceWindow.NEXT, window.accept(4));
+	}
+}
@@ -0,0 +1,116 @@
+package dev.slimevr.unit;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import dev.slimevr.vr.processor.PerformerPose;
+import dev.slimevr.vr.trackers.ComputedTracker;
+import dev.slimevr.vr.trackers.Tracker;
+import dev.slimevr.vr.trackers.TrackerPose;
+import dev.slimevr.vr.trackers.TrackerRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link PerformerPose}
+ */
+public class PerformerPoseTests {
+
+	@Test
+	public void publishesTheTrackersOfASecondPerformer() {
+		TrackerRegistry registry = new TrackerRegistry();
+		ComputedTracker first = new ComputedTracker(1, "first", true, true);
+		ComputedTracker second = new ComputedTracker(2, "second", true, true);
+		registry.add(first, 0);
+		registry.add(second, 1);
+		second.rotation.fromAngles(0, 1, 0);
+		second.position.set(1, 2, 3);
+
+		PerformerPose pose = new PerformerPose();
+		pose.publish(registry.getSnapshot().getPerformerTrackers(1));
+		// Written by the performer's thread after publishing
+		second.rotation.fromAngles(0, 2, 0);
+		second.position.set(4, 5, 6);
+
+		TrackerPose trackerPose = new TrackerPose();
+		assertFalse(pose.get(first, trackerPose));
+		assertTrue(pose.get(second, trackerPose));
+		Quaternion rotation = new Quaternion();
+		assertTrue(trackerPose.getRotation(rotation));
+		assertEquals(new Quaternion().fromAngles(0, 1, 0), rotation);
+		Vector3f position = new Vector3f();
+		assertTrue(trackerPose.getPosition(position));
+		assertEquals(new Vector3f(1, 2, 3), position);
+		Vector3f acceleration = new Vector3f(1, 1, 1);
+		assertFalse(trackerPose.getAcceleration(acceleration));
+		assertEquals(Vector3f.ZERO, acceleration);
+		assertFalse(trackerPose.getIdentityAdjustedRotation(rotation));
+	}
+
+	@Test
+	public void followsTrackersAddedAndRemoved() {
+		ComputedTracker first = new ComputedTracker(1, "first", true, true);
+		ComputedTracker second = new ComputedTracker(2, "second", true, true);
+		PerformerPose pose = new PerformerPose();
+		TrackerPose trackerPose = new TrackerPose();
+		Vector3f position = new Vector3f();
+		assertFalse(pose.get(first, trackerPose));
+
+		for (int i = 0; i < 3; ++i) {
+			first.position.set(i, 0, 0);
+			pose.publish(List.of(first));
+			assertTrue(pose.get(first, trackerPose));
+			trackerPose.getPosition(position);
+			assertEquals(i, position.x);
+			assertFalse(pose.get(second, trackerPose));
+		}
+
+		List<Tracker> both = List.of(first, second);
+		second.position.set(0, 1, 0);
+		pose.publish(both);
+		pose.publish(both);
+		assertTrue(pose.get(second, trackerPose));
+		trackerPose.getPosition(position);
+		assertEquals(1, position.y);
+
+		pose.publish(List.of(second));
+		assertFalse(pose.get(first, trackerPose));
+		assertTrue(pose.get(second, trackerPose));
+	}
+
+	@Test
+	public void readersNeverSeeAHalfWrittenPose() throws InterruptedException {
+		ComputedTracker tracker = new ComputedTracker(1, "tracker", true, true);
+		List<Tracker> trackers = List.of(tracker);
+		PerformerPose pose = new PerformerPose();
+		pose.publish(trackers);
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread writer = new Thread(() -> {
+			// Every published position has equal coordinates
+			for (int i = 0; running.get(); ++i) {
+				tracker.position.set(i, i, i);
+				pose.publish(trackers);
+			}
+		});
+		writer.start();
+		try {
+			TrackerPose trackerPose = new TrackerPose();
+			Vector3f position = new Vector3f();
+			for (int i = 0; i < 200_000; ++i) {
+				assertTrue(pose.get(tracker, trackerPose));
+				trackerPose.getPosition(position);
+				assertEquals(position.x, position.y, 0);
+				assertEquals(position.x, position.z, 0);
+			}
+		} finally {
+			running.set(false);
+			writer.join();
+		}
+	}
+}
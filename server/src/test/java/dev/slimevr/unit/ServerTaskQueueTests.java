@@ -0,0 +1,109 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.util.MpscArrayQueue;
+import dev.slimevr.util.ServerTaskQueue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link MpscArrayQueue} and {@link ServerTaskQueue}
+ */
+public class ServerTaskQueueTests {
+
+	@Test
+	public void queueIsBounded() {
+		MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(4);
+		for (int i = 0; i < 4; ++i) {
+			assertTrue(queue.offer(i));
+		}
+		assertFalse(queue.offer(4));
+		assertEquals(0, (int) queue.poll());
+		assertTrue(queue.offer(4));
+		for (int i = 1; i <= 4; ++i) {
+			assertEquals(i, (int) queue.poll());
+		}
+		assertNull(queue.poll());
+	}
+
+	@Test
+	public void concurrentProducersKeepTheirOrder() throws InterruptedException {
+		MpscArrayQueue<long[]> queue = new MpscArrayQueue<>(64);
+		int producers = 4;
+		int count = 100_000;
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; ++p) {
+			long producer = p;
+			Thread thread = new Thread(() -> {
+				for (long i = 0; i < count; ++i) {
+					long[] element = { producer, i };
+					while (!queue.offer(element))
+						Thread.yield();
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		long[] next = new long[producers];
+		long received = 0;
+		while (received < (long) producers * count) {
+			long[] element = queue.poll();
+			if (element == null) {
+				Thread.yield();
+				continue;
+			}
+			assertEquals(next[(int) element[0]]++, element[1]);
+			received++;
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertNull(queue.poll());
+	}
+
+	@Test
+	public void criticalTasksRunBeforeBackgroundTasks() {
+		ServerTaskQueue tasks = new ServerTaskQueue(16, 16);
+		List<String> ran = new ArrayList<>();
+		tasks.addBackground(() -> {
+			ran.add("background 1");
+			tasks.addCritical(() -> ran.add("critical 2"));
+		});
+		tasks.addBackground(() -> ran.add("background 2"));
+		tasks.addCritical(() -> ran.add("critical 1"));
+		tasks.runTasks(Long.MAX_VALUE);
+		assertEquals(List.of("critical 1", "background 1", "critical 2", "background 2"), ran);
+	}
+
+	@Test
+	public void backgroundTasksStopAtBudget() {
+		ServerTaskQueue tasks = new ServerTaskQueue(16, 16);
+		int[] ran = { 0 };
+		for (int i = 0; i < 10; ++i) {
+			tasks.addBackground(() -> ran[0]++);
+		}
+		// At least one task runs per tick
+		tasks.runTasks(0);
+		assertEquals(1, ran[0]);
+		tasks.runTasks(Long.MAX_VALUE);
+		assertEquals(10, ran[0]);
+	}
+
+	@Test
+	public void fullLaneSpillsOver() {
+		ServerTaskQueue tasks = new ServerTaskQueue(2, 2);
+		int[] ran = { 0 };
+		for (int i = 0; i < 10; ++i) {
+			tasks.addCritical(() -> ran[0]++);
+		}
+		tasks.runTasks(0);
+		assertEquals(10, ran[0]);
+	}
+}
@@ -0,0 +1,49 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.util.Clock;
+import dev.slimevr.util.SimulatedClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * Tests {@link SimulatedClock} and setting it as the {@link Clock}
+ */
+public class SimulatedClockTests {
+
+	@Test
+	public void onlyMovesWhenAdvanced() {
+		SimulatedClock clock = new SimulatedClock(1000);
+		assertEquals(0, clock.nanos());
+		assertEquals(1000, clock.millis());
+
+		clock.advance(5, TimeUnit.MILLISECONDS);
+		clock.advanceNanos(500);
+		assertEquals(5_000_500, clock.nanos());
+		assertEquals(1005, clock.millis());
+
+		clock.setNanos(2_000_000_000L);
+		assertEquals(3000, clock.millis());
+		assertThrows(IllegalArgumentException.class, () -> clock.setNanos(0));
+		assertThrows(IllegalArgumentException.class, () -> clock.advanceNanos(-1));
+	}
+
+	@Test
+	public void replacesTheSystemClock() {
+		SimulatedClock clock = new SimulatedClock(0);
+		Clock.set(clock);
+		try {
+			clock.advance(1, TimeUnit.SECONDS);
+			assertEquals(1_000_000_000L, Clock.nanoTime());
+			assertEquals(1000, Clock.currentTimeMillis());
+		} finally {
+			Clock.set(null);
+		}
+		assertSame(Clock.SYSTEM, Clock.get());
+	}
+}
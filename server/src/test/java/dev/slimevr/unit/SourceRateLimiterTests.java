@@ -0,0 +1,45 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.vr.trackers.udp.SourceRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link SourceRateLimiter}
+ */
+public class SourceRateLimiterTests {
+
+	private static final long START = TimeUnit.SECONDS.toNanos(1000);
+	// 10.0.0.1 and 10.0.0.2, in different slots of a table of 256
+	private static final int FIRST = 0x0A000001;
+	private static final int SECOND = 0x0A000002;
+
+	@Test
+	public void limitsEachSource() {
+		SourceRateLimiter limiter = new SourceRateLimiter(256, 10, 2);
+		assertTrue(limiter.tryAcquire(FIRST, START));
+		assertTrue(limiter.tryAcquire(FIRST, START));
+		assertFalse(limiter.tryAcquire(FIRST, START));
+		// Another source still has its budget
+		assertTrue(limiter.tryAcquire(SECOND, START));
+		assertTrue(limiter.tryAcquire(FIRST, START + TimeUnit.MILLISECONDS.toNanos(100)));
+	}
+
+	@Test
+	public void rotatingSourcesShareTheBudget() {
+		SourceRateLimiter limiter = new SourceRateLimiter(4, 10, 2);
+		int accepted = 0;
+		// A flood from a new address every datagram
+		for (int source = 0; source < 1000; ++source) {
+			if (limiter.tryAcquire(0x0A000000 + source, START))
+				accepted++;
+		}
+		assertEquals(4 * 2, accepted);
+	}
+}
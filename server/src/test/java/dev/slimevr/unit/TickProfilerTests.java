@@ -0,0 +1,76 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.util.SimulatedClock;
+import dev.slimevr.util.TickProfiler;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * Tests {@link TickProfiler} on a {@link SimulatedClock}
+ */
+public class TickProfilerTests {
+
+	private static final float[] PERCENTILES = { 0, 0.5f, 0.95f, 0.99f, 1 };
+
+	@Test
+	public void computesPercentilesOfEachPhase() {
+		SimulatedClock clock = new SimulatedClock(0);
+		TickProfiler profiler = new TickProfiler(clock);
+		long[] store = new long[PERCENTILES.length];
+		profiler.getPercentiles(TickProfiler.TASKS, PERCENTILES, store);
+		assertArrayEquals(new long[PERCENTILES.length], store);
+
+		// Tick i spends i ms in tasks and 1 ms in the consumers
+		for (int i = 100; i >= 1; --i) {
+			profiler.startTick();
+			clock.advance(i, TimeUnit.MILLISECONDS);
+			profiler.endPhase(TickProfiler.TASKS);
+			clock.advance(1, TimeUnit.MILLISECONDS);
+			profiler.endPhase(TickProfiler.CONSUMERS);
+			profiler.endTick();
+		}
+		assertEquals(100, profiler.getTicks());
+
+		profiler.getPercentiles(TickProfiler.TASKS, PERCENTILES, store);
+		assertArrayEquals(millis(1, 50, 95, 99, 100), store);
+		profiler.getPercentiles(TickProfiler.CONSUMERS, PERCENTILES, store);
+		assertArrayEquals(millis(1, 1, 1, 1, 1), store);
+		profiler.getPercentiles(TickProfiler.TOTAL, PERCENTILES, store);
+		assertArrayEquals(millis(2, 51, 96, 100, 101), store);
+	}
+
+	@Test
+	public void keepsOnlyTheLastWindowOfTicks() {
+		SimulatedClock clock = new SimulatedClock(0);
+		TickProfiler profiler = new TickProfiler(clock);
+		int ticks = TickProfiler.WINDOW + TickProfiler.WINDOW / 2;
+		// Tick i takes i + 1 us
+		for (int i = 0; i < ticks; ++i) {
+			profiler.startTick();
+			clock.advance(i + 1, TimeUnit.MICROSECONDS);
+			profiler.endPhase(TickProfiler.TASKS);
+			profiler.endTick();
+		}
+
+		long[] store = new long[PERCENTILES.length];
+		profiler.getPercentiles(TickProfiler.TASKS, PERCENTILES, store);
+		// The window holds ticks 512 to 1535, taking 513 to 1536 us
+		long[] expected = { 513, 1024, 1485, 1526, 1536 };
+		for (int i = 0; i < expected.length; ++i) {
+			expected[i] = TimeUnit.MICROSECONDS.toNanos(expected[i]);
+		}
+		assertArrayEquals(expected, store);
+	}
+
+	private static long[] millis(long... values) {
+		for (int i = 0; i < values.length; ++i) {
+			values[i] = TimeUnit.MILLISECONDS.toNanos(values[i]);
+		}
+		return values;
+	}
+}
@@ -0,0 +1,132 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.util.SimulatedClock;
+import dev.slimevr.util.TickScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link TickScheduler}, on a {@link SimulatedClock} unless checking
+ * that it paces a real thread
+ */
+public class TickSchedulerTests {
+
+	private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	public void keepsTargetRate() {
+		SimulatedClock clock = new SimulatedClock(0);
+		TickScheduler scheduler = new TickScheduler(500, 0, clock);
+		scheduler.awaitNextTick();
+		assertEquals(0, clock.nanos());
+		for (int i = 0; i < 600; ++i) {
+			scheduler.awaitNextTick();
+		}
+		assertEquals(600 * 2 * MS, clock.nanos());
+		assertEquals(601, scheduler.getTicks());
+		assertEquals(500, scheduler.getAchievedRate(), 1);
+		assertEquals(0, scheduler.getOverruns());
+		assertEquals(601, scheduler.getJitterCount(0));
+	}
+
+	@Test
+	public void skipsTicksMissedByOverrun() {
+		SimulatedClock clock = new SimulatedClock(0);
+		TickScheduler scheduler = new TickScheduler(1000, 0, clock);
+		scheduler.awaitNextTick();
+		clock.advanceNanos(10 * MS + 500_000);
+		scheduler.awaitNextTick();
+		// Starts right away instead of catching up
+		assertEquals(10 * MS + 500_000, clock.nanos());
+		assertEquals(1, scheduler.getOverruns());
+		assertEquals(9, scheduler.getSkippedTicks());
+		// 500 us late
+		assertEquals(1, scheduler.getJitterCount(4));
+		// Back on the schedule of the first tick
+		scheduler.awaitNextTick();
+		assertEquals(11 * MS, clock.nanos());
+		assertEquals(1, scheduler.getOverruns());
+	}
+
+	@Test
+	public void eventDrivenTicksFollowSignals() {
+		SimulatedClock clock = new SimulatedClock(0);
+		TickScheduler scheduler = new TickScheduler(1000, 50, clock);
+		scheduler.awaitNextTick();
+		// Not signalled, ticks once per max idle interval
+		scheduler.awaitNextTick();
+		assertEquals(50 * MS, clock.nanos());
+
+		clock.advanceNanos(10 * MS);
+		scheduler.signal();
+		scheduler.awaitNextTick();
+		assertEquals(60 * MS, clock.nanos());
+
+		// At most at the target rate
+		scheduler.signal();
+		scheduler.awaitNextTick();
+		assertEquals(61 * MS, clock.nanos());
+		assertEquals(4, scheduler.getTicks());
+		assertEquals(4, scheduler.getJitterCount(0));
+	}
+
+	@Test
+	public void idleTicksSlowDownUntilSignalled() {
+		SimulatedClock clock = new SimulatedClock(0);
+		TickScheduler scheduler = new TickScheduler(1000, 0, clock);
+		scheduler.setIdleRate(20);
+		scheduler.awaitNextTick();
+		scheduler.setIdle(true);
+		scheduler.awaitNextTick();
+		assertEquals(50 * MS, clock.nanos());
+		assertTrue(scheduler.isIdle());
+
+		scheduler.signal();
+		assertFalse(scheduler.isIdle());
+		// Back to the full rate without counting the idle time as skipped
+		scheduler.awaitNextTick();
+		assertEquals(51 * MS, clock.nanos());
+		assertEquals(0, scheduler.getSkippedTicks());
+		assertEquals(0, scheduler.getOverruns());
+	}
+
+	@Test
+	public void pacesARealThread() throws InterruptedException {
+		TickScheduler scheduler = new TickScheduler(200);
+		scheduler.awaitNextTick();
+		long start = System.nanoTime();
+		for (int i = 0; i < 20; ++i) {
+			scheduler.awaitNextTick();
+		}
+		long elapsed = System.nanoTime() - start;
+		// Never early, only loosely bounded as the thread can be descheduled
+		assertTrue(elapsed >= 19 * 5 * MS, "20 ticks took " + elapsed / MS + " ms");
+		assertTrue(
+			elapsed < TimeUnit.SECONDS.toNanos(5),
+			"20 ticks took " + elapsed / MS + " ms"
+		);
+
+		TickScheduler eventDriven = new TickScheduler(1000, 10_000);
+		eventDriven.awaitNextTick();
+		Thread signaller = new Thread(() -> {
+			LockSupport.parkNanos(10 * MS);
+			eventDriven.signal();
+		});
+		start = System.nanoTime();
+		signaller.start();
+		eventDriven.awaitNextTick();
+		long woken = System.nanoTime() - start;
+		signaller.join();
+		assertTrue(
+			woken < TimeUnit.SECONDS.toNanos(5),
+			"Signalled tick after " + woken / MS + " ms"
+		);
+	}
+}
@@ -0,0 +1,59 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.vr.trackers.udp.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link TokenBucket}
+ */
+public class TokenBucketTests {
+
+	private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final long START = TimeUnit.SECONDS.toNanos(1000);
+
+	@Test
+	public void startsFullWhateverTheFirstTime() {
+		TokenBucket bucket = new TokenBucket(10, 3);
+		// The time before the first call isn't refilled
+		assertEquals(3, acquire(bucket, START, 10));
+		assertFalse(bucket.tryAcquire(START));
+	}
+
+	@Test
+	public void refillsAtTheRate() {
+		TokenBucket bucket = new TokenBucket(10, 3);
+		assertEquals(3, acquire(bucket, START, 3));
+		assertFalse(bucket.tryAcquire(START + 99 * MS));
+		assertTrue(bucket.tryAcquire(START + 100 * MS));
+		assertFalse(bucket.tryAcquire(START + 100 * MS));
+		// Partial refills add up
+		assertFalse(bucket.tryAcquire(START + 150 * MS));
+		assertTrue(bucket.tryAcquire(START + 200 * MS));
+	}
+
+	@Test
+	public void refillIsCappedAtTheBurst() {
+		TokenBucket bucket = new TokenBucket(10, 3);
+		assertEquals(3, acquire(bucket, START, 3));
+		assertEquals(3, acquire(bucket, START + TimeUnit.SECONDS.toNanos(60), 10));
+		// Time going backwards doesn't take tokens away
+		assertFalse(bucket.tryAcquire(START));
+		assertTrue(bucket.tryAcquire(START + TimeUnit.SECONDS.toNanos(60) + 100 * MS));
+	}
+
+	private static int acquire(TokenBucket bucket, long now, int attempts) {
+		int acquired = 0;
+		for (int i = 0; i < attempts; ++i) {
+			if (bucket.tryAcquire(now))
+				acquired++;
+		}
+		return acquired;
+	}
+}
@@ -0,0 +1,91 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.vr.trackers.TrackerJitterBuffer;
+import dev.slimevr.vr.trackers.TrackerSampleBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link TrackerJitterBuffer}
+ */
+public class TrackerJitterBufferTests {
+
+	private static final long MS = 1_000_000L;
+
+	private final TrackerSampleBuffer.Sample sample = new TrackerSampleBuffer.Sample();
+	private final TrackerSampleBuffer.Sample overflow = new TrackerSampleBuffer.Sample();
+
+	private void offer(TrackerJitterBuffer buffer, long time, int info) {
+		sample.type = TrackerSampleBuffer.TYPE_ROTATION;
+		sample.timeNanos = time;
+		sample.info = info;
+		assertTrue(buffer.offer(sample, overflow));
+	}
+
+	@Test
+	public void samplesAreHeldForTheTargetDelay() {
+		TrackerJitterBuffer buffer = new TrackerJitterBuffer(20 * MS, 8);
+		offer(buffer, 100 * MS, 1);
+		assertFalse(buffer.poll(119 * MS, sample));
+		assertTrue(buffer.poll(120 * MS, sample));
+		assertEquals(1, sample.info);
+		assertFalse(buffer.poll(200 * MS, sample));
+	}
+
+	@Test
+	public void burstsAreSpacedOut() {
+		TrackerJitterBuffer buffer = new TrackerJitterBuffer(20 * MS, 8);
+		// Steady 10 ms cadence, long enough for the estimate to settle
+		for (int i = 0; i < 32; ++i) {
+			offer(buffer, (100 + i * 10) * MS, i);
+			assertTrue(buffer.poll((120 + i * 10) * MS, sample));
+			assertEquals(i, sample.info);
+		}
+		// Four samples arriving at once
+		for (int i = 32; i < 36; ++i) {
+			offer(buffer, 420 * MS, i);
+		}
+		assertTrue(buffer.poll(440 * MS, sample));
+		assertEquals(32, sample.info);
+		assertFalse(buffer.poll(445 * MS, sample));
+		assertTrue(buffer.poll(455 * MS, sample));
+		assertEquals(33, sample.info);
+		assertFalse(buffer.poll(455 * MS, sample));
+		// Never held for more than twice the target delay
+		assertTrue(buffer.poll(460 * MS, sample));
+		assertEquals(34, sample.info);
+		assertTrue(buffer.poll(460 * MS, sample));
+		assertEquals(35, sample.info);
+	}
+
+	@Test
+	public void pausesDontDelayTheFollowingSamples() {
+		TrackerJitterBuffer buffer = new TrackerJitterBuffer(20 * MS, 8);
+		offer(buffer, 100 * MS, 0);
+		assertTrue(buffer.poll(120 * MS, sample));
+		// Streaming at a 10 ms cadence after a second without samples
+		for (int i = 1; i < 64; ++i) {
+			long arrival = (1090 + i * 10) * MS;
+			offer(buffer, arrival, i);
+			assertFalse(buffer.poll(arrival + 20 * MS - 1, sample));
+			assertTrue(buffer.poll(arrival + 20 * MS, sample));
+			assertEquals(i, sample.info);
+		}
+	}
+
+	@Test
+	public void overflowReleasesOldestSample() {
+		TrackerJitterBuffer buffer = new TrackerJitterBuffer(20 * MS, 2);
+		offer(buffer, 100 * MS, 1);
+		offer(buffer, 101 * MS, 2);
+		sample.timeNanos = 102 * MS;
+		sample.info = 3;
+		assertFalse(buffer.offer(sample, overflow));
+		assertEquals(1, overflow.info);
+		assertEquals(1, buffer.getOverflowSamples());
+	}
+}
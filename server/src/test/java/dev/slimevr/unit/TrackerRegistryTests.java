@@ -0,0 +1,85 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.vr.Device;
+import dev.slimevr.vr.trackers.ComputedTracker;
+import dev.slimevr.vr.trackers.TrackerPosition;
+import dev.slimevr.vr.trackers.TrackerRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link TrackerRegistry}
+ */
+public class TrackerRegistryTests {
+
+	@Test
+	public void looksUpTrackers() {
+		TrackerRegistry registry = new TrackerRegistry();
+		Device device = new Device();
+		ComputedTracker synthetic = new ComputedTracker(1, "synthetic", true, true);
+		ComputedTracker physical = new ComputedTracker(
+			1,
+			"physical",
+			"physical",
+			true,
+			true,
+			device
+		);
+		synthetic.bodyPosition = TrackerPosition.HMD;
+		registry.add(synthetic);
+		registry.add(physical);
+
+		TrackerRegistry.Snapshot snapshot = registry.getSnapshot();
+		assertEquals(2, snapshot.getVersion());
+		assertEquals(List.of(synthetic, physical), snapshot.getTrackers());
+		assertEquals(List.of(synthetic), snapshot.getSyntheticTrackers());
+		assertSame(synthetic, snapshot.getTracker(TrackerRegistry.NO_DEVICE, 1));
+		assertSame(physical, snapshot.getTracker(device.getId(), 1));
+		assertNull(snapshot.getTracker(device.getId(), 2));
+		assertEquals(List.of(physical), snapshot.getTrackers(device));
+		assertEquals(List.of(synthetic), snapshot.getTrackers(TrackerPosition.HMD));
+		assertTrue(snapshot.getTrackers(TrackerPosition.WAIST).isEmpty());
+	}
+
+	@Test
+	public void snapshotsAreImmutable() {
+		TrackerRegistry registry = new TrackerRegistry();
+		ComputedTracker tracker = new ComputedTracker(1, "tracker", true, true);
+		registry.add(tracker);
+		TrackerRegistry.Snapshot before = registry.getSnapshot();
+
+		tracker.bodyPosition = TrackerPosition.WAIST;
+		registry.refresh();
+		registry.add(new ComputedTracker(2, "other", true, true));
+
+		assertEquals(1, before.size());
+		assertTrue(before.getTrackers(TrackerPosition.WAIST).isEmpty());
+		assertEquals(2, registry.getSnapshot().size());
+		assertEquals(List.of(tracker), registry.getSnapshot().getTrackers(TrackerPosition.WAIST));
+	}
+
+	@Test
+	public void groupsTrackersByPerformer() {
+		TrackerRegistry registry = new TrackerRegistry();
+		ComputedTracker first = new ComputedTracker(1, "first", true, true);
+		ComputedTracker second = new ComputedTracker(2, "second", true, true);
+		ComputedTracker other = new ComputedTracker(3, "other", true, true);
+		registry.add(first);
+		registry.add(other, 1);
+		registry.add(second, 0);
+
+		TrackerRegistry.Snapshot snapshot = registry.getSnapshot();
+		assertEquals(List.of(first, second), snapshot.getPerformerTrackers(0));
+		assertEquals(List.of(other), snapshot.getPerformerTrackers(1));
+		assertTrue(snapshot.getPerformerTrackers(2).isEmpty());
+		assertEquals(1, snapshot.getPerformer(other));
+		assertEquals(-1, snapshot.getPerformer(new ComputedTracker(4, "new", true, true)));
+	}
+}
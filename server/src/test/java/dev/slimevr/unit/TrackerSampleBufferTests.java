@@ -0,0 +1,71 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.vr.trackers.TrackerSampleBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link TrackerSampleBuffer}
+ */
+public class TrackerSampleBufferTests {
+
+	@Test
+	public void samplesAreReadInOrder() {
+		TrackerSampleBuffer buffer = new TrackerSampleBuffer(4);
+		TrackerSampleBuffer.Sample sample = new TrackerSampleBuffer.Sample();
+		for (int i = 0; i < 3; ++i) {
+			buffer.publish(TrackerSampleBuffer.TYPE_ROTATION, i, i, i, i, i, i);
+		}
+		for (int i = 0; i < 3; ++i) {
+			assertTrue(buffer.poll(sample));
+			assertEquals(i, sample.timeNanos);
+			assertEquals(i, sample.info);
+			assertEquals(i, sample.w, 0f);
+		}
+		assertFalse(buffer.poll(sample));
+		assertEquals(0, buffer.getLostSamples());
+	}
+
+	@Test
+	public void oldestSamplesAreOverwritten() {
+		TrackerSampleBuffer buffer = new TrackerSampleBuffer(4);
+		TrackerSampleBuffer.Sample sample = new TrackerSampleBuffer.Sample();
+		for (int i = 0; i < 10; ++i) {
+			buffer.publish(TrackerSampleBuffer.TYPE_ACCELERATION, i, i, 0, 0, 0, 0);
+		}
+		for (int i = 6; i < 10; ++i) {
+			assertTrue(buffer.poll(sample));
+			assertEquals(i, sample.timeNanos);
+		}
+		assertFalse(buffer.poll(sample));
+		assertEquals(6, buffer.getLostSamples());
+	}
+
+	@Test
+	public void concurrentReaderNeverSeesTornSamples() throws InterruptedException {
+		TrackerSampleBuffer buffer = new TrackerSampleBuffer(8);
+		int count = 1_000_000;
+		Thread producer = new Thread(() -> {
+			for (int i = 1; i <= count; ++i) {
+				buffer.publish(TrackerSampleBuffer.TYPE_ROTATION, i, i, i, i, i, i);
+			}
+		});
+		producer.start();
+		TrackerSampleBuffer.Sample sample = new TrackerSampleBuffer.Sample();
+		long last = 0;
+		while (last < count) {
+			if (!buffer.poll(sample))
+				continue;
+			assertEquals(sample.timeNanos, sample.info);
+			assertEquals((float) sample.info, sample.x, 0f);
+			assertEquals((float) sample.info, sample.w, 0f);
+			assertTrue(sample.timeNanos > last);
+			last = sample.timeNanos;
+		}
+		producer.join();
+	}
+}
@@ -0,0 +1,118 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.vr.trackers.udp.TrackersUDPServer;
+import dev.slimevr.vr.trackers.udp.UDPDevice;
+import dev.slimevr.vr.trackers.udp.UDPIngestWorker;
+import dev.slimevr.vr.trackers.udp.UDPPacket;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Compares the ingest throughput of the non-blocking channel loop of
+ * {@link TrackersUDPServer} against the legacy blocking socket loop by
+ * flooding both with heartbeats over loopback. Tagged as a benchmark, so only
+ * run by the benchmark task.
+ */
+@Tag("benchmark")
+public class TrackersUDPServerThroughputTests {
+
+	private static final long SEND_DURATION_MS = 1000;
+	private static final boolean PRINT_TEST_RESULTS = false;
+
+	@Test
+	public void channelIngestKeepsUpWithSocketIngest() throws Exception {
+		double socketRate = measure(false);
+		double channelRate = measure(true);
+		if (PRINT_TEST_RESULTS) {
+			System.out
+				.println(
+					"Socket ingest: "
+						+ (long) socketRate
+						+ " packets/s, channel ingest: "
+						+ (long) channelRate
+						+ " packets/s"
+				);
+		}
+		assertTrue(socketRate > 0, "Socket ingest didn't receive any packet");
+		assertTrue(channelRate > 0, "Channel ingest didn't receive any packet");
+		// Loose, the rates vary with the machine and the load
+		assertTrue(
+			channelRate >= socketRate / 2,
+			"Channel ingest at "
+				+ (long) channelRate
+				+ " packets/s fell behind socket ingest at "
+				+ (long) socketRate
+				+ " packets/s"
+		);
+	}
+
+	private static double measure(boolean useChannel) throws Exception {
+		CountingServer server = new CountingServer(useChannel);
+		server.setDaemon(true);
+		server.start();
+		try {
+			long waitUntil = System.currentTimeMillis() + 5000;
+			while (server.getLocalPort() <= 0 && System.currentTimeMillis() < waitUntil)
+				Thread.sleep(10);
+			assertTrue(server.getLocalPort() > 0, "Server didn't bind");
+			InetSocketAddress target = new InetSocketAddress(
+				InetAddress.getLoopbackAddress(),
+				server.getLocalPort()
+			);
+			flood(target);
+			// Let the server drain what's still queued in the socket
+			Thread.sleep(100);
+			return server.processed.get() * 1000.0 / SEND_DURATION_MS;
+		} finally {
+			server.interrupt();
+			server.join(1000);
+		}
+	}
+
+	private static void flood(InetSocketAddress target) throws IOException {
+		try (DatagramChannel sender = DatagramChannel.open()) {
+			ByteBuffer buf = ByteBuffer.allocateDirect(12);
+			long packetNumber = 0;
+			long end = System.currentTimeMillis() + SEND_DURATION_MS;
+			while (System.currentTimeMillis() < end) {
+				for (int i = 0; i < 100; ++i) {
+					buf.clear();
+					buf.putInt(0); // PACKET_HEARTBEAT
+					buf.putLong(++packetNumber);
+					buf.flip();
+					sender.send(buf, target);
+				}
+			}
+		}
+	}
+
+	private static class CountingServer extends TrackersUDPServer {
+
+		private final AtomicLong processed = new AtomicLong();
+
+		CountingServer(boolean useChannel) {
+			super(0, "Throughput test server", tracker -> {
+			}, useChannel);
+		}
+
+		@Override
+		protected void processPacket(
+			UDPIngestWorker worker,
+			InetSocketAddress received,
+			UDPPacket packet,
+			UDPDevice connection
+		) {
+			processed.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.vr.trackers.udp.UDPCaptureReader;
+import dev.slimevr.vr.trackers.udp.UDPCaptureWriter;
+import dev.slimevr.vr.trackers.udp.UDPReplayDriver;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link UDPCaptureWriter}, {@link UDPCaptureReader} and
+ * {@link UDPReplayDriver}
+ */
+public class UDPCaptureTests {
+
+	@Test
+	public void captureRoundTrips() throws IOException {
+		Path file = Files.createTempFile("slimevr-capture", ".bin");
+		try {
+			InetSocketAddress source = new InetSocketAddress(
+				InetAddress.getByAddress(new byte[] { (byte) 192, (byte) 168, 1, 42 }),
+				51234
+			);
+			ByteBuffer datagram = ByteBuffer.allocate(12);
+			try (UDPCaptureWriter writer = new UDPCaptureWriter(file)) {
+				for (int i = 0; i < 3; ++i) {
+					datagram.clear();
+					datagram.putInt(i);
+					datagram.putLong(i * 10L);
+					datagram.flip();
+					writer.write(1000L + i, source, datagram);
+					// The datagram must be left as is for processing
+					assertEquals(0, datagram.position());
+				}
+			}
+			try (UDPCaptureReader reader = new UDPCaptureReader(file)) {
+				for (int i = 0; i < 3; ++i) {
+					assertTrue(reader.next());
+					assertEquals(1000L + i, reader.getTimeNanos());
+					assertEquals(source, reader.getSource());
+					assertEquals(12, reader.getDatagram().remaining());
+					assertEquals(i, reader.getDatagram().getInt());
+					assertEquals(i * 10L, reader.getDatagram().getLong());
+				}
+				assertFalse(reader.next());
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void truncatedLastRecordEndsTheCapture() throws IOException {
+		Path file = Files.createTempFile("slimevr-capture", ".bin");
+		try {
+			InetSocketAddress source = new InetSocketAddress(InetAddress.getLoopbackAddress(), 1);
+			ByteBuffer datagram = ByteBuffer.allocate(8);
+			try (UDPCaptureWriter writer = new UDPCaptureWriter(file)) {
+				for (int i = 0; i < 2; ++i) {
+					datagram.clear();
+					datagram.putLong(i);
+					datagram.flip();
+					writer.write(i, source, datagram);
+				}
+			}
+			// Cut the last datagram short, like a capture that wasn't closed
+			byte[] bytes = Files.readAllBytes(file);
+			Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+			try (UDPCaptureReader reader = new UDPCaptureReader(file)) {
+				assertTrue(reader.next());
+				assertEquals(0, reader.getDatagram().getLong());
+				assertFalse(reader.next());
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void writesAfterCloseAreIgnored() throws IOException {
+		Path file = Files.createTempFile("slimevr-capture", ".bin");
+		try {
+			InetSocketAddress source = new InetSocketAddress(InetAddress.getLoopbackAddress(), 1);
+			ByteBuffer datagram = ByteBuffer.allocate(4);
+			UDPCaptureWriter writer = new UDPCaptureWriter(file);
+			writer.write(0, source, datagram);
+			writer.flush();
+			writer.close();
+			writer.write(1, source, datagram);
+			writer.close();
+			assertEquals(1, writer.getDatagrams());
+			try (UDPCaptureReader reader = new UDPCaptureReader(file)) {
+				assertTrue(reader.next());
+				assertFalse(reader.next());
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void replayKeepsOrderAndSpacing() throws IOException {
+		Path file = Files.createTempFile("slimevr-capture", ".bin");
+		try {
+			InetSocketAddress source = new InetSocketAddress(InetAddress.getLoopbackAddress(), 1);
+			ByteBuffer datagram = ByteBuffer.allocate(4);
+			try (UDPCaptureWriter writer = new UDPCaptureWriter(file)) {
+				for (int i = 0; i < 5; ++i) {
+					datagram.clear();
+					datagram.putInt(i);
+					datagram.flip();
+					// 20 ms apart
+					writer.write(i * 20_000_000L, source, datagram);
+				}
+			}
+			List<Integer> replayed = new ArrayList<>();
+			long start = System.nanoTime();
+			try (UDPCaptureReader reader = new UDPCaptureReader(file)) {
+				// At 2x, 80 ms of capture take 40 ms
+				long count = new UDPReplayDriver(reader, 2)
+					.run((from, buf) -> replayed.add(buf.getInt()));
+				assertEquals(5, count);
+			}
+			long elapsed = System.nanoTime() - start;
+			assertEquals(List.of(0, 1, 2, 3, 4), replayed);
+			assertTrue(elapsed >= 40_000_000L, "Replay didn't keep the spacing");
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.vr.trackers.udp.UDPPacket100Bundle;
+import dev.slimevr.vr.trackers.udp.UDPPacket12BatteryLevel;
+import dev.slimevr.vr.trackers.udp.UDPPacket17RotationData;
+import dev.slimevr.vr.trackers.udp.UDPPacket4Acceleration;
+import dev.slimevr.vr.trackers.udp.UDPProtocolParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link UDPProtocolParser} on hand built bundles and the handshake
+ * response
+ */
+public class UDPProtocolParserTests {
+
+	@Test
+	public void readsEveryPacketOfABundle() throws IOException {
+		ByteBuffer buf = bundle();
+		putRotation(buf, 0, UDPPacket17RotationData.DATA_TYPE_NORMAL, 0.5f);
+		putAccel(buf, 1, 2f);
+		putRotation(buf, 1, UDPPacket17RotationData.DATA_TYPE_CORRECTION, 0.25f);
+		UDPProtocolParser parser = new UDPProtocolParser();
+		UDPPacket100Bundle bundle = parseBundle(parser, buf);
+
+		UDPPacket17RotationData rotation = assertInstanceOf(
+			UDPPacket17RotationData.class,
+			parser.parseBundled(bundle)
+		);
+		assertEquals(0, rotation.sensorId);
+		assertEquals(UDPPacket17RotationData.DATA_TYPE_NORMAL, rotation.dataType);
+		assertEquals(0.5f, rotation.rotation.getW());
+		assertEquals(3, rotation.calibrationInfo);
+
+		UDPPacket4Acceleration accel = assertInstanceOf(
+			UDPPacket4Acceleration.class,
+			parser.parseBundled(bundle)
+		);
+		assertEquals(1, accel.sensorId);
+		assertEquals(2f, accel.acceleration.y);
+
+		UDPPacket17RotationData correction = assertInstanceOf(
+			UDPPacket17RotationData.class,
+			parser.parseBundled(bundle)
+		);
+		assertEquals(1, correction.sensorId);
+		assertEquals(UDPPacket17RotationData.DATA_TYPE_CORRECTION, correction.dataType);
+		assertEquals(0.25f, correction.rotation.getW());
+		assertFalse(bundle.hasRemaining());
+	}
+
+	@Test
+	public void bundledPacketsDontReadPastTheirLength() throws IOException {
+		ByteBuffer buf = bundle();
+		// Battery level without voltage, must not take the next packet's bytes
+		buf.putShort((short) 8);
+		buf.putInt(UDPProtocolParser.PACKET_BATTERY_LEVEL);
+		buf.putFloat(0.25f);
+		putBattery(buf, 0.75f);
+		UDPProtocolParser parser = new UDPProtocolParser();
+		UDPPacket100Bundle bundle = parseBundle(parser, buf);
+
+		UDPPacket12BatteryLevel first = assertInstanceOf(
+			UDPPacket12BatteryLevel.class,
+			parser.parseBundled(bundle)
+		);
+		assertEquals(0.25f, first.level);
+		assertEquals(0f, first.voltage);
+		UDPPacket12BatteryLevel second = assertInstanceOf(
+			UDPPacket12BatteryLevel.class,
+			parser.parseBundled(bundle)
+		);
+		assertEquals(0.75f, second.level);
+		assertFalse(bundle.hasRemaining());
+	}
+
+	@Test
+	public void skipsNestedBundlesAndHandshakes() throws IOException {
+		ByteBuffer buf = bundle();
+		buf.putShort((short) 12);
+		buf.putInt(UDPProtocolParser.PACKET_BUNDLE);
+		// Would be a valid packet if the nested bundle was parsed
+		buf.putShort((short) 6);
+		buf.putInt(UDPProtocolParser.PACKET_HEARTBEAT);
+		buf.putShort((short) 0);
+		buf.putShort((short) 8);
+		buf.putInt(UDPProtocolParser.PACKET_HANDSHAKE);
+		buf.putInt(0);
+		putBattery(buf, 0.5f);
+		UDPProtocolParser parser = new UDPProtocolParser();
+		UDPPacket100Bundle bundle = parseBundle(parser, buf);
+
+		assertNull(parser.parseBundled(bundle));
+		assertNull(parser.parseBundled(bundle));
+		UDPPacket12BatteryLevel battery = assertInstanceOf(
+			UDPPacket12BatteryLevel.class,
+			parser.parseBundled(bundle)
+		);
+		assertEquals(0.5f, battery.level);
+		assertFalse(bundle.hasRemaining());
+	}
+
+	@Test
+	public void rejectsPacketsShorterThanTheirId() throws IOException {
+		ByteBuffer buf = bundle();
+		buf.putShort((short) 3);
+		buf.put(new byte[3]);
+		putBattery(buf, 0.5f);
+		assertMalformed(buf, "packet length 3");
+	}
+
+	@Test
+	public void rejectsPacketsLongerThanTheBundle() throws IOException {
+		ByteBuffer buf = bundle();
+		putBattery(buf, 0.5f);
+		buf.putShort((short) 9);
+		buf.putInt(UDPProtocolParser.PACKET_BATTERY_LEVEL);
+		buf.putFloat(0.5f);
+		UDPProtocolParser parser = new UDPProtocolParser();
+		UDPPacket100Bundle bundle = parseBundle(parser, buf);
+
+		// Packets before the malformed one are still read
+		assertInstanceOf(UDPPacket12BatteryLevel.class, parser.parseBundled(bundle));
+		IOException e = assertThrows(IOException.class, () -> parser.parseBundled(bundle));
+		assertTrue(e.getMessage().contains("packet length 9"), e.getMessage());
+		assertFalse(bundle.hasRemaining());
+	}
+
+	@Test
+	public void rejectsTrailingByte() throws IOException {
+		ByteBuffer buf = bundle();
+		putBattery(buf, 0.5f);
+		buf.put((byte) 1);
+		UDPProtocolParser parser = new UDPProtocolParser();
+		UDPPacket100Bundle bundle = parseBundle(parser, buf);
+
+		assertInstanceOf(UDPPacket12BatteryLevel.class, parser.parseBundled(bundle));
+		IOException e = assertThrows(IOException.class, () -> parser.parseBundled(bundle));
+		assertTrue(e.getMessage().contains("1 trailing bytes"), e.getMessage());
+		assertFalse(bundle.hasRemaining());
+	}
+
+	@Test
+	public void handshakeResponseAdvertisesServerFeatures() throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(128);
+		new UDPProtocolParser().writeHandshakeResponse(buf, null);
+		buf.flip();
+		assertEquals(64, buf.remaining());
+		assertEquals(UDPProtocolParser.PACKET_HANDSHAKE, buf.get(0));
+		// The greeting stays nul-terminated for older firmware
+		assertEquals(0, buf.get(UDPProtocolParser.HANDSHAKE_FEATURES_OFFSET - 1));
+		assertEquals(
+			UDPProtocolParser.SERVER_FEATURES,
+			buf.getInt(UDPProtocolParser.HANDSHAKE_FEATURES_OFFSET)
+		);
+	}
+
+	private static void assertMalformed(ByteBuffer buf, String message) throws IOException {
+		UDPProtocolParser parser = new UDPProtocolParser();
+		UDPPacket100Bundle bundle = parseBundle(parser, buf);
+		IOException e = assertThrows(IOException.class, () -> parser.parseBundled(bundle));
+		assertTrue(e.getMessage().contains(message), e.getMessage());
+		// The rest of the bundle can't be trusted and is dropped
+		assertFalse(bundle.hasRemaining());
+	}
+
+	private static ByteBuffer bundle() {
+		ByteBuffer buf = ByteBuffer.allocate(256);
+		buf.putInt(UDPProtocolParser.PACKET_BUNDLE);
+		buf.putLong(1);
+		return buf;
+	}
+
+	private static UDPPacket100Bundle parseBundle(UDPProtocolParser parser, ByteBuffer buf)
+		throws IOException {
+		buf.flip();
+		return assertInstanceOf(UDPPacket100Bundle.class, parser.parse(buf, null));
+	}
+
+	private static void putRotation(ByteBuffer buf, int sensorId, int dataType, float w) {
+		buf.putShort((short) 23);
+		buf.putInt(UDPProtocolParser.PACKET_ROTATION_DATA);
+		buf.put((byte) sensorId);
+		buf.put((byte) dataType);
+		buf.putFloat(0).putFloat(0).putFloat(0).putFloat(w);
+		buf.put((byte) 3);
+	}
+
+	private static void putAccel(ByteBuffer buf, int sensorId, float y) {
+		buf.putShort((short) 17);
+		buf.putInt(UDPProtocolParser.PACKET_ACCEL);
+		buf.putFloat(0).putFloat(y).putFloat(0);
+		buf.put((byte) sensorId);
+	}
+
+	private static void putBattery(ByteBuffer buf, float level) {
+		buf.putShort((short) 12);
+		buf.putInt(UDPProtocolParser.PACKET_BATTERY_LEVEL);
+		buf.putFloat(3.7f).putFloat(level);
+	}
+}
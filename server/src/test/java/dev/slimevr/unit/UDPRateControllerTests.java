@@ -0,0 +1,186 @@
+package dev.slimevr.unit;
+
+import dev.slimevr.vr.trackers.udp.UDPPacket22RateControl;
+import dev.slimevr.vr.trackers.udp.UDPProtocolParser;
+import dev.slimevr.vr.trackers.udp.UDPRateController;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests {@link UDPRateController} against a firmware stand-in streaming over a
+ * link that loses everything above its capacity
+ */
+public class UDPRateControllerTests {
+
+	private static final int SENSORS = 2;
+	private static final int FIRMWARE_RATE = 100;
+
+	@Test
+	public void lowersRateUntilLinkStopsLosingPackets() throws IOException {
+		FirmwareStandIn firmware = new FirmwareStandIn();
+		UDPRateController controller = new UDPRateController();
+		UDPRateController.Device device = new UDPRateController.Device();
+		int capacity = 150;
+		long lost = 0;
+		long sent = 0;
+		for (int i = 0; i < 60; ++i) {
+			long[] result = firmware.stream(capacity);
+			if (i >= 30) {
+				sent += result[0];
+				lost += result[1];
+			}
+			firmware.observe(device);
+			firmware.receive(controller.update(device, false, 1f));
+		}
+		assertTrue(device.getRequestedRate() >= UDPRateController.MIN_RATE);
+		assertTrue(
+			device.getRequestedRate() * SENSORS <= capacity * 1.2f,
+			"Rate " + device.getRequestedRate() + " Hz too high for the link"
+		);
+		assertTrue(
+			lost <= sent * UDPRateController.LOSS_THRESHOLD,
+			lost + " packets lost out of " + sent
+		);
+
+		// Rate goes back up to the firmware's default once the link recovers
+		for (int i = 0; i < 60; ++i) {
+			firmware.stream(1000);
+			firmware.observe(device);
+			firmware.receive(controller.update(device, false, 1f));
+		}
+		assertEquals(UDPRateController.FIRMWARE_DEFAULT, device.getRequestedRate());
+		assertEquals(FIRMWARE_RATE, firmware.rate);
+	}
+
+	@Test
+	public void lowersRateWhenServerIsOverloaded() throws IOException {
+		FirmwareStandIn firmware = new FirmwareStandIn();
+		UDPRateController controller = new UDPRateController();
+		UDPRateController.Device device = new UDPRateController.Device();
+		for (int i = 0; i < 2; ++i) {
+			firmware.stream(1000);
+			firmware.observe(device);
+			firmware.receive(controller.update(device, i > 0, 1f));
+		}
+		assertTrue(firmware.rate < FIRMWARE_RATE);
+		assertEquals(firmware.rate, device.getRequestedRate());
+	}
+
+	@Test
+	public void lowersRateWhenTheTickLosesSamples() throws IOException {
+		FirmwareStandIn firmware = new FirmwareStandIn();
+		// The network keeps up, the tick applying the samples doesn't
+		firmware.tickCapacity = 120;
+		UDPRateController controller = new UDPRateController();
+		UDPRateController.Device device = new UDPRateController.Device();
+		long lost = 0;
+		long received = 0;
+		for (int i = 0; i < 60; ++i) {
+			long lostBefore = firmware.lostSamples;
+			long receivedBefore = firmware.receivedPackets;
+			firmware.stream(1000);
+			if (i >= 30) {
+				lost += firmware.lostSamples - lostBefore;
+				received += firmware.receivedPackets - receivedBefore;
+			}
+			firmware.observe(device);
+			firmware.receive(controller.update(device, false, 1f));
+		}
+		assertTrue(firmware.rate < FIRMWARE_RATE);
+		assertTrue(
+			lost <= received * UDPRateController.LOSS_THRESHOLD,
+			lost + " samples lost out of " + received
+		);
+	}
+
+	@Test
+	public void leavesDevicesIgnoringRequestsAlone() throws IOException {
+		FirmwareStandIn firmware = new FirmwareStandIn();
+		firmware.ignoresRequests = true;
+		UDPRateController controller = new UDPRateController();
+		UDPRateController.Device device = new UDPRateController.Device();
+		int requests = 0;
+		for (int i = 0; i < 30; ++i) {
+			firmware.stream(150);
+			firmware.observe(device);
+			int rate = controller.update(device, false, 1f);
+			if (rate != UDPRateController.UNCHANGED)
+				requests++;
+			firmware.receive(rate);
+		}
+		assertTrue(device.isUnresponsive());
+		// Lowered twice before the rate observed is far enough above
+		assertTrue(
+			requests <= UDPRateController.MAX_UNANSWERED_REQUESTS + 2,
+			requests + " requests sent"
+		);
+		assertEquals(FIRMWARE_RATE, firmware.rate);
+	}
+
+	/**
+	 * Streams at the requested rate and decodes rate control packets like the
+	 * firmware would
+	 */
+	private static class FirmwareStandIn {
+
+		private final UDPProtocolParser parser = new UDPProtocolParser();
+		private final ByteBuffer buf = ByteBuffer.allocate(64);
+		private final UDPPacket22RateControl packet = new UDPPacket22RateControl();
+		int rate = FIRMWARE_RATE;
+		boolean ignoresRequests = false;
+		/**
+		 * Samples the server tick applies per second, the rest is lost
+		 */
+		int tickCapacity = Integer.MAX_VALUE;
+		long rotationPackets;
+		long lostSamples;
+		long receivedPackets;
+		long missingPackets;
+
+		/**
+		 * Streams for one second
+		 *
+		 * @return packets sent and lost
+		 */
+		long[] stream(int capacity) {
+			long sent = (long) rate * SENSORS;
+			long received = Math.min(sent, capacity);
+			rotationPackets += received;
+			receivedPackets += received;
+			missingPackets += sent - received;
+			lostSamples += Math.max(received - tickCapacity, 0);
+			return new long[] { sent, sent - received };
+		}
+
+		void observe(UDPRateController.Device device) {
+			device.sensors = SENSORS;
+			device.rotationPackets = rotationPackets;
+			device.receivedPackets = receivedPackets;
+			device.missingPackets = missingPackets;
+			device.lostSamples = lostSamples;
+		}
+
+		void receive(int requestedRate) throws IOException {
+			if (requestedRate == UDPRateController.UNCHANGED || ignoresRequests)
+				return;
+			packet.rotationRate = requestedRate;
+			packet.accelRate = requestedRate;
+			buf.clear();
+			parser.write(buf, null, packet);
+			buf.flip();
+			assertEquals(UDPProtocolParser.PACKET_RATE_CONTROL, buf.getInt());
+			buf.getLong();
+			UDPPacket22RateControl received = new UDPPacket22RateControl();
+			received.readData(buf);
+			rate = received.rotationRate == 0
+				? FIRMWARE_RATE
+				: Math.min(received.rotationRate, FIRMWARE_RATE);
+		}
+	}
+}